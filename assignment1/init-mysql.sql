@@ -18,6 +18,26 @@ CREATE TABLE IF NOT EXISTS transactions (
     INDEX idx_customer_id (customer_id)
 );
 
+-- Consumed offsets for order-consumer's offset-store mode, written in the same
+-- transaction as the transactions rows; the next offset to read per partition
+CREATE TABLE IF NOT EXISTS consumer_offsets (
+    group_id VARCHAR(255) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    partition_id INT NOT NULL,
+    next_offset BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (group_id, topic, partition_id)
+);
+
+-- Order ids with records in order-consumer's retry tiers, and how many; later
+-- orders with the same id are sent behind them until the count drops to zero
+CREATE TABLE IF NOT EXISTS retry_parked (
+    order_id VARCHAR(255) NOT NULL PRIMARY KEY,
+    tier INT NOT NULL,
+    records INT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
 -- Hourly summary table for Kafka Connect JDBC Sink
 CREATE TABLE IF NOT EXISTS hourly_summary (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -39,4 +59,6 @@ ON DUPLICATE KEY UPDATE order_id = order_id;
 -- Show tables created
 SHOW TABLES;
 DESCRIBE transactions;
+DESCRIBE consumer_offsets;
+DESCRIBE retry_parked;
 DESCRIBE hourly_summary;
\ No newline at end of file
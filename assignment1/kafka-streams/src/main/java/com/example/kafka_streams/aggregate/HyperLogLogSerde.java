@@ -0,0 +1,12 @@
+package com.example.kafka_streams.aggregate;
+
+import org.apache.kafka.common.serialization.Serdes;
+
+/** Fixed {@code 2^precision + 1}-byte encoding of {@link HyperLogLog}. */
+public class HyperLogLogSerde extends Serdes.WrapperSerde<HyperLogLog> {
+
+    public HyperLogLogSerde() {
+        super((topic, sketch) -> sketch == null ? null : sketch.toBytes(),
+              (topic, bytes) -> bytes == null ? null : HyperLogLog.fromBytes(bytes));
+    }
+}
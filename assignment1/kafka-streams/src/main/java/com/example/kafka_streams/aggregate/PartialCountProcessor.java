@@ -0,0 +1,92 @@
+package com.example.kafka_streams.aggregate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+/**
+ * First stage of a two-stage count. Each task counts its own input per window
+ * in a local store keyed by window start, so state is one entry per open window
+ * per partition however many distinct record keys there are. Every
+ * {@code flushInterval} of wall-clock time the partial counts are forwarded,
+ * keyed by {@code windowKey(windowStart)}, and cleared. The second stage sums
+ * them per key.
+ *
+ * <p>A forwarded partial carries the largest event timestamp counted into it,
+ * so downstream windowing and grace see event time, not flush time.
+ */
+public class PartialCountProcessor<V> implements Processor<String, V, String, Long> {
+
+    private final String storeName;
+    private final long windowSizeMs;
+    private final Duration flushInterval;
+    private final LongFunction<String> windowKey;
+
+    private ProcessorContext<String, Long> context;
+    private TimestampedKeyValueStore<Long, Long> partials;
+
+    public PartialCountProcessor(String storeName, Duration windowSize, Duration flushInterval,
+                                 LongFunction<String> windowKey) {
+        this.storeName = storeName;
+        this.windowSizeMs = windowSize.toMillis();
+        this.flushInterval = flushInterval;
+        this.windowKey = windowKey;
+    }
+
+    public static StoreBuilder<TimestampedKeyValueStore<Long, Long>> storeBuilder(String storeName) {
+        return storeBuilder(storeName, StoreType.ROCKS_DB);
+    }
+
+    public static StoreBuilder<TimestampedKeyValueStore<Long, Long>> storeBuilder(String storeName,
+                                                                                  StoreType storeType) {
+        return Stores.timestampedKeyValueStoreBuilder(storeType == StoreType.IN_MEMORY
+                    ? Stores.inMemoryKeyValueStore(storeName)
+                    : Stores.persistentTimestampedKeyValueStore(storeName),
+                Serdes.Long(), Serdes.Long())
+            .withCachingEnabled();
+    }
+
+    @Override
+    public void init(ProcessorContext<String, Long> context) {
+        this.context = context;
+        this.partials = context.getStateStore(storeName);
+        context.schedule(flushInterval, PunctuationType.WALL_CLOCK_TIME, now -> flush());
+    }
+
+    @Override
+    public void process(Record<String, V> record) {
+        long timestamp = record.timestamp();
+        long windowStart = timestamp - Math.floorMod(timestamp, windowSizeMs);
+        ValueAndTimestamp<Long> partial = partials.get(windowStart);
+        if (partial == null) {
+            partials.put(windowStart, ValueAndTimestamp.make(1L, timestamp));
+        } else {
+            partials.put(windowStart, ValueAndTimestamp.make(partial.value() + 1, Math.max(partial.timestamp(), timestamp)));
+        }
+    }
+
+    void flush() {
+        List<KeyValue<Long, ValueAndTimestamp<Long>>> pending = new ArrayList<>();
+        try (KeyValueIterator<Long, ValueAndTimestamp<Long>> all = partials.all()) {
+            all.forEachRemaining(pending::add);
+        }
+        for (KeyValue<Long, ValueAndTimestamp<Long>> partial : pending) {
+            context.forward(new Record<>(windowKey.apply(partial.key), partial.value.value(), partial.value.timestamp()));
+            partials.delete(partial.key);
+        }
+    }
+}
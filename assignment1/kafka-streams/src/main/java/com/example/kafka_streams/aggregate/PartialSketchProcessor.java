@@ -0,0 +1,75 @@
+package com.example.kafka_streams.aggregate;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+import com.example.kafka_streams.state.SketchStore;
+
+/**
+ * First stage of a two-stage sketch aggregation, the counterpart of
+ * {@link PartialCountProcessor}. Each task adds {@code itemOf(value)} to a local
+ * {@link Sketch} per window, and every {@code flushInterval} of
+ * wall-clock time forwards the sketches keyed by window start and clears them.
+ * Records without an item are skipped.
+ *
+ * <p>A forwarded sketch is stamped with the task's stream time, capped at the
+ * last millisecond of its window, so a partial of an old window does not move
+ * downstream stream time past that window.
+ */
+public class PartialSketchProcessor<V, S extends Sketch<S>> implements Processor<String, V, Long, S> {
+
+    private final String storeName;
+    private final long windowSizeMs;
+    private final Duration flushInterval;
+    private final Supplier<S> newSketch;
+    private final Function<V, String> itemOf;
+
+    private ProcessorContext<Long, S> context;
+    private SketchStore<S> sketches;
+
+    public PartialSketchProcessor(String storeName, Duration windowSize, Duration flushInterval, Supplier<S> newSketch,
+                                  Function<V, String> itemOf) {
+        this.storeName = storeName;
+        this.windowSizeMs = windowSize.toMillis();
+        this.flushInterval = flushInterval;
+        this.newSketch = newSketch;
+        this.itemOf = itemOf;
+    }
+
+    @Override
+    public void init(ProcessorContext<Long, S> context) {
+        this.context = context;
+        this.sketches = context.getStateStore(storeName);
+        context.schedule(flushInterval, PunctuationType.WALL_CLOCK_TIME, now -> flush());
+    }
+
+    @Override
+    public void process(Record<String, V> record) {
+        String item = itemOf.apply(record.value());
+        if (item == null) {
+            return;
+        }
+        long timestamp = record.timestamp();
+        long windowStart = timestamp - Math.floorMod(timestamp, windowSizeMs);
+        S sketch = sketches.get(windowStart);
+        if (sketch == null) {
+            sketch = newSketch.get();
+        }
+        sketch.add(item);
+        sketches.put(windowStart, sketch);
+    }
+
+    void flush() {
+        for (Long windowStart : sketches.windows()) {
+            long timestamp = Math.min(context.currentStreamTimeMs(), windowStart + windowSizeMs - 1);
+            context.forward(new Record<>(windowStart, sketches.get(windowStart), timestamp));
+            sketches.delete(windowStart);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.kafka_streams.aggregate;
+
+/**
+ * A mergeable summary of a stream of items. Partial sketches built on separate
+ * partitions are merged into one for the whole window, so the sketch type decides
+ * what is approximated and how much state it takes.
+ */
+public interface Sketch<S extends Sketch<S>> {
+
+    void add(String item);
+
+    /** Folds {@code other} into this sketch; {@code other} is left unchanged. */
+    void merge(S other);
+}
@@ -0,0 +1,64 @@
+package com.example.kafka_streams.aggregate;
+
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+import com.example.kafka_streams.state.SketchStore;
+
+/**
+ * Second stage of a sketch aggregation. Merges the partial sketches of a
+ * window into one and forwards the merged sketch after every merge, so
+ * downstream sees an upsert per window at most once per partial flush.
+ *
+ * <p>Once stream time passes a window's end plus grace the window is closed:
+ * its sketch is dropped and later partials for it are ignored.
+ */
+public class SketchMergeProcessor<S extends Sketch<S>> implements Processor<Long, S, Long, S> {
+
+    private final String storeName;
+    private final long windowSizeMs;
+    private final long graceMs;
+
+    private ProcessorContext<Long, S> context;
+    private SketchStore<S> sketches;
+    private long streamTime = Long.MIN_VALUE;
+
+    public SketchMergeProcessor(String storeName, long windowSizeMs, long graceMs) {
+        this.storeName = storeName;
+        this.windowSizeMs = windowSizeMs;
+        this.graceMs = graceMs;
+    }
+
+    @Override
+    public void init(ProcessorContext<Long, S> context) {
+        this.context = context;
+        this.sketches = context.getStateStore(storeName);
+    }
+
+    @Override
+    public void process(Record<Long, S> record) {
+        streamTime = Math.max(streamTime, record.timestamp());
+        long windowStart = record.key();
+        if (record.value() != null && !isClosed(windowStart)) {
+            S merged = sketches.get(windowStart);
+            if (merged == null) {
+                merged = record.value();
+            } else {
+                merged.merge(record.value());
+            }
+            sketches.put(windowStart, merged);
+            context.forward(record.withValue(merged));
+        }
+
+        for (Long window : sketches.windows()) {
+            if (isClosed(window)) {
+                sketches.delete(window);
+            }
+        }
+    }
+
+    private boolean isClosed(long windowStart) {
+        return windowStart + windowSizeMs + graceMs <= streamTime;
+    }
+}
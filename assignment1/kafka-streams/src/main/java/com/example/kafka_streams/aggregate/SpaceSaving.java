@@ -0,0 +1,231 @@
+package com.example.kafka_streams.aggregate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter sketch (Metwally et al.). At most {@code capacity}
+ * items are counted. An item that is not counted replaces the one with the
+ * smallest count and inherits that count as its error, so memory and the
+ * serialized size depend on the capacity, not on how many distinct items are
+ * seen.
+ *
+ * <p>For every counted item, {@code count - error <= true count <= count}, and
+ * the error is never more than {@code total / capacity}. Every item whose true
+ * count is above {@code total / capacity} is counted.
+ *
+ * <p>Counters are kept in a min-heap indexed by item, so an update is
+ * {@code O(log capacity)}. Instances are mutable and not thread safe.
+ */
+public final class SpaceSaving implements Sketch<SpaceSaving> {
+
+    public record Entry(String item, long count, long error) {
+
+        /** Lower bound on the true count. */
+        public long guaranteed() {
+            return count - error;
+        }
+    }
+
+    private final int capacity;
+    private final String[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> slots;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.items = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    @Override
+    public void add(String item) {
+        add(item, 1);
+    }
+
+    public void add(String item, long weight) {
+        total += weight;
+        Integer slot = slots.get(item);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(slot);
+        } else if (size < capacity) {
+            set(size, item, weight, 0);
+            siftUp(size++);
+        } else {
+            long min = counts[0];
+            slots.remove(items[0]);
+            set(0, item, min + weight, min);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Adds the counters of {@code other}, as in the mergeable summaries of Agarwal
+     * et al. An item missing from one side is assumed to have that side's minimum
+     * count, which is also added to its error, and the largest {@code capacity}
+     * counters are kept. The error bound of the result is the sum of both.
+     */
+    @Override
+    public void merge(SpaceSaving other) {
+        long thisMin = isFull() ? counts[0] : 0;
+        long otherMin = other.isFull() ? other.counts[0] : 0;
+
+        List<Entry> merged = new ArrayList<>(size + other.size);
+        for (int i = 0; i < size; i++) {
+            Integer otherSlot = other.slots.get(items[i]);
+            long count = counts[i] + (otherSlot == null ? otherMin : other.counts[otherSlot]);
+            long error = errors[i] + (otherSlot == null ? otherMin : other.errors[otherSlot]);
+            merged.add(new Entry(items[i], count, error));
+        }
+        for (int i = 0; i < other.size; i++) {
+            if (!slots.containsKey(other.items[i])) {
+                merged.add(new Entry(other.items[i], other.counts[i] + thisMin, other.errors[i] + thisMin));
+            }
+        }
+        if (merged.size() > capacity) {
+            merged.sort(Comparator.comparingLong(Entry::count).reversed());
+        }
+
+        long mergedTotal = total + other.total;
+        clear();
+        for (int i = 0; i < Math.min(capacity, merged.size()); i++) {
+            Entry entry = merged.get(i);
+            set(size, entry.item(), entry.count(), entry.error());
+            siftUp(size++);
+        }
+        total = mergedTotal;
+    }
+
+    /** The {@code k} largest counters, largest first. */
+    public List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(items[i], counts[i], errors[i]));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::item));
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Sum of all weights added, counted or not. */
+    public long total() {
+        return total;
+    }
+
+    /** Upper bound on the error of any counter. */
+    public long maxError() {
+        return total / capacity;
+    }
+
+    private boolean isFull() {
+        return size == capacity;
+    }
+
+    private void clear() {
+        slots.clear();
+        size = 0;
+        total = 0;
+    }
+
+    private void set(int slot, String item, long count, long error) {
+        items[slot] = item;
+        counts[slot] = count;
+        errors[slot] = error;
+        slots.put(item, slot);
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (counts[parent] <= counts[slot]) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String item = items[a];
+        long count = counts[a];
+        long error = errors[a];
+        set(a, items[b], counts[b], errors[b]);
+        set(b, item, count, error);
+    }
+
+    /**
+     * {@code [capacity][total][size]} followed by {@code [id length][id][count][error]}
+     * per counter, so at most {@code capacity} counters whatever the input.
+     */
+    byte[] toBytes() {
+        byte[][] encoded = new byte[size][];
+        int length = Integer.BYTES + Long.BYTES + Integer.BYTES;
+        for (int i = 0; i < size; i++) {
+            encoded[i] = items[i].getBytes(StandardCharsets.UTF_8);
+            length += Integer.BYTES + encoded[i].length + 2 * Long.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length).putInt(capacity).putLong(total).putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(encoded[i].length).put(encoded[i]).putLong(counts[i]).putLong(errors[i]);
+        }
+        return buffer.array();
+    }
+
+    static SpaceSaving fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        SpaceSaving sketch = new SpaceSaving(buffer.getInt());
+        sketch.total = buffer.getLong();
+        int size = buffer.getInt();
+        if (size > sketch.capacity) {
+            throw new IllegalArgumentException("Sketch holds " + size + " counters but has capacity " + sketch.capacity);
+        }
+        for (int i = 0; i < size; i++) {
+            byte[] item = new byte[buffer.getInt()];
+            buffer.get(item);
+            // Serialized in heap order, so the heap property holds as read.
+            sketch.set(i, new String(item, StandardCharsets.UTF_8), buffer.getLong(), buffer.getLong());
+        }
+        sketch.size = size;
+        return sketch;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.kafka_streams.aggregate;
+
+import org.apache.kafka.common.serialization.Serdes;
+
+/** Encoding of a {@link SpaceSaving} sketch, bounded by its capacity. */
+public class SpaceSavingSerde extends Serdes.WrapperSerde<SpaceSaving> {
+
+    public SpaceSavingSerde() {
+        super((topic, sketch) -> sketch == null ? null : sketch.toBytes(),
+              (topic, bytes) -> bytes == null ? null : SpaceSaving.fromBytes(bytes));
+    }
+}
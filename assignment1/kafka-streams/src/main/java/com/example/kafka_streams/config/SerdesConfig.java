@@ -2,8 +2,10 @@ package com.example.kafka_streams.config;
 
 import com.example.kafka_streams.model.Order;
 import com.example.kafka_streams.model.OrderSerdes;
+import com.example.order_codec.OrderWireFormat;
 
 import org.apache.kafka.common.serialization.Serde;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,7 +13,7 @@ import org.springframework.context.annotation.Configuration;
 public class SerdesConfig {
     
     @Bean
-    public Serde<Order> orderSerde() {
-        return new OrderSerdes();
+    public Serde<Order> orderSerde(@Value("${order.codec.format:json}") OrderWireFormat format) {
+        return new OrderSerdes(format);
     }
 }
\ No newline at end of file
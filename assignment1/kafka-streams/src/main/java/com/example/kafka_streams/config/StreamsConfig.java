@@ -1,52 +1,64 @@
 package com.example.kafka_streams.config;
 
 import java.time.Duration;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
 
 import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.suppress.SuppressionMode;
+import com.example.kafka_streams.topology.DistinctCustomersTopology;
+import com.example.kafka_streams.topology.HotProductsTopology;
+import com.example.kafka_streams.topology.HourlyRevenueTopology;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
 
-import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.streams.StreamsBuilder;
-import org.apache.kafka.streams.KeyValue;
-import org.apache.kafka.streams.kstream.*;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafkaStreams;
-
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
 
 @Configuration
-@Slf4j
 @EnableKafkaStreams
 public class StreamsConfig {
 
     @Bean
-    public KStream<String, Order> kStream(StreamsBuilder streamsBuilder, Serde<Order> orderSerde) {
-        KStream<String, Order> stream = streamsBuilder.stream("orders-topic", 
-            Consumed.with(Serdes.String(), orderSerde));
-        
-        stream
-            .peek((key, order) -> log.info("Processing order for streams: key={}, order={}", key, order))
-            .groupByKey()
-            .windowedBy(TimeWindows.ofSizeWithNoGrace(Duration.ofHours(1)))
-            .count()
-            .suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded()))
-            .toStream()
-            .map((windowedKey, count) -> {
-                String hourWindow = windowedKey.window().startTime()
-                        .atOffset(ZoneOffset.UTC)
-                        .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00:00"));
-                
-                String result = String.format("{\"hour_window\":\"%s\",\"transaction_count\":%d}", 
-                        hourWindow, count);
-                
-                log.info("Hourly aggregation: window={}, count={}", hourWindow, count);
-                return KeyValue.pair(hourWindow, result);
-            })
-            .to("hourly-transaction-topic", Produced.with(Serdes.String(), Serdes.String()));
-        
-        return stream;
+    public KStream<String, Order> kStream(StreamsBuilder streamsBuilder, Serde<Order> orderSerde,
+                                          @Value("${hourly.suppression.mode:spill}") SuppressionMode suppressionMode,
+                                          @Value("${hourly.aggregation.flush-interval:1s}") Duration flushInterval,
+                                          @Value("${hourly.aggregation.grace:2m}") Duration grace,
+                                          @Value("${hourly.store.retention:48h}") Duration retention,
+                                          @Value("${minute.store.retention:6h}") Duration minuteRetention,
+                                          @Value("${daily.store.retention:35d}") Duration dayRetention,
+                                          @Value("${hourly.early-results.enabled:true}") boolean earlyResults,
+                                          @Value("${hourly.early-results.interval:30s}") Duration earlyInterval,
+                                          @Value("${hourly.store.type:rocks_db}") StoreType hourlyStoreType,
+                                          @Value("${hourly.revenue.store.type:rocks_db}") StoreType revenueStoreType,
+                                          @Value("${hourly.hot-products.store.type:rocks_db}") StoreType hotProductsStoreType,
+                                          @Value("${distinct-customers.store.type:rocks_db}") StoreType distinctStoreType,
+                                          @Value("${hourly.hot-products.capacity:1000}") int hotProductsCapacity,
+                                          @Value("${hourly.hot-products.top-k:10}") int hotProductsTopK,
+                                          @Value("${distinct-customers.precision:12}") int distinctPrecision) {
+        HourlyTransactionTopology hourly = new HourlyTransactionTopology(orderSerde, suppressionMode, flushInterval,
+            grace, retention).withRollupRetention(minuteRetention, dayRetention).withStoreType(hourlyStoreType);
+        if (earlyResults) {
+            hourly.withEarlyResults(earlyInterval);
+        }
+        KStream<String, Order> orders = hourly.build(streamsBuilder);
+        new HourlyRevenueTopology(grace, retention).withStoreType(revenueStoreType).build(orders);
+        new HotProductsTopology(flushInterval, grace, hotProductsCapacity, hotProductsTopK)
+            .withStoreType(hotProductsStoreType)
+            .build(streamsBuilder, orders);
+        new DistinctCustomersTopology(flushInterval, grace, retention, distinctPrecision)
+            .withStoreType(distinctStoreType)
+            .build(streamsBuilder, orders);
+        return orders;
+    }
+
+    @Bean
+    public KafkaStreamsInteractiveQueryService interactiveQueryService(StreamsBuilderFactoryBean streamsBuilderFactoryBean) {
+        return new KafkaStreamsInteractiveQueryService(streamsBuilderFactoryBean);
     }
-}
\ No newline at end of file
+}
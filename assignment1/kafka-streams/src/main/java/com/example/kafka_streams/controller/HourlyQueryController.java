@@ -0,0 +1,78 @@
+package com.example.kafka_streams.controller;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.kafka_streams.model.DistinctCustomers;
+import com.example.kafka_streams.model.HourlyCount;
+import com.example.kafka_streams.model.HourlyRevenue;
+import com.example.kafka_streams.service.HourlyQueryService;
+
+/**
+ * Hourly totals straight from the window stores, without waiting for the final
+ * emission and the JDBC sink. Hours are ISO-8601 instants such as
+ * {@code 2025-06-01T10:00:00Z} and are truncated to the hour; values of the
+ * current hour are running totals.
+ */
+@RestController
+@RequestMapping("/api/hourly")
+public class HourlyQueryController {
+
+    @Autowired
+    private HourlyQueryService hourlyQueryService;
+
+    @GetMapping("/transactions/{hour}")
+    public ResponseEntity<HourlyCount> getTransactionCount(
+            @PathVariable("hour") Instant hour,
+            @RequestHeader(value = HourlyQueryService.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        return ResponseEntity.of(hourlyQueryService.transactionCount(hour, forwarded));
+    }
+
+    @GetMapping("/transactions")
+    public List<HourlyCount> getTransactionCounts(@RequestParam("from") Instant from, @RequestParam("to") Instant to) {
+        return hourlyQueryService.transactionCounts(from, to);
+    }
+
+    @GetMapping("/customers/distinct/{hour}")
+    public ResponseEntity<DistinctCustomers> getDistinctCustomers(
+            @PathVariable("hour") Instant hour,
+            @RequestHeader(value = HourlyQueryService.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        return ResponseEntity.of(hourlyQueryService.distinctCustomers(hour, forwarded));
+    }
+
+    /** Days are ISO dates such as {@code 2025-06-01}, in UTC. */
+    @GetMapping("/customers/distinct/days/{day}")
+    public ResponseEntity<DistinctCustomers> getDailyDistinctCustomers(
+            @PathVariable("day") LocalDate day,
+            @RequestHeader(value = HourlyQueryService.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        return ResponseEntity.of(hourlyQueryService.dailyDistinctCustomers(day, forwarded));
+    }
+
+    @GetMapping("/revenue/products/{productId}")
+    public List<HourlyRevenue> getProductRevenue(
+            @PathVariable("productId") String productId,
+            @RequestParam("from") Instant from,
+            @RequestParam("to") Instant to,
+            @RequestHeader(value = HourlyQueryService.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        return hourlyQueryService.productRevenue(productId, from, to, forwarded);
+    }
+
+    @GetMapping("/revenue/customers/{customerId}")
+    public List<HourlyRevenue> getCustomerRevenue(
+            @PathVariable("customerId") String customerId,
+            @RequestParam("from") Instant from,
+            @RequestParam("to") Instant to,
+            @RequestHeader(value = HourlyQueryService.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        return hourlyQueryService.customerRevenue(customerId, from, to, forwarded);
+    }
+}
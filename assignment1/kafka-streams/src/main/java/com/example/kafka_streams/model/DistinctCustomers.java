@@ -0,0 +1,22 @@
+package com.example.kafka_streams.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estimated distinct customers in an hour or a day. The estimate is within
+ * {@code standardError} (relative) of the true count about two times in three.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class DistinctCustomers {
+    private String window;
+    private long distinctCustomers;
+    private double standardError;
+}
@@ -0,0 +1,18 @@
+package com.example.kafka_streams.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Transactions in one hour, in the same shape as the records on {@code hourly-transaction-topic}. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class HourlyCount {
+    private String hourWindow;
+    private long transactionCount;
+}
@@ -0,0 +1,23 @@
+package com.example.kafka_streams.model;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Orders, units and revenue of one product or customer in one hour. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class HourlyRevenue {
+    private String hourWindow;
+    private String id;
+    private long orderCount;
+    private long units;
+    private BigDecimal revenue;
+}
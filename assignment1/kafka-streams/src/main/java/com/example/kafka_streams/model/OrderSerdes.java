@@ -1,23 +1,29 @@
 package com.example.kafka_streams.model;
 
-import org.apache.kafka.common.serialization.Deserializer;
-import org.apache.kafka.common.serialization.Serde;
-import org.apache.kafka.common.serialization.Serializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
-public class OrderSerdes implements Serde<Order> {
-    
-    @Override
-    public Serializer<Order> serializer() {
-        return new JsonSerializer<>();
+import com.example.order_codec.OrderSerde;
+import com.example.order_codec.OrderWireFormat;
+
+/**
+ * Order serde backed by the shared binary codec. JSON records written by
+ * producers that have not switched formats yet are still read.
+ */
+public class OrderSerdes extends OrderSerde<Order> {
+
+    public OrderSerdes() {
+        this(OrderWireFormat.BINARY);
+    }
+
+    public OrderSerdes(OrderWireFormat format) {
+        super(OrderCodecAdapter.INSTANCE, new JsonSerializer<>(), jsonDeserializer(), format);
     }
 
-    @Override
-    public Deserializer<Order> deserializer() {
+    private static JsonDeserializer<Order> jsonDeserializer() {
         JsonDeserializer<Order> deserializer = new JsonDeserializer<>(Order.class);
         deserializer.addTrustedPackages("*");
         deserializer.setUseTypeHeaders(false);
         return deserializer;
     }
-}
\ No newline at end of file
+}
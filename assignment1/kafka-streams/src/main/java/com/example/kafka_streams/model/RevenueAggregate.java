@@ -0,0 +1,97 @@
+package com.example.kafka_streams.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+/**
+ * Orders, units and revenue for one key and window. Revenue is held in
+ * millionths so the aggregate is three longs in state and 24 bytes on the wire,
+ * instead of a {@link BigDecimal} per update. Sums are exact for prices of up to
+ * six decimals and only rounded to cents by {@link #getRevenue()}, so sub-cent
+ * prices do not drift by half a cent per order. Instances are immutable.
+ */
+public final class RevenueAggregate {
+
+    static final int SIZE = 3 * Long.BYTES;
+    static final int REVENUE_SCALE = 6;
+
+    public static final RevenueAggregate EMPTY = new RevenueAggregate(0, 0, 0);
+
+    private final long orders;
+    private final long units;
+    private final long revenueMicros;
+
+    public RevenueAggregate(long orders, long units, long revenueMicros) {
+        this.orders = orders;
+        this.units = units;
+        this.revenueMicros = revenueMicros;
+    }
+
+    /** The contribution of a single order. Missing quantity or price count as zero. */
+    public static RevenueAggregate of(Order order) {
+        long quantity = order.getQuantity() == null ? 0 : order.getQuantity();
+        long revenueMicros = order.getPrice() == null
+            ? 0
+            : order.getPrice().multiply(BigDecimal.valueOf(quantity))
+                .setScale(REVENUE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        return new RevenueAggregate(1, quantity, revenueMicros);
+    }
+
+    public RevenueAggregate plus(RevenueAggregate other) {
+        return new RevenueAggregate(orders + other.orders, units + other.units, revenueMicros + other.revenueMicros);
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public long getRevenueMicros() {
+        return revenueMicros;
+    }
+
+    public BigDecimal getRevenue() {
+        return BigDecimal.valueOf(revenueMicros, REVENUE_SCALE).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    byte[] toBytes() {
+        return ByteBuffer.allocate(SIZE).putLong(orders).putLong(units).putLong(revenueMicros).array();
+    }
+
+    static RevenueAggregate fromBytes(byte[] bytes) {
+        if (bytes.length != SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE + " bytes for a revenue aggregate, got " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new RevenueAggregate(buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RevenueAggregate other)) {
+            return false;
+        }
+        return orders == other.orders && units == other.units && revenueMicros == other.revenueMicros;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(orders) * 31 * 31 + Long.hashCode(units) * 31 + Long.hashCode(revenueMicros);
+    }
+
+    @Override
+    public String toString() {
+        return "RevenueAggregate{" +
+                "orders=" + orders +
+                ", units=" + units +
+                ", revenue=" + getRevenue() +
+                '}';
+    }
+}
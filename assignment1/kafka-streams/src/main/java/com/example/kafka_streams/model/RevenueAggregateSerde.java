@@ -0,0 +1,12 @@
+package com.example.kafka_streams.model;
+
+import org.apache.kafka.common.serialization.Serdes;
+
+/** Fixed 24-byte encoding of {@link RevenueAggregate}. */
+public class RevenueAggregateSerde extends Serdes.WrapperSerde<RevenueAggregate> {
+
+    public RevenueAggregateSerde() {
+        super((topic, aggregate) -> aggregate == null ? null : aggregate.toBytes(),
+              (topic, bytes) -> bytes == null ? null : RevenueAggregate.fromBytes(bytes));
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.kafka_streams.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.example.kafka_streams.aggregate.HyperLogLog;
+import com.example.kafka_streams.model.DistinctCustomers;
+import com.example.kafka_streams.model.HourlyCount;
+import com.example.kafka_streams.model.HourlyRevenue;
+import com.example.kafka_streams.model.RevenueAggregate;
+import com.example.kafka_streams.topology.DistinctCustomersTopology;
+import com.example.kafka_streams.topology.HourlyRevenueTopology;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the hourly window stores. A key is answered from the local store when
+ * this instance hosts its partition; otherwise the request is sent once to the
+ * instance that does, found through the streams metadata, and marked as
+ * forwarded so it is never passed on a second time.
+ *
+ * <p>When {@code application.server} is not configured the application runs as
+ * a single instance and every key is local.
+ */
+@Service
+@Slf4j
+public class HourlyQueryService {
+
+    public static final String FORWARDED_HEADER = "X-Streams-Query-Forwarded";
+
+    static final Duration MAX_RANGE = Duration.ofDays(7);
+
+    @Autowired
+    private KafkaStreamsInteractiveQueryService interactiveQueryService;
+
+    @Autowired
+    private RestClient.Builder restClientBuilder;
+
+    private RestClient restClient;
+
+    @PostConstruct
+    void buildRestClient() {
+        restClient = restClientBuilder.build();
+    }
+
+    public Optional<HourlyCount> transactionCount(Instant hour, boolean forwarded) {
+        Instant windowStart = hourOf(hour);
+        String key = HourlyTransactionTopology.HOUR_FORMAT.format(windowStart);
+        HostInfo remote = remoteHost(HourlyTransactionTopology.COUNT_STORE, key, forwarded);
+        if (remote != null) {
+            return Optional.ofNullable(forward(remote, HourlyCount.class, "/api/hourly/transactions/{hour}", windowStart));
+        }
+        ReadOnlyWindowStore<String, Long> store = localStore(HourlyTransactionTopology.COUNT_STORE);
+        Long count = store.fetch(key, windowStart.toEpochMilli());
+        return Optional.ofNullable(count).map(value -> new HourlyCount(key, value));
+    }
+
+    /** Hour totals are keyed by hour, so every hour of the range is a point lookup on its own instance. */
+    public List<HourlyCount> transactionCounts(Instant from, Instant to) {
+        checkRange(from, to);
+        List<HourlyCount> counts = new ArrayList<>();
+        for (Instant hour = hourOf(from); !hour.isAfter(to); hour = hour.plus(1, ChronoUnit.HOURS)) {
+            transactionCount(hour, false).ifPresent(counts::add);
+        }
+        return counts;
+    }
+
+    public Optional<DistinctCustomers> distinctCustomers(Instant hour, boolean forwarded) {
+        Instant windowStart = hourOf(hour);
+        return distinctCustomers(DistinctCustomersTopology.HOURLY_STORE, "/api/hourly/customers/distinct/{hour}",
+            HourlyTransactionTopology.HOUR_FORMAT.format(windowStart), windowStart, windowStart, forwarded);
+    }
+
+    public Optional<DistinctCustomers> dailyDistinctCustomers(LocalDate day, boolean forwarded) {
+        Instant windowStart = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        return distinctCustomers(DistinctCustomersTopology.DAILY_STORE, "/api/hourly/customers/distinct/days/{day}",
+            HourlyTransactionTopology.DAY_FORMAT.format(windowStart), windowStart, day, forwarded);
+    }
+
+    /** {@code window} is the path variable in the form the remote controller binds, not the store key. */
+    private Optional<DistinctCustomers> distinctCustomers(String storeName, String path, String key,
+                                                          Instant windowStart, Object window, boolean forwarded) {
+        HostInfo remote = remoteHost(storeName, key, forwarded);
+        if (remote != null) {
+            return Optional.ofNullable(forward(remote, DistinctCustomers.class, path, window));
+        }
+        ReadOnlyWindowStore<String, HyperLogLog> store = localStore(storeName);
+        HyperLogLog sketch = store.fetch(key, windowStart.toEpochMilli());
+        return Optional.ofNullable(sketch)
+            .map(value -> new DistinctCustomers(key, value.estimate(), value.relativeStandardError()));
+    }
+
+    public List<HourlyRevenue> productRevenue(String productId, Instant from, Instant to, boolean forwarded) {
+        return revenue(HourlyRevenueTopology.PRODUCT_REVENUE_STORE, "/api/hourly/revenue/products/{id}", productId,
+            from, to, forwarded);
+    }
+
+    public List<HourlyRevenue> customerRevenue(String customerId, Instant from, Instant to, boolean forwarded) {
+        return revenue(HourlyRevenueTopology.CUSTOMER_REVENUE_STORE, "/api/hourly/revenue/customers/{id}", customerId,
+            from, to, forwarded);
+    }
+
+    private List<HourlyRevenue> revenue(String storeName, String path, String id, Instant from, Instant to,
+                                        boolean forwarded) {
+        checkRange(from, to);
+        HostInfo remote = remoteHost(storeName, id, forwarded);
+        if (remote != null) {
+            HourlyRevenue[] rows = forward(remote, HourlyRevenue[].class, path + "?from={from}&to={to}", id, from, to);
+            return rows == null ? List.of() : Arrays.asList(rows);
+        }
+        ReadOnlyWindowStore<String, RevenueAggregate> store = localStore(storeName);
+        List<HourlyRevenue> rows = new ArrayList<>();
+        try (WindowStoreIterator<RevenueAggregate> windows = store.fetch(id, hourOf(from), to)) {
+            while (windows.hasNext()) {
+                KeyValue<Long, RevenueAggregate> window = windows.next();
+                RevenueAggregate aggregate = window.value;
+                rows.add(new HourlyRevenue(HourlyTransactionTopology.HOUR_FORMAT.format(Instant.ofEpochMilli(window.key)),
+                    id, aggregate.getOrders(), aggregate.getUnits(), aggregate.getRevenue()));
+            }
+        }
+        return rows;
+    }
+
+    /** The instance to forward to, or {@code null} when the key is answered here. */
+    private HostInfo remoteHost(String storeName, String key, boolean forwarded) {
+        HostInfo self = interactiveQueryService.getCurrentKafkaStreamsApplicationHostInfo();
+        if (self == null) {
+            return null;
+        }
+        HostInfo active;
+        try {
+            active = interactiveQueryService.getKafkaStreamsApplicationHostInfo(storeName, key, Serdes.String().serializer());
+        } catch (IllegalStateException e) {
+            throw new StoreUnavailableException("No metadata for " + storeName + " yet", e);
+        }
+        if (active == null || active.equals(HostInfo.unavailable())) {
+            throw new StoreUnavailableException("No instance currently hosts " + storeName + " for key " + key);
+        }
+        if (active.equals(self)) {
+            return null;
+        }
+        if (forwarded) {
+            throw new StoreUnavailableException("Key " + key + " of " + storeName + " moved to " + active);
+        }
+        return active;
+    }
+
+    private <V> ReadOnlyWindowStore<String, V> localStore(String storeName) {
+        try {
+            return interactiveQueryService.retrieveQueryableStore(storeName, QueryableStoreTypes.windowStore());
+        } catch (InvalidStateStoreException | IllegalStateException e) {
+            throw new StoreUnavailableException("Store " + storeName + " is not queryable right now", e);
+        }
+    }
+
+    private <T> T forward(HostInfo host, Class<T> type, String path, Object... uriVariables) {
+        String uri = "http://" + host.host() + ":" + host.port() + path;
+        log.debug("Forwarding query to {} {}", uri, uriVariables);
+        try {
+            return restClient.get()
+                .uri(uri, uriVariables)
+                .header(FORWARDED_HEADER, "true")
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                        return null;
+                    }
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        throw new StoreUnavailableException(host + " answered " + response.getStatusCode());
+                    }
+                    return response.bodyTo(type);
+                });
+        } catch (RestClientException e) {
+            throw new StoreUnavailableException("Query to " + host + " failed", e);
+        }
+    }
+
+    private static Instant hourOf(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static void checkRange(Instant from, Instant to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (Duration.between(from, to).compareTo(MAX_RANGE) > 0) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_RANGE.toDays() + " days");
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.kafka_streams.service;
+
+/**
+ * Thrown when a query cannot be answered right now, typically while the store
+ * is restoring or its partitions are moving between instances.
+ */
+public class StoreUnavailableException extends RuntimeException {
+
+    public StoreUnavailableException(String message) {
+        super(message);
+    }
+
+    public StoreUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.kafka_streams.state;
+
+import java.util.Map;
+
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+
+/**
+ * Puts every RocksDB store of the application under one memory budget. All
+ * stores share a single LRU block cache of {@code rocksdb.memory.total.bytes};
+ * memtables are charged to the same cache through a {@link WriteBufferManager}
+ * capped at {@code rocksdb.memory.write.buffer.ratio} of it, and index and
+ * filter blocks are cached there as well instead of living outside the budget.
+ * Without this every store (and every window segment) gets its own 50 MB block
+ * cache and up to three 16 MB memtables.
+ *
+ * <p>The cache is created on first use and shared for the life of the JVM, so
+ * it is not closed with the individual stores. The Kafka Streams record cache
+ * ({@code statestore.cache.max.bytes}) is on the heap and not part of this cap.
+ */
+public class BoundedMemoryRocksDBConfig implements RocksDBConfigSetter {
+
+    public static final String TOTAL_MEMORY_CONFIG = "rocksdb.memory.total.bytes";
+    public static final String WRITE_BUFFER_RATIO_CONFIG = "rocksdb.memory.write.buffer.ratio";
+
+    static final long DEFAULT_TOTAL_MEMORY = 64L * 1024 * 1024;
+    static final double DEFAULT_WRITE_BUFFER_RATIO = 0.25;
+    private static final double INDEX_FILTER_RATIO = 0.1;
+    private static final int MEMTABLES_PER_STORE = 2;
+    private static final long MAX_MEMTABLE_BYTES = 8L * 1024 * 1024;
+
+    private static Cache cache;
+    private static WriteBufferManager writeBufferManager;
+    private static long writeBufferBytes;
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        initShared(configs);
+
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(cache);
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(true);
+        tableConfig.setPinTopLevelIndexAndFilter(true);
+        options.setTableFormatConfig(tableConfig);
+
+        options.setWriteBufferManager(writeBufferManager);
+        options.setMaxWriteBufferNumber(MEMTABLES_PER_STORE);
+        options.setWriteBufferSize(Math.min(MAX_MEMTABLE_BYTES, Math.max(1, writeBufferBytes / MEMTABLES_PER_STORE)));
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        // The cache and write buffer manager are shared by all stores.
+    }
+
+    private static synchronized void initShared(Map<String, Object> configs) {
+        if (cache != null) {
+            return;
+        }
+        long totalBytes = longConfig(configs, TOTAL_MEMORY_CONFIG, DEFAULT_TOTAL_MEMORY);
+        double writeBufferRatio = doubleConfig(configs, WRITE_BUFFER_RATIO_CONFIG, DEFAULT_WRITE_BUFFER_RATIO);
+        if (totalBytes <= 0 || writeBufferRatio <= 0 || writeBufferRatio >= 1) {
+            throw new IllegalArgumentException(TOTAL_MEMORY_CONFIG + " must be positive and "
+                + WRITE_BUFFER_RATIO_CONFIG + " between 0 and 1, got " + totalBytes + " and " + writeBufferRatio);
+        }
+        writeBufferBytes = (long) (totalBytes * writeBufferRatio);
+        cache = new LRUCache(totalBytes, -1, false, INDEX_FILTER_RATIO);
+        writeBufferManager = new WriteBufferManager(writeBufferBytes, cache);
+    }
+
+    /** Bytes currently charged to the shared cache: blocks, index and filter blocks and memtables. */
+    public static synchronized long usage() {
+        return cache == null ? 0 : cache.getUsage();
+    }
+
+    private static long longConfig(Map<String, Object> configs, String name, long defaultValue) {
+        Object value = configs.get(name);
+        return value == null ? defaultValue : Long.parseLong(value.toString().trim());
+    }
+
+    private static double doubleConfig(Map<String, Object> configs, String name, double defaultValue) {
+        Object value = configs.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value.toString().trim());
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.kafka_streams.state;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.query.Position;
+import org.apache.kafka.streams.query.PositionBound;
+import org.apache.kafka.streams.query.Query;
+import org.apache.kafka.streams.query.QueryConfig;
+import org.apache.kafka.streams.query.QueryResult;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+import com.example.kafka_streams.aggregate.Sketch;
+
+/**
+ * {@link Sketch Sketches} keyed by window start. The sketches are updated
+ * on the heap; only on {@link #flush()}, which the task calls on every commit,
+ * is each changed sketch written once to the underlying changelogged RocksDB
+ * store. A window costs one compacted changelog record per commit, of the
+ * sketch's bounded size, however many updates it received.
+ *
+ * <p>The underlying store is RocksDB or, with {@link StoreType#IN_MEMORY}, an
+ * in-memory map; both are changelogged.
+ *
+ * <p>{@link #get(long)} returns the live sketch; call {@link #put(long, Sketch)}
+ * after changing it so the change reaches the changelog.
+ */
+public class SketchStore<S extends Sketch<S>> implements StateStore {
+
+    private final KeyValueStore<Long, S> inner;
+    private final Map<Long, S> sketches = new HashMap<>();
+    private final Set<Long> dirty = new HashSet<>();
+    private boolean loaded;
+
+    SketchStore(KeyValueStore<Long, S> inner) {
+        this.inner = inner;
+    }
+
+    public static <S extends Sketch<S>> StoreBuilder<SketchStore<S>> builder(String name, Serde<S> serde) {
+        return builder(name, serde, StoreType.ROCKS_DB);
+    }
+
+    public static <S extends Sketch<S>> StoreBuilder<SketchStore<S>> builder(String name, Serde<S> serde,
+                                                                             StoreType storeType) {
+        return new Builder<>(name, serde, storeType);
+    }
+
+    public S get(long windowStart) {
+        load();
+        return sketches.get(windowStart);
+    }
+
+    public void put(long windowStart, S sketch) {
+        load();
+        sketches.put(windowStart, sketch);
+        dirty.add(windowStart);
+    }
+
+    public void delete(long windowStart) {
+        load();
+        if (sketches.remove(windowStart) != null) {
+            dirty.add(windowStart);
+        }
+    }
+
+    /** Window starts of all sketches held. */
+    public List<Long> windows() {
+        load();
+        return new ArrayList<>(sketches.keySet());
+    }
+
+    /** Reads back what the changelog restored; deferred until the first access, which follows restoration. */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        try (KeyValueIterator<Long, S> all = inner.all()) {
+            while (all.hasNext()) {
+                KeyValue<Long, S> entry = all.next();
+                sketches.put(entry.key, entry.value);
+            }
+        }
+        loaded = true;
+    }
+
+    @Override
+    public void flush() {
+        for (Long windowStart : dirty) {
+            S sketch = sketches.get(windowStart);
+            if (sketch == null) {
+                inner.delete(windowStart);
+            } else {
+                inner.put(windowStart, sketch);
+            }
+        }
+        dirty.clear();
+        inner.flush();
+    }
+
+    @Override
+    public void init(StateStoreContext context, StateStore root) {
+        inner.init(context, root);
+    }
+
+    @Deprecated
+    @Override
+    public void init(ProcessorContext context, StateStore root) {
+        inner.init(context, root);
+    }
+
+    @Override
+    public String name() {
+        return inner.name();
+    }
+
+    @Override
+    public void close() {
+        sketches.clear();
+        dirty.clear();
+        inner.close();
+    }
+
+    @Override
+    public boolean persistent() {
+        return inner.persistent();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return inner.isOpen();
+    }
+
+    @Override
+    public <R> QueryResult<R> query(Query<R> query, PositionBound positionBound, QueryConfig config) {
+        return inner.query(query, positionBound, config);
+    }
+
+    @Override
+    public Position getPosition() {
+        return inner.getPosition();
+    }
+
+    private static final class Builder<S extends Sketch<S>> implements StoreBuilder<SketchStore<S>> {
+
+        private final String name;
+        private final Serde<S> serde;
+        private final StoreType storeType;
+        private Map<String, String> logConfig = new HashMap<>();
+        private boolean loggingEnabled = true;
+
+        Builder(String name, Serde<S> serde, StoreType storeType) {
+            this.name = name;
+            this.serde = serde;
+            this.storeType = storeType;
+        }
+
+        /** The store is its own write cache, so record caching does not apply. */
+        @Override
+        public StoreBuilder<SketchStore<S>> withCachingEnabled() {
+            return this;
+        }
+
+        @Override
+        public StoreBuilder<SketchStore<S>> withCachingDisabled() {
+            return this;
+        }
+
+        @Override
+        public StoreBuilder<SketchStore<S>> withLoggingEnabled(Map<String, String> config) {
+            loggingEnabled = true;
+            logConfig = new HashMap<>(config);
+            return this;
+        }
+
+        @Override
+        public StoreBuilder<SketchStore<S>> withLoggingDisabled() {
+            loggingEnabled = false;
+            logConfig.clear();
+            return this;
+        }
+
+        @Override
+        public SketchStore<S> build() {
+            StoreBuilder<KeyValueStore<Long, S>> inner = Stores.keyValueStoreBuilder(storeType == StoreType.IN_MEMORY
+                ? Stores.inMemoryKeyValueStore(name)
+                : Stores.persistentKeyValueStore(name), Serdes.Long(), serde);
+            inner = loggingEnabled ? inner.withLoggingEnabled(logConfig) : inner.withLoggingDisabled();
+            return new SketchStore<>(inner.build());
+        }
+
+        @Override
+        public Map<String, String> logConfig() {
+            return logConfig;
+        }
+
+        @Override
+        public boolean loggingEnabled() {
+            return loggingEnabled;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.kafka_streams.suppress;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+/**
+ * Early firing for windows that are still open. Updates are written to a store
+ * with caching enabled, so any number of updates to one window between two
+ * emissions collapse into a single cache entry, and every {@code interval} of
+ * wall-clock time the latest value of each updated window is forwarded once.
+ * A window therefore yields at most one early result per interval, whatever the
+ * input rate.
+ *
+ * <p>Windows are dropped once stream time passes their end plus grace; their
+ * authoritative value is emitted by the final-results path. Keys use the same
+ * {@code [window end][key]} layout as {@link SpillingSuppressProcessor}.
+ */
+public class EarlyResultProcessor implements Processor<Windowed<String>, Long, Windowed<String>, Long> {
+
+    private final String storeName;
+    private final Duration interval;
+    private final long windowSizeMs;
+    private final long graceMs;
+
+    private ProcessorContext<Windowed<String>, Long> context;
+    private KeyValueStore<Bytes, Long> pending;
+    private long streamTime = Long.MIN_VALUE;
+
+    public EarlyResultProcessor(String storeName, Duration interval, long windowSizeMs, long graceMs) {
+        this.storeName = storeName;
+        this.interval = interval;
+        this.windowSizeMs = windowSizeMs;
+        this.graceMs = graceMs;
+    }
+
+    public static StoreBuilder<KeyValueStore<Bytes, Long>> storeBuilder(String storeName) {
+        return storeBuilder(storeName, StoreType.ROCKS_DB);
+    }
+
+    public static StoreBuilder<KeyValueStore<Bytes, Long>> storeBuilder(String storeName, StoreType storeType) {
+        return Stores.keyValueStoreBuilder(storeType == StoreType.IN_MEMORY
+                    ? Stores.inMemoryKeyValueStore(storeName)
+                    : Stores.persistentKeyValueStore(storeName),
+                Serdes.Bytes(), Serdes.Long())
+            .withCachingEnabled();
+    }
+
+    @Override
+    public void init(ProcessorContext<Windowed<String>, Long> context) {
+        this.context = context;
+        this.pending = context.getStateStore(storeName);
+        context.schedule(interval, PunctuationType.WALL_CLOCK_TIME, now -> emit());
+    }
+
+    @Override
+    public void process(Record<Windowed<String>, Long> record) {
+        streamTime = Math.max(streamTime, record.timestamp());
+        long windowEnd = record.key().window().end();
+        if (record.value() != null && !isClosed(windowEnd)) {
+            pending.put(SpillingSuppressProcessor.bufferKey(windowEnd, record.key().key()), record.value());
+        }
+    }
+
+    void emit() {
+        List<KeyValue<Bytes, Long>> updated = new ArrayList<>();
+        try (KeyValueIterator<Bytes, Long> all = pending.all()) {
+            all.forEachRemaining(updated::add);
+        }
+        for (KeyValue<Bytes, Long> entry : updated) {
+            long windowEnd = SpillingSuppressProcessor.windowEnd(entry.key);
+            if (!isClosed(windowEnd)) {
+                Windowed<String> windowedKey = new Windowed<>(SpillingSuppressProcessor.recordKey(entry.key),
+                    FixedWindow.endingAt(windowEnd, windowSizeMs));
+                context.forward(new Record<>(windowedKey, entry.value, Math.max(streamTime, 0)));
+            }
+            pending.delete(entry.key);
+        }
+    }
+
+    private boolean isClosed(long windowEnd) {
+        return windowEnd <= streamTime - graceMs;
+    }
+}
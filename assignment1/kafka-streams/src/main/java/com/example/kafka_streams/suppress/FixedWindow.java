@@ -0,0 +1,29 @@
+package com.example.kafka_streams.suppress;
+
+import org.apache.kafka.streams.kstream.Window;
+
+/**
+ * Half-open {@code [start, end)} window for the keys the suppress processors
+ * forward, so they do not depend on the DSL's internal {@code TimeWindow}.
+ * Windowed serdes only write the start time, so records are identical on the
+ * wire either way.
+ */
+final class FixedWindow extends Window {
+
+    FixedWindow(long startMs, long endMs) {
+        super(startMs, endMs);
+    }
+
+    static FixedWindow endingAt(long endMs, long sizeMs) {
+        return new FixedWindow(endMs - sizeMs, endMs);
+    }
+
+    @Override
+    public boolean overlap(Window other) {
+        if (getClass() != other.getClass()) {
+            throw new IllegalArgumentException("Cannot compare windows of different type. Other window must be of type "
+                    + getClass() + " but got " + other.getClass());
+        }
+        return startMs < other.end() && other.start() < endMs;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.kafka_streams.suppress;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Value;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+/**
+ * Emits only the final value of each window once stream time has passed its end
+ * plus grace, like {@code Suppressed.untilWindowCloses}, but without an
+ * unbounded heap buffer.
+ *
+ * <p>Pending results live in a persistent key-value store with caching enabled.
+ * The record cache ({@code statestore.cache.max.bytes}) holds the hot part in
+ * memory and, once it is full, evicts to RocksDB, so a traffic spike spills to
+ * disk instead of growing the heap. The store is changelogged, so pending results
+ * survive a restart. Keys are {@code [window end][key]}, which keeps RocksDB
+ * iteration in window-end order and lets closed windows be read as a prefix.
+ *
+ * <p>Buffer occupancy is published as the {@code suppression-buffer-records} and
+ * {@code suppression-buffer-bytes} metrics of the processor node.
+ */
+public class SpillingSuppressProcessor implements Processor<Windowed<String>, Long, Windowed<String>, Long> {
+
+    static final String METRIC_GROUP = "stream-processor-node-metrics";
+    static final String RECORDS_METRIC = "suppression-buffer-records";
+    static final String BYTES_METRIC = "suppression-buffer-bytes";
+
+    private final String storeName;
+    private final long windowSizeMs;
+    private final long graceMs;
+
+    private ProcessorContext<Windowed<String>, Long> context;
+    private KeyValueStore<Bytes, Long> buffer;
+    private long streamTime = Long.MIN_VALUE;
+    private long earliestWindowEnd = Long.MAX_VALUE;
+    private long bufferedRecords;
+    private long bufferedBytes;
+    private Sensor recordsSensor;
+    private Sensor bytesSensor;
+
+    public SpillingSuppressProcessor(String storeName, long windowSizeMs, long graceMs) {
+        this.storeName = storeName;
+        this.windowSizeMs = windowSizeMs;
+        this.graceMs = graceMs;
+    }
+
+    public static StoreBuilder<KeyValueStore<Bytes, Long>> storeBuilder(String storeName) {
+        return Stores.keyValueStoreBuilder(Stores.persistentKeyValueStore(storeName), Serdes.Bytes(), Serdes.Long())
+            .withCachingEnabled();
+    }
+
+    @Override
+    public void init(ProcessorContext<Windowed<String>, Long> context) {
+        this.context = context;
+        this.buffer = context.getStateStore(storeName);
+
+        // Rebuild the occupancy counters from whatever was restored.
+        try (KeyValueIterator<Bytes, Long> pending = buffer.all()) {
+            while (pending.hasNext()) {
+                Bytes key = pending.next().key;
+                earliestWindowEnd = Math.min(earliestWindowEnd, windowEnd(key));
+                bufferedRecords++;
+                bufferedBytes += entrySize(key);
+            }
+        }
+
+        Map<String, String> tags = Map.of(
+            "thread-id", Thread.currentThread().getName(),
+            "task-id", context.taskId().toString(),
+            "processor-node-id", storeName);
+        String sensorPrefix = storeName + "-" + context.taskId() + "-";
+        recordsSensor = context.metrics().addSensor(sensorPrefix + RECORDS_METRIC, Sensor.RecordingLevel.INFO);
+        recordsSensor.add(new MetricName(RECORDS_METRIC, METRIC_GROUP,
+            "Pending final results held by the suppression buffer, in memory or spilled", tags), new Value());
+        bytesSensor = context.metrics().addSensor(sensorPrefix + BYTES_METRIC, Sensor.RecordingLevel.INFO);
+        bytesSensor.add(new MetricName(BYTES_METRIC, METRIC_GROUP,
+            "Approximate key and value bytes of the pending final results", tags), new Value());
+        recordOccupancy();
+    }
+
+    @Override
+    public void process(Record<Windowed<String>, Long> record) {
+        streamTime = Math.max(streamTime, record.timestamp());
+        if (record.value() != null) {
+            long windowEnd = record.key().window().end();
+            Bytes key = bufferKey(windowEnd, record.key().key());
+            if (buffer.get(key) == null) {
+                bufferedRecords++;
+                bufferedBytes += entrySize(key);
+            }
+            buffer.put(key, record.value());
+            earliestWindowEnd = Math.min(earliestWindowEnd, windowEnd);
+        }
+        emitClosedWindows();
+        recordOccupancy();
+    }
+
+    private void emitClosedWindows() {
+        if (earliestWindowEnd > streamTime - graceMs) {
+            return;
+        }
+
+        List<KeyValue<Bytes, Long>> closed = new ArrayList<>();
+        long nextEarliest = Long.MAX_VALUE;
+        try (KeyValueIterator<Bytes, Long> pending = buffer.all()) {
+            while (pending.hasNext()) {
+                KeyValue<Bytes, Long> entry = pending.next();
+                long windowEnd = windowEnd(entry.key);
+                if (windowEnd > streamTime - graceMs) {
+                    nextEarliest = windowEnd;
+                    break;
+                }
+                closed.add(entry);
+            }
+        }
+
+        for (KeyValue<Bytes, Long> entry : closed) {
+            long windowEnd = windowEnd(entry.key);
+            String key = recordKey(entry.key);
+            Windowed<String> windowedKey = new Windowed<>(key, FixedWindow.endingAt(windowEnd, windowSizeMs));
+            context.forward(new Record<>(windowedKey, entry.value, streamTime));
+            buffer.delete(entry.key);
+            bufferedRecords--;
+            bufferedBytes -= entrySize(entry.key);
+        }
+        earliestWindowEnd = nextEarliest;
+    }
+
+    private void recordOccupancy() {
+        recordsSensor.record(bufferedRecords);
+        bytesSensor.record(bufferedBytes);
+    }
+
+    @Override
+    public void close() {
+        context.metrics().removeSensor(recordsSensor);
+        context.metrics().removeSensor(bytesSensor);
+    }
+
+    static Bytes bufferKey(long windowEnd, String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return Bytes.wrap(ByteBuffer.allocate(Long.BYTES + keyBytes.length).putLong(windowEnd).put(keyBytes).array());
+    }
+
+    static long windowEnd(Bytes bufferKey) {
+        return ByteBuffer.wrap(bufferKey.get()).getLong();
+    }
+
+    static String recordKey(Bytes bufferKey) {
+        return new String(bufferKey.get(), Long.BYTES, bufferKey.get().length - Long.BYTES, StandardCharsets.UTF_8);
+    }
+
+    private static long entrySize(Bytes bufferKey) {
+        return bufferKey.get().length + Long.BYTES;
+    }
+}
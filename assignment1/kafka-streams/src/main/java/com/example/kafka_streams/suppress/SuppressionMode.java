@@ -0,0 +1,11 @@
+package com.example.kafka_streams.suppress;
+
+/**
+ * How final hourly results are held back until their window closes.
+ */
+public enum SuppressionMode {
+    /** {@code Suppressed.untilWindowCloses(unbounded())}: every pending result on the heap. */
+    MEMORY,
+    /** {@link SpillingSuppressProcessor}: bounded record cache in front of a RocksDB store. */
+    SPILL
+}
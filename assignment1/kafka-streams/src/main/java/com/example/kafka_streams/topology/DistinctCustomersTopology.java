@@ -0,0 +1,90 @@
+package com.example.kafka_streams.topology;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+
+import com.example.kafka_streams.aggregate.HyperLogLog;
+import com.example.kafka_streams.aggregate.HyperLogLogSerde;
+import com.example.kafka_streams.aggregate.PartialSketchProcessor;
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.state.SketchStore;
+
+/**
+ * Distinct customers per hour and per day as {@link HyperLogLog} sketches, so a
+ * window takes {@code 2^precision} bytes instead of a set of customer ids.
+ *
+ * <p>Tasks sketch their own partitions per hour and flush every
+ * {@code flushInterval}. The partial sketches are repartitioned by hour and by
+ * day and merged in window stores, {@code hourly-distinct-customers} keyed by
+ * the formatted hour and {@code daily-distinct-customers} keyed by the date,
+ * which stay queryable for {@code retention}. A customer who ordered on several
+ * partitions is counted once, because merging sketches is a union.
+ */
+public class DistinctCustomersTopology {
+
+    public static final String PARTIAL_STORE = "hourly-partial-customer-sketches";
+    public static final String HOURLY_STORE = "hourly-distinct-customers";
+    public static final String DAILY_STORE = "daily-distinct-customers";
+
+    private final Duration flushInterval;
+    private final Duration grace;
+    private final Duration retention;
+    private final int precision;
+    private StoreType storeType = StoreType.ROCKS_DB;
+
+    public DistinctCustomersTopology(Duration flushInterval, Duration grace, Duration retention, int precision) {
+        this.flushInterval = flushInterval;
+        this.grace = grace;
+        this.retention = retention;
+        this.precision = precision;
+    }
+
+    /** RocksDB (the default) or in-memory stores, changelogged either way. */
+    public DistinctCustomersTopology withStoreType(StoreType storeType) {
+        this.storeType = storeType;
+        return this;
+    }
+
+    public void build(StreamsBuilder streamsBuilder, KStream<String, Order> orders) {
+        streamsBuilder.addStateStore(SketchStore.builder(PARTIAL_STORE, new HyperLogLogSerde(), storeType));
+        KStream<Long, HyperLogLog> partials = orders
+            .process(() -> new PartialSketchProcessor<Order, HyperLogLog>(PARTIAL_STORE,
+                HourlyTransactionTopology.WINDOW_SIZE, flushInterval, () -> new HyperLogLog(precision),
+                Order::getCustomerId), PARTIAL_STORE);
+
+        merge(partials, HourlyTransactionTopology.HOUR_FORMAT, HourlyTransactionTopology.WINDOW_SIZE, HOURLY_STORE);
+        merge(partials, HourlyTransactionTopology.DAY_FORMAT, HourlyTransactionTopology.DAY, DAILY_STORE);
+    }
+
+    private void merge(KStream<Long, HyperLogLog> partials, DateTimeFormatter keyFormat, Duration windowSize,
+                       String storeName) {
+        partials
+            .map((windowStart, sketch) -> KeyValue.pair(keyFormat.format(Instant.ofEpochMilli(windowStart)), sketch))
+            .groupByKey(Grouped.with(storeName + "-partials", Serdes.String(), new HyperLogLogSerde()))
+            .windowedBy(TimeWindows.ofSizeAndGrace(windowSize, grace))
+            .reduce((merged, partial) -> {
+                merged.merge(partial);
+                return merged;
+            }, Materialized.<String, HyperLogLog, WindowStore<Bytes, byte[]>>as(storeName)
+                .withKeySerde(Serdes.String())
+                .withValueSerde(new HyperLogLogSerde())
+                .withRetention(max(retention, windowSize.plus(grace)))
+                .withStoreType(storeType));
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
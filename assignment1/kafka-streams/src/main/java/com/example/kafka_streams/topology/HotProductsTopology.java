@@ -0,0 +1,89 @@
+package com.example.kafka_streams.topology;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
+
+import com.example.kafka_streams.aggregate.PartialSketchProcessor;
+import com.example.kafka_streams.aggregate.SketchMergeProcessor;
+import com.example.kafka_streams.aggregate.SpaceSaving;
+import com.example.kafka_streams.aggregate.SpaceSavingSerde;
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.state.SketchStore;
+
+/**
+ * Hottest products per hour by order count, with bounded state. Exact counting
+ * keeps a window entry per product; here each hour is a {@link SpaceSaving}
+ * sketch of {@code capacity} counters, whatever the size of the catalog.
+ *
+ * <p>Same two stages as the hourly count: tasks sketch their own partitions and
+ * flush every {@code flushInterval}, and the partial sketches are repartitioned
+ * by hour and merged. Each merge writes the current top {@code topK} of the hour
+ * to {@code hourly-hot-products-topic}, keyed by hour. Every product carries its
+ * estimated count and the error of that estimate; the true count lies in
+ * {@code [count - error, count]}.
+ */
+public class HotProductsTopology {
+
+    public static final String HOT_PRODUCTS_TOPIC = "hourly-hot-products-topic";
+    public static final String PARTIAL_SKETCH_STORE = "hourly-partial-product-sketches";
+    public static final String SKETCH_STORE = "hourly-product-sketches";
+
+    private final Duration flushInterval;
+    private final Duration grace;
+    private final int capacity;
+    private final int topK;
+    private StoreType storeType = StoreType.ROCKS_DB;
+
+    public HotProductsTopology(Duration flushInterval, Duration grace, int capacity, int topK) {
+        if (topK > capacity) {
+            throw new IllegalArgumentException("Top " + topK + " needs a sketch of at least " + topK + " counters");
+        }
+        this.flushInterval = flushInterval;
+        this.grace = grace;
+        this.capacity = capacity;
+        this.topK = topK;
+    }
+
+    /** RocksDB (the default) or in-memory sketch stores, changelogged either way. */
+    public HotProductsTopology withStoreType(StoreType storeType) {
+        this.storeType = storeType;
+        return this;
+    }
+
+    public void build(StreamsBuilder streamsBuilder, KStream<String, Order> orders) {
+        streamsBuilder.addStateStore(SketchStore.builder(PARTIAL_SKETCH_STORE, new SpaceSavingSerde(), storeType));
+        streamsBuilder.addStateStore(SketchStore.builder(SKETCH_STORE, new SpaceSavingSerde(), storeType));
+        long windowSizeMs = HourlyTransactionTopology.WINDOW_SIZE.toMillis();
+        long graceMs = grace.toMillis();
+
+        orders
+            .process(() -> new PartialSketchProcessor<Order, SpaceSaving>(PARTIAL_SKETCH_STORE,
+                HourlyTransactionTopology.WINDOW_SIZE, flushInterval, () -> new SpaceSaving(capacity),
+                Order::getProductId), PARTIAL_SKETCH_STORE)
+            .repartition(Repartitioned.with(Serdes.Long(), new SpaceSavingSerde()).withName("hourly-product-sketches"))
+            .process(() -> new SketchMergeProcessor<SpaceSaving>(SKETCH_STORE, windowSizeMs, graceMs), SKETCH_STORE)
+            .map((windowStart, sketch) -> {
+                String hourWindow = HourlyTransactionTopology.HOUR_FORMAT.format(Instant.ofEpochMilli(windowStart));
+                return KeyValue.pair(hourWindow, toJson(hourWindow, sketch));
+            })
+            .to(HOT_PRODUCTS_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+    }
+
+    private String toJson(String hourWindow, SpaceSaving sketch) {
+        String products = sketch.top(topK).stream()
+            .map(entry -> "{\"product_id\":" + HourlyTransactionTopology.jsonString(entry.item())
+                + ",\"count\":" + entry.count() + ",\"error\":" + entry.error() + "}")
+            .collect(Collectors.joining(",", "[", "]"));
+        return "{\"hour_window\":\"" + hourWindow + "\",\"order_count\":" + sketch.total()
+            + ",\"max_error\":" + sketch.maxError() + ",\"products\":" + products + "}";
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.kafka_streams.topology;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.RevenueAggregate;
+import com.example.kafka_streams.model.RevenueAggregateSerde;
+
+/**
+ * Hourly orders, units and revenue per product and per customer. Each order is
+ * turned into a {@link RevenueAggregate} before it is repartitioned, so only the
+ * 24-byte contribution crosses the repartition topic and the window stores hold
+ * the same compact value.
+ *
+ * <p>Results are upserts: every cache flush writes the current value of the
+ * changed windows to {@code hourly-product-revenue-topic} and
+ * {@code hourly-customer-revenue-topic}, keyed by {@code <hour>|<id>}. The
+ * window stores keep each hour queryable for {@code retention}.
+ */
+public class HourlyRevenueTopology {
+
+    public static final String PRODUCT_REVENUE_STORE = "hourly-product-revenue";
+    public static final String CUSTOMER_REVENUE_STORE = "hourly-customer-revenue";
+    public static final String PRODUCT_REVENUE_TOPIC = "hourly-product-revenue-topic";
+    public static final String CUSTOMER_REVENUE_TOPIC = "hourly-customer-revenue-topic";
+
+    private final Duration grace;
+    private final Duration retention;
+    private StoreType storeType = StoreType.ROCKS_DB;
+
+    public HourlyRevenueTopology(Duration grace, Duration retention) {
+        this.grace = grace;
+        this.retention = retention;
+    }
+
+    /** RocksDB (the default) or in-memory window stores, changelogged either way. */
+    public HourlyRevenueTopology withStoreType(StoreType storeType) {
+        this.storeType = storeType;
+        return this;
+    }
+
+    public void build(KStream<String, Order> orders) {
+        aggregate(orders, "product", Order::getProductId, PRODUCT_REVENUE_STORE, PRODUCT_REVENUE_TOPIC);
+        aggregate(orders, "customer", Order::getCustomerId, CUSTOMER_REVENUE_STORE, CUSTOMER_REVENUE_TOPIC);
+    }
+
+    private void aggregate(KStream<String, Order> orders, String dimension, Function<Order, String> keyOf,
+                           String storeName, String topic) {
+        orders
+            .filter((key, order) -> keyOf.apply(order) != null)
+            .map((key, order) -> KeyValue.pair(keyOf.apply(order), RevenueAggregate.of(order)))
+            .groupByKey(Grouped.with("hourly-" + dimension + "-revenue", Serdes.String(), new RevenueAggregateSerde()))
+            .windowedBy(TimeWindows.ofSizeAndGrace(HourlyTransactionTopology.WINDOW_SIZE, grace))
+            .reduce(RevenueAggregate::plus,
+                Materialized.<String, RevenueAggregate, WindowStore<Bytes, byte[]>>as(storeName)
+                    .withKeySerde(Serdes.String())
+                    .withValueSerde(new RevenueAggregateSerde())
+                    .withRetention(retention)
+                    .withStoreType(storeType))
+            .toStream()
+            .map((windowedKey, aggregate) -> {
+                String hourWindow = HourlyTransactionTopology.HOUR_FORMAT.format(windowedKey.window().startTime());
+                String result = "{\"hour_window\":\"" + hourWindow + "\",\"" + dimension + "_id\":"
+                        + HourlyTransactionTopology.jsonString(windowedKey.key())
+                        + ",\"order_count\":" + aggregate.getOrders() + ",\"units\":" + aggregate.getUnits()
+                        + ",\"revenue\":" + aggregate.getRevenue().toPlainString() + "}";
+                return KeyValue.pair(hourWindow + "|" + windowedKey.key(), result);
+            })
+            .to(topic, Produced.with(Serdes.String(), Serdes.String()));
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.kafka_streams.topology;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.state.WindowStore;
+
+import com.example.kafka_streams.aggregate.PartialCountProcessor;
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.suppress.EarlyResultProcessor;
+import com.example.kafka_streams.suppress.SpillingSuppressProcessor;
+import com.example.kafka_streams.suppress.SuppressionMode;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transaction counts per minute, hour and day from {@code orders-topic}, with
+ * one final total per hour on {@code hourly-transaction-topic}. Kept apart from
+ * the Spring configuration so the same topology can be driven by
+ * {@code TopologyTestDriver}.
+ *
+ * <p>Orders are counted once. Every task keeps a partial count per minute for
+ * its own partitions and flushes it every {@code flushInterval}. The partials
+ * are increments, so the minute, hour and day windows are all sums of the same
+ * partials, each repartitioned by its own window key. The work per order is one
+ * update of the partial, however many resolutions are kept, and the levels
+ * above see at most one partial per task, minute and flush. Grouping the orders
+ * straight onto one key would funnel every order through a single partition,
+ * and grouping by order id keeps a window per order.
+ *
+ * <p>The hour totals are summed on a single partition. A window is closed by
+ * stream time, which a task only advances on its own input, so with the hours
+ * spread over several partitions an hour's final result would wait until a
+ * later hour happened to land on the same one. With one partition every flush
+ * of any task moves it on. That partition sees only partials, at most one per
+ * task, minute and flush, so it is not a hot spot.
+ *
+ * <p>Each level has its own window store and retention:
+ * {@code minute-transaction-counts} (also written to
+ * {@code minute-transaction-topic} as running counts, for alerting),
+ * {@code hourly-transaction-counts} and {@code daily-transaction-counts}, keyed
+ * by the formatted minute, hour or date.
+ *
+ * <p>With {@link #withEarlyResults(Duration)} the running count of each open
+ * hour is also written to {@code hourly-transaction-early-topic}, at most once
+ * per interval. Those records are provisional; the record on
+ * {@code hourly-transaction-topic} stays the final one.
+ *
+ * <p>{@link #withStoreType(StoreType)} keeps the partials, the window stores and
+ * the early results in RocksDB (the default) or in memory; both are restored
+ * from their changelogs. The spilling suppression buffer always stays in
+ * RocksDB, since spilling to disk is what it is for.
+ */
+@Slf4j
+public class HourlyTransactionTopology {
+
+    public static final String ORDERS_TOPIC = "orders-topic";
+    public static final String HOURLY_TOPIC = "hourly-transaction-topic";
+    public static final String SUPPRESS_STORE = "hourly-suppress-buffer";
+    public static final String PARTIAL_STORE = "minute-partial-counts";
+    public static final String MINUTE_STORE = "minute-transaction-counts";
+    public static final String COUNT_STORE = "hourly-transaction-counts";
+    public static final String DAILY_STORE = "daily-transaction-counts";
+    public static final String MINUTE_TOPIC = "minute-transaction-topic";
+    public static final String EARLY_TOPIC = "hourly-transaction-early-topic";
+    public static final String EARLY_STORE = "hourly-early-results";
+
+    static final Duration MINUTE = Duration.ofMinutes(1);
+    static final Duration WINDOW_SIZE = Duration.ofHours(1);
+    static final Duration DAY = Duration.ofDays(1);
+    public static final DateTimeFormatter MINUTE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:00").withZone(ZoneOffset.UTC);
+    public static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00:00").withZone(ZoneOffset.UTC);
+    public static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+
+    static final Duration DEFAULT_MINUTE_RETENTION = Duration.ofHours(6);
+    static final Duration DEFAULT_DAY_RETENTION = Duration.ofDays(35);
+
+    private final Serde<Order> orderSerde;
+    private final SuppressionMode suppressionMode;
+    private final Duration flushInterval;
+    private final Duration grace;
+    private final Duration retention;
+    private Duration minuteRetention = DEFAULT_MINUTE_RETENTION;
+    private Duration dayRetention = DEFAULT_DAY_RETENTION;
+    private Duration earlyInterval;
+    private StoreType storeType = StoreType.ROCKS_DB;
+
+    public HourlyTransactionTopology(Serde<Order> orderSerde, SuppressionMode suppressionMode,
+                                     Duration flushInterval, Duration grace, Duration retention) {
+        this.orderSerde = orderSerde;
+        this.suppressionMode = suppressionMode;
+        this.flushInterval = flushInterval;
+        this.grace = grace;
+        this.retention = retention;
+    }
+
+    /**
+     * Also emits the running count of open hours every {@code interval} of wall-clock time.
+     */
+    public HourlyTransactionTopology withEarlyResults(Duration interval) {
+        this.earlyInterval = interval;
+        return this;
+    }
+
+    /** Retention of the minute and day stores; the hour store keeps {@code retention}. */
+    public HourlyTransactionTopology withRollupRetention(Duration minuteRetention, Duration dayRetention) {
+        this.minuteRetention = minuteRetention;
+        this.dayRetention = dayRetention;
+        return this;
+    }
+
+    /** Backend of every store but the spilling suppression buffer. */
+    public HourlyTransactionTopology withStoreType(StoreType storeType) {
+        this.storeType = storeType;
+        return this;
+    }
+
+    public KStream<String, Order> build(StreamsBuilder streamsBuilder) {
+        KStream<String, Order> stream = streamsBuilder.stream(ORDERS_TOPIC,
+            Consumed.with(Serdes.String(), orderSerde));
+
+        streamsBuilder.addStateStore(PartialCountProcessor.storeBuilder(PARTIAL_STORE, storeType));
+        KStream<String, Long> minutePartials = stream
+            .peek((key, order) -> log.debug("Processing order for streams: key={}, order={}", key, order))
+            .process(() -> new PartialCountProcessor<Order>(PARTIAL_STORE, MINUTE, flushInterval,
+                windowStart -> MINUTE_FORMAT.format(Instant.ofEpochMilli(windowStart))), PARTIAL_STORE);
+
+        rollup(minutePartials, "minute", MINUTE, MINUTE_STORE, minuteRetention)
+            .toStream()
+            .map((windowedKey, count) -> KeyValue.pair(windowedKey.key(),
+                countResult("minute_window", windowedKey.key(), count)))
+            .to(MINUTE_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+        rollup(rekey(minutePartials, DAY_FORMAT), "daily", DAY, DAILY_STORE, dayRetention);
+
+        TimeWindows windows = TimeWindows.ofSizeAndGrace(WINDOW_SIZE, grace);
+        KStream<String, Long> hourPartials = rekey(minutePartials, HOUR_FORMAT)
+            .repartition(Repartitioned.<String, Long>as("hourly-partials-merged")
+                .withKeySerde(Serdes.String())
+                .withValueSerde(Serdes.Long())
+                .withNumberOfPartitions(1));
+        KTable<Windowed<String>, Long> counts = rollup(hourPartials, "hourly", WINDOW_SIZE, COUNT_STORE, retention);
+
+        finalResults(streamsBuilder, counts, windows)
+            .map((windowedKey, count) -> {
+                String hourWindow = windowedKey.key();
+
+                String result = countResult("hour_window", hourWindow, count);
+
+                log.info("Hourly aggregation: window={}, count={}", hourWindow, count);
+                return KeyValue.pair(hourWindow, result);
+            })
+            .to(HOURLY_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+
+        if (earlyInterval != null) {
+            earlyResults(streamsBuilder, counts, windows)
+                .map((windowedKey, count) -> KeyValue.pair(windowedKey.key(),
+                    countResult("hour_window", windowedKey.key(), count)))
+                .to(EARLY_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+        }
+
+        return stream;
+    }
+
+    /**
+     * {@code {"<windowField>":"<window>","transaction_count":<count>}}. Plain
+     * concatenation; {@code String.format} parses its pattern on every call.
+     */
+    public static String countResult(String windowField, String window, long count) {
+        return "{\"" + windowField + "\":\"" + window + "\",\"transaction_count\":" + count + "}";
+    }
+
+    /** {@code value} as a quoted JSON string, for ids that come straight from orders. */
+    static String jsonString(String value) {
+        return "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(value)) + "\"";
+    }
+
+    /** Keys minute partials by the coarser window they fall in. */
+    private static KStream<String, Long> rekey(KStream<String, Long> minutePartials, DateTimeFormatter keyFormat) {
+        return minutePartials.map((minute, count) ->
+            KeyValue.pair(keyFormat.format(MINUTE_FORMAT.parse(minute, Instant::from)), count));
+    }
+
+    /**
+     * Sums partials in windows of {@code windowSize}; only the partials are
+     * repartitioned, unless the caller already did.
+     */
+    private KTable<Windowed<String>, Long> rollup(KStream<String, Long> partials, String level, Duration windowSize,
+                                                  String storeName, Duration storeRetention) {
+        return partials
+            .groupByKey(Grouped.with(level + "-partials", Serdes.String(), Serdes.Long()))
+            .windowedBy(TimeWindows.ofSizeAndGrace(windowSize, grace))
+            .reduce(Long::sum, Materialized.<String, Long, WindowStore<Bytes, byte[]>>as(storeName)
+                .withKeySerde(Serdes.String())
+                .withValueSerde(Serdes.Long())
+                .withRetention(storeRetention)
+                .withStoreType(storeType));
+    }
+
+    private KStream<Windowed<String>, Long> finalResults(StreamsBuilder streamsBuilder,
+                                                         KTable<Windowed<String>, Long> counts,
+                                                         TimeWindows windows) {
+        if (suppressionMode == SuppressionMode.MEMORY) {
+            return counts
+                .suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded()))
+                .toStream();
+        }
+        streamsBuilder.addStateStore(SpillingSuppressProcessor.storeBuilder(SUPPRESS_STORE));
+        long windowSizeMs = windows.size();
+        long graceMs = windows.gracePeriodMs();
+        return counts
+            .toStream()
+            .process(() -> new SpillingSuppressProcessor(SUPPRESS_STORE, windowSizeMs, graceMs), SUPPRESS_STORE);
+    }
+
+    private KStream<Windowed<String>, Long> earlyResults(StreamsBuilder streamsBuilder,
+                                                         KTable<Windowed<String>, Long> counts,
+                                                         TimeWindows windows) {
+        streamsBuilder.addStateStore(EarlyResultProcessor.storeBuilder(EARLY_STORE, storeType));
+        Duration interval = earlyInterval;
+        long windowSizeMs = windows.size();
+        long graceMs = windows.gracePeriodMs();
+        return counts
+            .toStream()
+            .process(() -> new EarlyResultProcessor(EARLY_STORE, interval, windowSizeMs, graceMs), EARLY_STORE);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.kafka_streams.aggregate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class HyperLogLogTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = { 100, 10_000, 1_000_000 })
+    void estimatesWithinFourStandardErrors(int distinct) {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int i = 0; i < distinct; i++) {
+                sketch.add("customer-" + i);
+            }
+        }
+
+        double tolerance = 4 * sketch.relativeStandardError() * distinct;
+        assertThat((double) sketch.estimate()).isCloseTo(distinct, within(Math.max(tolerance, 2)));
+    }
+
+    @Test
+    void mergingPartialsGivesTheSketchOfTheUnion() {
+        HyperLogLog first = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        HyperLogLog second = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        HyperLogLog union = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        for (int i = 0; i < 60_000; i++) {
+            (i < 40_000 ? first : second).add("customer-" + i);
+            if (i >= 20_000 && i < 40_000) {
+                second.add("customer-" + i);
+            }
+            union.add("customer-" + i);
+        }
+
+        first.merge(second);
+
+        assertThat(first.toBytes()).isEqualTo(union.toBytes());
+        assertThat((double) first.estimate()).isCloseTo(60_000, within(4 * first.relativeStandardError() * 60_000));
+    }
+
+    @Test
+    void serializesToAFixedSizeWhateverTheCardinality() {
+        HyperLogLogSerde serde = new HyperLogLogSerde();
+        HyperLogLog few = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        HyperLogLog many = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        few.add("customer-1");
+        for (int i = 0; i < 500_000; i++) {
+            many.add("customer-" + i);
+        }
+
+        byte[] bytes = serde.serializer().serialize("topic", many);
+
+        assertThat(bytes).hasSize(4097);
+        assertThat(serde.serializer().serialize("topic", few)).hasSize(4097);
+        assertThat(serde.deserializer().deserialize("topic", bytes).estimate()).isEqualTo(many.estimate());
+    }
+
+    @Test
+    void rejectsMismatchedPrecisionAndSize() {
+        assertThatThrownBy(() -> new HyperLogLog(12).merge(new HyperLogLog(10)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 12, 0, 0 }))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(30)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.kafka_streams.aggregate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingTest {
+
+    private static final int CATALOG = 50_000;
+    private static final int STREAM = 200_000;
+    private static final int CAPACITY = 200;
+
+    @Test
+    void countsExactlyWhileUnderCapacity() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        sketch.add("a");
+        sketch.add("b");
+        sketch.add("a");
+        sketch.add("c", 5);
+
+        assertThat(sketch.top(10)).containsExactly(
+            new SpaceSaving.Entry("c", 5, 0), new SpaceSaving.Entry("a", 2, 0), new SpaceSaving.Entry("b", 1, 0));
+        assertThat(sketch.total()).isEqualTo(8);
+    }
+
+    @Test
+    void boundsEveryEstimateAgainstExactCounts() {
+        List<String> stream = zipfStream(new Random(42));
+        SpaceSaving sketch = new SpaceSaving(CAPACITY);
+        stream.forEach(sketch::add);
+
+        assertWithinBounds(sketch, exactCounts(stream));
+    }
+
+    @Test
+    void mergedSketchesKeepTheBoundsOfTheWholeStream() {
+        List<String> stream = zipfStream(new Random(7));
+        List<SpaceSaving> partials = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            partials.add(new SpaceSaving(CAPACITY));
+        }
+        for (int i = 0; i < stream.size(); i++) {
+            partials.get(i % partials.size()).add(stream.get(i));
+        }
+
+        SpaceSaving merged = partials.get(0);
+        partials.subList(1, partials.size()).forEach(merged::merge);
+
+        assertThat(merged.total()).isEqualTo(STREAM);
+        assertWithinBounds(merged, exactCounts(stream));
+    }
+
+    @Test
+    void serializedSizeDependsOnCapacityNotOnTheNumberOfItems() {
+        SpaceSavingSerde serde = new SpaceSavingSerde();
+        SpaceSaving small = new SpaceSaving(CAPACITY);
+        SpaceSaving large = new SpaceSaving(CAPACITY);
+        for (int i = 0; i < 1_000; i++) {
+            small.add(String.format("product-%06d", i));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            large.add(String.format("product-%06d", i));
+        }
+
+        byte[] bytes = serde.serializer().serialize("topic", large);
+
+        assertThat(bytes).hasSize(serde.serializer().serialize("topic", small).length);
+        SpaceSaving restored = serde.deserializer().deserialize("topic", bytes);
+        assertThat(restored.top(CAPACITY)).isEqualTo(large.top(CAPACITY));
+        assertThat(restored.total()).isEqualTo(100_000);
+
+        // The restored heap keeps working: a new item replaces a minimal counter.
+        restored.add("product-new");
+        assertThat(restored.size()).isEqualTo(CAPACITY);
+        assertThat(restored.top(CAPACITY)).extracting(SpaceSaving.Entry::item).contains("product-new");
+    }
+
+    private static void assertWithinBounds(SpaceSaving sketch, Map<String, Long> exact) {
+        long maxError = STREAM / CAPACITY;
+        for (SpaceSaving.Entry entry : sketch.top(CAPACITY)) {
+            long trueCount = exact.getOrDefault(entry.item(), 0L);
+            assertThat(entry.guaranteed()).as(entry.item()).isLessThanOrEqualTo(trueCount);
+            assertThat(entry.count()).as(entry.item()).isGreaterThanOrEqualTo(trueCount);
+            assertThat(entry.error()).as(entry.item()).isLessThanOrEqualTo(maxError);
+        }
+
+        List<String> counted = sketch.top(CAPACITY).stream().map(SpaceSaving.Entry::item).toList();
+        exact.forEach((item, count) -> {
+            if (count > maxError) {
+                assertThat(counted).as("heavy hitter %s with %d", item, count).contains(item);
+            }
+        });
+
+        List<String> exactTop = exact.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+            .limit(10)
+            .map(Map.Entry::getKey)
+            .toList();
+        assertThat(sketch.top(10)).extracting(SpaceSaving.Entry::item).containsExactlyInAnyOrderElementsOf(exactTop);
+    }
+
+    private static Map<String, Long> exactCounts(List<String> stream) {
+        Map<String, Long> counts = new HashMap<>();
+        stream.forEach(item -> counts.merge(item, 1L, Long::sum));
+        return counts;
+    }
+
+    /** Product ids with Zipf(1.1) popularity over the catalog, like a flash sale. */
+    private static List<String> zipfStream(Random random) {
+        double[] cdf = new double[CATALOG];
+        double sum = 0;
+        for (int rank = 0; rank < CATALOG; rank++) {
+            sum += 1 / Math.pow(rank + 1, 1.1);
+            cdf[rank] = sum;
+        }
+        List<String> stream = new ArrayList<>(STREAM);
+        for (int i = 0; i < STREAM; i++) {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            stream.add("product-" + (rank < 0 ? -rank - 1 : rank));
+        }
+        return stream;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.kafka_streams.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.kafka_streams.aggregate.HyperLogLog;
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.topology.DistinctCustomersTopology;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+/**
+ * Time for a fresh application to work through a backlog of orders, exact
+ * distinct customers per hour as a set of ids against the HyperLogLog sketches
+ * of {@link DistinctCustomersTopology}. The set grows with the customers of the
+ * hour and is rewritten on every cache flush; a sketch stays at
+ * {@code 2^precision} bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class DistinctCustomersBenchmark {
+
+    public enum Variant { EXACT_SET, HYPERLOGLOG }
+
+    @Param({ "EXACT_SET", "HYPERLOGLOG" })
+    Variant variant;
+
+    @Param("200000")
+    int orders;
+
+    @Param("50000")
+    int customers;
+
+    @Param("4")
+    int partitions;
+
+    private OrderBacklog backlog;
+    private KafkaStreams streams;
+    private String applicationId;
+    private Path stateDir;
+    private int run;
+
+    @Setup(Level.Trial)
+    public void createBacklog() throws Exception {
+        backlog = OrderBacklog.create(partitions, orders, customers, 1_000);
+    }
+
+    @Setup(Level.Iteration)
+    public void createStreams() throws Exception {
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<String, Order> stream = builder.stream(HourlyTransactionTopology.ORDERS_TOPIC,
+            Consumed.with(Serdes.String(), new OrderSerdes()));
+        if (variant == Variant.EXACT_SET) {
+            stream
+                .groupBy((key, order) -> "customers", Grouped.with(Serdes.String(), new OrderSerdes()))
+                .windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofHours(1), Duration.ofMinutes(2)))
+                .aggregate(HashSet::new, (key, order, ids) -> {
+                    ids.add(order.getCustomerId());
+                    return ids;
+                }, Materialized.<String, Set<String>, WindowStore<Bytes, byte[]>>as("hourly-exact-customers")
+                    .withValueSerde(new CustomerSetSerde()));
+        } else {
+            new DistinctCustomersTopology(Duration.ofSeconds(1), Duration.ofMinutes(2), Duration.ofDays(2),
+                HyperLogLog.DEFAULT_PRECISION).build(builder, stream);
+        }
+
+        applicationId = "distinct-bench-" + variant + "-" + run++;
+        stateDir = Files.createTempDirectory("distinct-bench-");
+        streams = new KafkaStreams(builder.build(), backlog.streamsProperties(applicationId, stateDir, 2));
+    }
+
+    @Benchmark
+    public void drainBacklog() throws Exception {
+        streams.start();
+        backlog.awaitDrained(applicationId);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStreams() {
+        streams.close(Duration.ofSeconds(30));
+        streams.cleanUp();
+        FileSystemUtils.deleteRecursively(stateDir.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void closeBacklog() {
+        backlog.close();
+    }
+
+    /** Newline-separated ids. */
+    static class CustomerSetSerde extends Serdes.WrapperSerde<Set<String>> {
+        CustomerSetSerde() {
+            super((topic, ids) -> ids == null ? null : String.join("\n", ids).getBytes(StandardCharsets.UTF_8),
+                  (topic, bytes) -> bytes == null ? null
+                      : new HashSet<>(Arrays.asList(new String(bytes, StandardCharsets.UTF_8).split("\n"))));
+        }
+    }
+}
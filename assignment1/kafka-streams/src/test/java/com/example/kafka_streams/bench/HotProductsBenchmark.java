@@ -0,0 +1,122 @@
+package com.example.kafka_streams.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.topology.HotProductsTopology;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+/**
+ * Time for a fresh application to work through a backlog of orders over a large
+ * catalog, exact hourly counting per product against the Space-Saving sketch.
+ * The exact count keeps a window entry per product and hour and repartitions
+ * every order; the sketch keeps {@code capacity} counters per hour and
+ * repartitions one partial sketch per task and flush.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class HotProductsBenchmark {
+
+    public enum Variant { EXACT, SKETCH }
+
+    @Param({ "EXACT", "SKETCH" })
+    Variant variant;
+
+    @Param("200000")
+    int orders;
+
+    @Param("50000")
+    int products;
+
+    @Param("1000")
+    int capacity;
+
+    @Param("4")
+    int partitions;
+
+    private OrderBacklog backlog;
+    private KafkaStreams streams;
+    private String applicationId;
+    private Path stateDir;
+    private int run;
+
+    @Setup(Level.Trial)
+    public void createBacklog() throws Exception {
+        backlog = OrderBacklog.create(partitions, orders, 1_000, products);
+    }
+
+    @Setup(Level.Iteration)
+    public void createStreams() throws Exception {
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<String, Order> stream = builder.stream(HourlyTransactionTopology.ORDERS_TOPIC,
+            Consumed.with(Serdes.String(), new OrderSerdes()));
+        if (variant == Variant.EXACT) {
+            stream
+                .groupBy((key, order) -> order.getProductId(), Grouped.with(Serdes.String(), new OrderSerdes()))
+                .windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofHours(1), Duration.ofMinutes(2)))
+                .count(Materialized.<String, Long, WindowStore<Bytes, byte[]>>as("hourly-exact-product-counts"))
+                .toStream()
+                .map((windowedKey, count) -> KeyValue.pair(windowedKey.key(), String.valueOf(count)))
+                .to(HotProductsTopology.HOT_PRODUCTS_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+        } else {
+            new HotProductsTopology(Duration.ofSeconds(1), Duration.ofMinutes(2), capacity, 10).build(builder, stream);
+        }
+
+        applicationId = "hot-products-bench-" + variant + "-" + run++;
+        stateDir = Files.createTempDirectory("hot-products-bench-");
+        streams = new KafkaStreams(builder.build(), backlog.streamsProperties(applicationId, stateDir, 2));
+    }
+
+    @Benchmark
+    public void drainBacklog() throws Exception {
+        streams.start();
+        backlog.awaitDrained(applicationId);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStreams() {
+        streams.close(Duration.ofSeconds(30));
+        streams.cleanUp();
+        FileSystemUtils.deleteRecursively(stateDir.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void closeBacklog() {
+        backlog.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.kafka_streams.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.suppress.SuppressionMode;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+/**
+ * Time for a fresh application to work through a backlog of orders on a local
+ * KRaft broker, per-order grouping against the two-stage count. A run ends once
+ * the committed offsets of {@code orders-topic} reach the end of every partition.
+ * The per-order topology keeps a window for each order while the two-stage one
+ * keeps a partial per hour and task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class HourlyTopologyThroughputBenchmark {
+
+    public enum Variant { PER_ORDER, TWO_STAGE }
+
+    @Param({ "PER_ORDER", "TWO_STAGE" })
+    Variant variant;
+
+    @Param("200000")
+    int orders;
+
+    @Param("4")
+    int partitions;
+
+    @Param("2")
+    int streamThreads;
+
+    private OrderBacklog backlog;
+    private KafkaStreams streams;
+    private String applicationId;
+    private Path stateDir;
+    private int run;
+
+    @Setup(Level.Trial)
+    public void createBacklog() throws Exception {
+        backlog = OrderBacklog.create(partitions, orders, 1_000, 100);
+    }
+
+    @Setup(Level.Iteration)
+    public void createStreams() throws Exception {
+        StreamsBuilder builder = new StreamsBuilder();
+        if (variant == Variant.PER_ORDER) {
+            PerOrderHourlyTopology.build(builder, new OrderSerdes(), Duration.ZERO);
+        } else {
+            new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL, Duration.ofSeconds(1), Duration.ZERO,
+                Duration.ofDays(2)).build(builder);
+        }
+
+        applicationId = "hourly-bench-" + variant + "-" + run++;
+        stateDir = Files.createTempDirectory("hourly-bench-");
+        streams = new KafkaStreams(builder.build(), backlog.streamsProperties(applicationId, stateDir, streamThreads));
+    }
+
+    @Benchmark
+    public void drainBacklog() throws Exception {
+        streams.start();
+        backlog.awaitDrained(applicationId);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStreams() {
+        streams.close(Duration.ofSeconds(30));
+        streams.cleanUp();
+        FileSystemUtils.deleteRecursively(stateDir.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void closeBacklog() {
+        backlog.close();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.kafka_streams.bench;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.topology.HotProductsTopology;
+import com.example.kafka_streams.topology.HourlyRevenueTopology;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+/**
+ * A local KRaft broker with a backlog of orders on {@code orders-topic}, for
+ * benchmarks that time how long a fresh application takes to work through it.
+ * Orders have distinct ids and are spread evenly over the last few hours of
+ * event time.
+ */
+final class OrderBacklog implements AutoCloseable {
+
+    private static final Duration SPAN = Duration.ofHours(3);
+
+    private final EmbeddedKafkaKraftBroker broker;
+    private final Admin admin;
+    private final Map<TopicPartition, Long> endOffsets;
+
+    private OrderBacklog(EmbeddedKafkaKraftBroker broker, Admin admin, Map<TopicPartition, Long> endOffsets) {
+        this.broker = broker;
+        this.admin = admin;
+        this.endOffsets = endOffsets;
+    }
+
+    static OrderBacklog create(int partitions, int orders, int customers, int products) throws Exception {
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, partitions,
+            HourlyTransactionTopology.ORDERS_TOPIC, HourlyTransactionTopology.HOURLY_TOPIC,
+            HourlyTransactionTopology.MINUTE_TOPIC,
+            HourlyRevenueTopology.PRODUCT_REVENUE_TOPIC, HourlyRevenueTopology.CUSTOMER_REVENUE_TOPIC,
+            HotProductsTopology.HOT_PRODUCTS_TOPIC);
+        broker.afterPropertiesSet();
+        Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()));
+
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024);
+        // Recent event times, or the broker's retention would delete the backlog between iterations.
+        Instant start = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(SPAN);
+        long spanMs = SPAN.toMillis();
+        try (KafkaProducer<String, Order> producer =
+                 new KafkaProducer<>(props, new StringSerializer(), new OrderSerdes().serializer())) {
+            for (int i = 0; i < orders; i++) {
+                String orderId = "order-" + i;
+                long timestamp = start.toEpochMilli() + spanMs * i / orders;
+                Order order = new Order(orderId, "customer-" + (i % customers), "product-" + (i % products), 1 + i % 3,
+                    new BigDecimal("10.00"), LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC),
+                    "PENDING");
+                producer.send(new ProducerRecord<>(HourlyTransactionTopology.ORDERS_TOPIC, null, timestamp, orderId, order));
+            }
+        }
+
+        List<TopicPartition> topicPartitions = admin.describeTopics(List.of(HourlyTransactionTopology.ORDERS_TOPIC))
+            .allTopicNames().get().get(HourlyTransactionTopology.ORDERS_TOPIC).partitions().stream()
+            .map(info -> new TopicPartition(HourlyTransactionTopology.ORDERS_TOPIC, info.partition()))
+            .toList();
+        Map<TopicPartition, Long> endOffsets = admin
+            .listOffsets(topicPartitions.stream().collect(Collectors.toMap(tp -> tp, tp -> OffsetSpec.latest())))
+            .all().get().entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().offset()));
+        return new OrderBacklog(broker, admin, endOffsets);
+    }
+
+    Properties streamsProperties(String applicationId, Path stateDir, int streamThreads) {
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, streamThreads);
+        props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 100);
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        return props;
+    }
+
+    /** Blocks until the application has committed every order in the backlog. */
+    void awaitDrained(String applicationId) throws Exception {
+        while (!drained(applicationId)) {
+            Thread.sleep(20);
+        }
+    }
+
+    private boolean drained(String applicationId) throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> committed = admin
+            .listConsumerGroupOffsets(applicationId).partitionsToOffsetAndMetadata().get();
+        for (Map.Entry<TopicPartition, Long> end : endOffsets.entrySet()) {
+            OffsetAndMetadata offset = committed.get(end.getKey());
+            if (offset == null || offset.offset() < end.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Changelog partitions of the application that hold records, so a restore has to read them. */
+    int nonEmptyChangelogPartitions(String applicationId) throws Exception {
+        List<String> changelogs = admin.listTopics().names().get().stream()
+            .filter(topic -> topic.startsWith(applicationId + "-") && topic.endsWith("-changelog"))
+            .toList();
+        Map<TopicPartition, OffsetSpec> latest = admin.describeTopics(changelogs).allTopicNames().get().values().stream()
+            .flatMap(topic -> topic.partitions().stream()
+                .map(info -> new TopicPartition(topic.name(), info.partition())))
+            .collect(Collectors.toMap(tp -> tp, tp -> OffsetSpec.latest()));
+        return (int) admin.listOffsets(latest).all().get().values().stream()
+            .filter(info -> info.offset() > 0)
+            .count();
+    }
+
+    @Override
+    public void close() {
+        admin.close();
+        broker.destroy();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.kafka_streams.bench;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.TimeWindows;
+
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+/**
+ * The hourly topology as it was before the two-stage count: grouped on the
+ * order-id key, so every order gets its own window and its own output row.
+ * Only kept as the baseline for {@link HourlyTopologyThroughputBenchmark}.
+ */
+class PerOrderHourlyTopology {
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00:00");
+
+    static void build(StreamsBuilder streamsBuilder, Serde<Order> orderSerde, Duration grace) {
+        streamsBuilder.stream(HourlyTransactionTopology.ORDERS_TOPIC, Consumed.with(Serdes.String(), orderSerde))
+            .groupByKey(Grouped.with(Serdes.String(), orderSerde))
+            .windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofHours(1), grace))
+            .count()
+            .suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded()))
+            .toStream()
+            .map((windowedKey, count) -> {
+                String hourWindow = windowedKey.window().startTime()
+                        .atOffset(ZoneOffset.UTC)
+                        .format(HOUR_FORMAT);
+                return KeyValue.pair(hourWindow, String.format("{\"hour_window\":\"%s\",\"transaction_count\":%d}",
+                        hourWindow, count));
+            })
+            .to(HourlyTransactionTopology.HOURLY_TOPIC, Produced.with(Serdes.String(), Serdes.String()));
+    }
+}
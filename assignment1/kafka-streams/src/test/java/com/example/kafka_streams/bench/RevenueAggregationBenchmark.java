@@ -0,0 +1,138 @@
+package com.example.kafka_streams.bench;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.KStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.state.BoundedMemoryRocksDBConfig;
+import com.example.kafka_streams.suppress.SuppressionMode;
+import com.example.kafka_streams.topology.HourlyRevenueTopology;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+/**
+ * Cost of the per-product and per-customer revenue aggregations on top of the
+ * hourly count, with and without the shared RocksDB memory cap. Times a fresh
+ * application working through a backlog on a local KRaft broker and, after each
+ * run, prints the RocksDB footprint of the stores (SST files, memtables,
+ * estimated keys) from the store metrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class RevenueAggregationBenchmark {
+
+    public enum Variant { COUNT_ONLY, COUNT_AND_REVENUE }
+
+    @Param({ "COUNT_ONLY", "COUNT_AND_REVENUE" })
+    Variant variant;
+
+    @Param({ "true", "false" })
+    boolean boundedMemory;
+
+    @Param("200000")
+    int orders;
+
+    @Param("10000")
+    int customers;
+
+    @Param("1000")
+    int products;
+
+    @Param("4")
+    int partitions;
+
+    private OrderBacklog backlog;
+    private KafkaStreams streams;
+    private String applicationId;
+    private Path stateDir;
+    private int run;
+
+    @Setup(Level.Trial)
+    public void createBacklog() throws Exception {
+        backlog = OrderBacklog.create(partitions, orders, customers, products);
+    }
+
+    @Setup(Level.Iteration)
+    public void createStreams() throws Exception {
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<String, Order> stream = new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL,
+            Duration.ofSeconds(1), Duration.ofMinutes(2), Duration.ofDays(2)).build(builder);
+        if (variant == Variant.COUNT_AND_REVENUE) {
+            new HourlyRevenueTopology(Duration.ofMinutes(2), Duration.ofDays(2)).build(stream);
+        }
+
+        applicationId = "revenue-bench-" + variant + "-" + boundedMemory + "-" + run++;
+        stateDir = Files.createTempDirectory("revenue-bench-");
+        Properties props = backlog.streamsProperties(applicationId, stateDir, 2);
+        props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, 16 * 1024 * 1024);
+        if (boundedMemory) {
+            props.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, BoundedMemoryRocksDBConfig.class);
+            props.put(BoundedMemoryRocksDBConfig.TOTAL_MEMORY_CONFIG, String.valueOf(64L * 1024 * 1024));
+        }
+        streams = new KafkaStreams(builder.build(), props);
+    }
+
+    @Benchmark
+    public void drainBacklog() throws Exception {
+        streams.start();
+        backlog.awaitDrained(applicationId);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStreams() {
+        System.out.printf("%n%s: sst=%.1f MB, memtables=%.1f MB, estimated keys=%d%s%n", applicationId,
+            rocksDbMetric("total-sst-files-size").doubleValue() / 1048576.0,
+            rocksDbMetric("size-all-mem-tables").doubleValue() / 1048576.0,
+            rocksDbMetric("estimate-num-keys").longValue(),
+            boundedMemory ? String.format(", shared cache=%.1f MB", BoundedMemoryRocksDBConfig.usage() / 1048576.0) : "");
+        streams.close(Duration.ofSeconds(30));
+        streams.cleanUp();
+        FileSystemUtils.deleteRecursively(stateDir.toFile());
+    }
+
+    private BigInteger rocksDbMetric(String name) {
+        BigInteger total = BigInteger.ZERO;
+        for (Map.Entry<MetricName, ? extends Metric> entry : streams.metrics().entrySet()) {
+            if (entry.getKey().name().equals(name) && entry.getKey().group().equals("stream-state-metrics")
+                    && entry.getValue().metricValue() instanceof BigInteger value) {
+                total = total.add(value);
+            }
+        }
+        return total;
+    }
+
+    @TearDown(Level.Trial)
+    public void closeBacklog() {
+        backlog.close();
+    }
+}
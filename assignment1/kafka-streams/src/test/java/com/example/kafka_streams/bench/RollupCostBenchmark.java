@@ -0,0 +1,129 @@
+package com.example.kafka_streams.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.kafka_streams.aggregate.PartialCountProcessor;
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.suppress.SuppressionMode;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+/**
+ * Cost per order of keeping minute, hour and day counts: the cascade of
+ * {@link HourlyTransactionTopology}, where orders are counted once per minute
+ * and the coarser windows sum the minute partials, against three independent
+ * two-stage counts that each see every order. Times a fresh application working
+ * through a backlog on a local KRaft broker; the score is per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(RollupCostBenchmark.ORDERS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class RollupCostBenchmark {
+
+    static final int ORDERS = 200_000;
+
+    public enum Variant { CASCADE, INDEPENDENT }
+
+    @Param({ "CASCADE", "INDEPENDENT" })
+    Variant variant;
+
+    @Param("4")
+    int partitions;
+
+    private OrderBacklog backlog;
+    private KafkaStreams streams;
+    private String applicationId;
+    private Path stateDir;
+    private int run;
+
+    @Setup(Level.Trial)
+    public void createBacklog() throws Exception {
+        backlog = OrderBacklog.create(partitions, ORDERS, 1_000, 100);
+    }
+
+    @Setup(Level.Iteration)
+    public void createStreams() throws Exception {
+        StreamsBuilder builder = new StreamsBuilder();
+        if (variant == Variant.CASCADE) {
+            new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL, Duration.ofSeconds(1),
+                Duration.ofMinutes(2), Duration.ofDays(2)).build(builder);
+        } else {
+            KStream<String, Order> stream = builder.stream(HourlyTransactionTopology.ORDERS_TOPIC,
+                Consumed.with(Serdes.String(), new OrderSerdes()));
+            count(builder, stream, "minute", Duration.ofMinutes(1), HourlyTransactionTopology.MINUTE_FORMAT);
+            count(builder, stream, "hourly", Duration.ofHours(1), HourlyTransactionTopology.HOUR_FORMAT);
+            count(builder, stream, "daily", Duration.ofDays(1), HourlyTransactionTopology.DAY_FORMAT);
+        }
+
+        applicationId = "rollup-bench-" + variant + "-" + run++;
+        stateDir = Files.createTempDirectory("rollup-bench-");
+        streams = new KafkaStreams(builder.build(), backlog.streamsProperties(applicationId, stateDir, 2));
+    }
+
+    private static void count(StreamsBuilder builder, KStream<String, Order> stream, String level, Duration windowSize,
+                              DateTimeFormatter keyFormat) {
+        String partialStore = level + "-partial-counts";
+        builder.addStateStore(PartialCountProcessor.storeBuilder(partialStore));
+        stream
+            .process(() -> new PartialCountProcessor<Order>(partialStore, windowSize, Duration.ofSeconds(1),
+                windowStart -> keyFormat.format(Instant.ofEpochMilli(windowStart))), partialStore)
+            .groupByKey(Grouped.with(level + "-partials", Serdes.String(), Serdes.Long()))
+            .windowedBy(TimeWindows.ofSizeAndGrace(windowSize, Duration.ofMinutes(2)))
+            .reduce(Long::sum, Materialized.<String, Long, WindowStore<Bytes, byte[]>>as(level + "-counts")
+                .withKeySerde(Serdes.String())
+                .withValueSerde(Serdes.Long()));
+    }
+
+    @Benchmark
+    public void drainBacklog() throws Exception {
+        streams.start();
+        backlog.awaitDrained(applicationId);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStreams() {
+        streams.close(Duration.ofSeconds(30));
+        streams.cleanUp();
+        FileSystemUtils.deleteRecursively(stateDir.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void closeBacklog() {
+        backlog.close();
+    }
+}
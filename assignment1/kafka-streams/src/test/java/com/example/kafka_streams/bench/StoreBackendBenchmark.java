@@ -0,0 +1,183 @@
+package com.example.kafka_streams.bench;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.apache.kafka.streams.processor.StateRestoreListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.suppress.SuppressionMode;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+/**
+ * The windowed transaction count on RocksDB against in-memory stores, on a local
+ * KRaft broker. {@code drainBacklog} times a fresh application working through
+ * the backlog. {@code restoreState} drains the backlog first, wipes the local
+ * state and times the restart until every non-empty changelog partition has been
+ * restored. After a drain the heap the application retains (live heap after GC
+ * while it is open, less the same once it is closed, so the broker in the same
+ * JVM cancels out) and the native memory of the RocksDB memtables, table readers
+ * and block caches are printed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class StoreBackendBenchmark {
+
+    @Param({ "ROCKS_DB", "IN_MEMORY" })
+    StoreType storeType;
+
+    @Param("200000")
+    int orders;
+
+    @Param("4")
+    int partitions;
+
+    private OrderBacklog backlog;
+    private KafkaStreams streams;
+    private String applicationId;
+    private Path stateDir;
+    private int run;
+    private boolean restoring;
+    private int changelogPartitions;
+    private final AtomicInteger restored = new AtomicInteger();
+    private final AtomicLong restoredRecords = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void createBacklog() throws Exception {
+        backlog = OrderBacklog.create(partitions, orders, 1_000, 100);
+    }
+
+    @Setup(Level.Iteration)
+    public void createStreams(BenchmarkParams params) throws Exception {
+        restoring = params.getBenchmark().endsWith("restoreState");
+        applicationId = "backend-bench-" + storeType + "-" + run++;
+        stateDir = Files.createTempDirectory("backend-bench-");
+        if (restoring) {
+            streams = newStreams();
+            streams.start();
+            backlog.awaitDrained(applicationId);
+            streams.close(Duration.ofSeconds(30));
+            streams.cleanUp();
+            changelogPartitions = backlog.nonEmptyChangelogPartitions(applicationId);
+        }
+        restored.set(0);
+        restoredRecords.set(0);
+        streams = newStreams();
+    }
+
+    private KafkaStreams newStreams() {
+        StreamsBuilder builder = new StreamsBuilder();
+        new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL, Duration.ofSeconds(1),
+            Duration.ofMinutes(2), Duration.ofDays(2)).withStoreType(storeType).build(builder);
+        Properties props = backlog.streamsProperties(applicationId, stateDir, 2);
+        // Static members, so the restarted application takes over at once instead of
+        // waiting for the session of the closed one to time out.
+        props.put(StreamsConfig.mainConsumerPrefix(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG), applicationId);
+        KafkaStreams kafkaStreams = new KafkaStreams(builder.build(), props);
+        kafkaStreams.setGlobalStateRestoreListener(new StateRestoreListener() {
+            @Override
+            public void onRestoreStart(TopicPartition partition, String storeName, long startingOffset, long endingOffset) {
+            }
+
+            @Override
+            public void onBatchRestored(TopicPartition partition, String storeName, long batchEndOffset, long numRestored) {
+                restoredRecords.addAndGet(numRestored);
+            }
+
+            @Override
+            public void onRestoreEnd(TopicPartition partition, String storeName, long totalRestored) {
+                restored.incrementAndGet();
+            }
+        });
+        return kafkaStreams;
+    }
+
+    @Benchmark
+    public void drainBacklog() throws Exception {
+        streams.start();
+        backlog.awaitDrained(applicationId);
+    }
+
+    @Benchmark
+    public void restoreState() throws Exception {
+        streams.start();
+        while (restored.get() < changelogPartitions) {
+            Thread.sleep(5);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStreams() {
+        if (restoring) {
+            System.out.printf("%n%s: restored %d records from %d changelog partitions%n", applicationId,
+                restoredRecords.get(), changelogPartitions);
+            streams.close(Duration.ofSeconds(30));
+        } else {
+            BigInteger rocksDbNative = rocksDbMetric("size-all-mem-tables")
+                .add(rocksDbMetric("estimate-table-readers-mem"))
+                .add(rocksDbMetric("block-cache-usage"));
+            long heapOpen = heapAfterGc();
+            streams.close(Duration.ofSeconds(30));
+            System.out.printf("%n%s: retained heap=%.1f MB, rocksdb native=%.1f MB%n", applicationId,
+                (heapOpen - heapAfterGc()) / 1048576.0, rocksDbNative.doubleValue() / 1048576.0);
+        }
+        streams.cleanUp();
+        FileSystemUtils.deleteRecursively(stateDir.toFile());
+    }
+
+    private static long heapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private BigInteger rocksDbMetric(String name) {
+        BigInteger total = BigInteger.ZERO;
+        for (Map.Entry<MetricName, ? extends Metric> entry : streams.metrics().entrySet()) {
+            if (entry.getKey().name().equals(name) && entry.getKey().group().equals("stream-state-metrics")
+                    && entry.getValue().metricValue() instanceof BigInteger value) {
+                total = total.add(value);
+            }
+        }
+        return total;
+    }
+
+    @TearDown(Level.Trial)
+    public void closeBacklog() {
+        backlog.close();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.kafka_streams.bench;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.suppress.SuppressionMode;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+import com.example.order_codec.OrderWireFormat;
+
+/**
+ * Records per second through the full application topology, built by
+ * {@code StreamsConfig.kStream} with the default settings and driven by
+ * {@link TopologyTestDriver}, so it needs no broker and is steady enough to
+ * compare before and after a topology change. Each invocation pipes a batch of
+ * orders through serialization, {@link OrderSerdes} deserialization, the minute,
+ * hour and day rollups, suppression, the sketches and the JSON output, with
+ * event time moving 360 ms per order so hours keep closing. The score is per
+ * order. The driver commits after every record, so each order also pays for
+ * flushing every store; compare scores with each other, not with a broker run.
+ *
+ * <p>The stages that run per order are also measured on their own. Run with
+ * {@code -Djmh.args="TopologyDriverBenchmark -prof gc"} for the allocation rate;
+ * {@code gc.alloc.rate.norm} is bytes per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class TopologyDriverBenchmark {
+
+    static final int BATCH = 1_000;
+    private static final Instant START = Instant.parse("2025-06-01T00:00:00Z");
+    private static final Duration ORDER_SPACING = Duration.ofMillis(360);
+
+    @Param({ "BINARY", "JSON" })
+    OrderWireFormat format;
+
+    private Path stateDir;
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Order> input;
+    private final List<TestOutputTopic<byte[], byte[]>> outputs = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>(BATCH);
+    private Instant eventTime = START;
+
+    private Deserializer<Order> deserializer;
+    private byte[] encodedOrder;
+    private int next;
+
+    @Setup
+    public void createDriver() throws Exception {
+        StreamsBuilder builder = new StreamsBuilder();
+        OrderSerdes serdes = new OrderSerdes(format);
+        new com.example.kafka_streams.config.StreamsConfig().kStream(builder, serdes, SuppressionMode.SPILL,
+            Duration.ofSeconds(1), Duration.ofMinutes(2), Duration.ofHours(48), Duration.ofHours(6), Duration.ofDays(35),
+            true, Duration.ofSeconds(30), StoreType.ROCKS_DB, StoreType.ROCKS_DB, StoreType.ROCKS_DB,
+            StoreType.ROCKS_DB, 1_000, 10, 12);
+
+        stateDir = Files.createTempDirectory("driver-bench-");
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "driver-bench");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), props, START);
+        input = driver.createInputTopic(HourlyTransactionTopology.ORDERS_TOPIC, Serdes.String().serializer(),
+            serdes.serializer());
+
+        for (int i = 0; i < BATCH; i++) {
+            orders.add(order(i));
+        }
+        deserializer = serdes.deserializer();
+        encodedOrder = serdes.serializer().serialize(HourlyTransactionTopology.ORDERS_TOPIC, order(42));
+    }
+
+    private static Order order(int i) {
+        String orderId = "order-" + i;
+        return new Order(orderId, "customer-" + (i * 7 % 10_000), "product-" + (i % 1_000), 1 + i % 3,
+            new BigDecimal("19.99"), LocalDateTime.ofInstant(START, ZoneOffset.UTC), "PENDING");
+    }
+
+    @TearDown
+    public void closeDriver() {
+        driver.close();
+        FileSystemUtils.deleteRecursively(stateDir.toFile());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void pipeOrders() {
+        for (Order order : orders) {
+            input.pipeInput(order.getOrderId(), order, eventTime);
+            eventTime = eventTime.plus(ORDER_SPACING);
+        }
+        // Fires the partial flushes and early results, then drops what the sinks
+        // produced so the driver's output queues do not grow across invocations.
+        driver.advanceWallClockTime(Duration.ofSeconds(1));
+        drainOutputs();
+    }
+
+    private void drainOutputs() {
+        if (outputs.size() < driver.producedTopicNames().size()) {
+            outputs.clear();
+            for (String topic : driver.producedTopicNames()) {
+                outputs.add(driver.createOutputTopic(topic, new ByteArrayDeserializer(), new ByteArrayDeserializer()));
+            }
+        }
+        for (TestOutputTopic<byte[], byte[]> output : outputs) {
+            output.readRecordsToList();
+        }
+    }
+
+    @Benchmark
+    public Order deserializeOrder() {
+        return deserializer.deserialize(HourlyTransactionTopology.ORDERS_TOPIC, encodedOrder);
+    }
+
+    @Benchmark
+    public void formatResult(Blackhole blackhole) {
+        blackhole.consume(HourlyTransactionTopology.countResult("hour_window", "2025-06-01 05:00:00", next++));
+    }
+
+    /** The {@code String.format} the topology used before {@code countResult}, for comparison. */
+    @Benchmark
+    public void formatResultWithStringFormat(Blackhole blackhole) {
+        blackhole.consume(String.format("{\"hour_window\":\"%s\",\"transaction_count\":%d}",
+            "2025-06-01 05:00:00", next++));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.kafka_streams.bench;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.KStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.client.RestClient;
+
+import com.example.kafka_streams.controller.HourlyQueryController;
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.service.HourlyQueryService;
+import com.example.kafka_streams.suppress.SuppressionMode;
+import com.example.kafka_streams.topology.HourlyRevenueTopology;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+/**
+ * Latency of interactive queries for keys hosted locally: a point lookup of an
+ * hour total and a 24-hour revenue range of one product, once through the
+ * service and once through the MVC stack including JSON. The stores are real
+ * RocksDB window stores, filled through {@link TopologyTestDriver}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WindowQueryLatencyBenchmark {
+
+    private static final Instant START = Instant.parse("2025-06-01T00:00:00Z");
+    private static final int PRODUCTS = 1_000;
+    private static final int HOURS = 24;
+
+    private Path stateDir;
+    private TopologyTestDriver driver;
+    private HourlyQueryService service;
+    private MockMvc mockMvc;
+    private final Instant hour = START.plus(Duration.ofHours(5));
+    private final Instant end = START.plus(Duration.ofHours(HOURS));
+
+    @Setup
+    public void fillStores() throws Exception {
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<String, Order> orders = new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL,
+            Duration.ofSeconds(1), Duration.ofMinutes(2), Duration.ofDays(2)).build(builder);
+        new HourlyRevenueTopology(Duration.ofMinutes(2), Duration.ofDays(2)).build(orders);
+
+        stateDir = Files.createTempDirectory("query-bench-");
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "query-bench");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), props, START);
+        TestInputTopic<String, Order> input = driver.createInputTopic(HourlyTransactionTopology.ORDERS_TOPIC,
+            Serdes.String().serializer(), new OrderSerdes().serializer());
+        for (int h = 0; h < HOURS; h++) {
+            for (int p = 0; p < PRODUCTS; p++) {
+                String orderId = "order-" + h + "-" + p;
+                input.pipeInput(orderId, new Order(orderId, "customer-" + p, "product-" + p, 1, new BigDecimal("10.00"),
+                    null, "PENDING"), START.plus(Duration.ofHours(h)).plusMillis(p));
+            }
+            driver.advanceWallClockTime(Duration.ofSeconds(1));
+        }
+
+        KafkaStreamsInteractiveQueryService interactiveQueryService = mock(KafkaStreamsInteractiveQueryService.class);
+        for (String store : new String[] { HourlyTransactionTopology.COUNT_STORE,
+                HourlyRevenueTopology.PRODUCT_REVENUE_STORE, HourlyRevenueTopology.CUSTOMER_REVENUE_STORE }) {
+            doReturn(driver.getWindowStore(store)).when(interactiveQueryService).retrieveQueryableStore(eq(store), any());
+        }
+        service = new HourlyQueryService();
+        ReflectionTestUtils.setField(service, "interactiveQueryService", interactiveQueryService);
+        ReflectionTestUtils.setField(service, "restClientBuilder", RestClient.builder());
+        ReflectionTestUtils.invokeMethod(service, "buildRestClient");
+
+        HourlyQueryController controller = new HourlyQueryController();
+        ReflectionTestUtils.setField(controller, "hourlyQueryService", service);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @TearDown
+    public void closeDriver() {
+        driver.close();
+        FileSystemUtils.deleteRecursively(stateDir.toFile());
+    }
+
+    @Benchmark
+    public Object pointLookup() {
+        return service.transactionCount(hour, false);
+    }
+
+    @Benchmark
+    public Object revenueRange() {
+        return service.productRevenue("product-42", START, end, false);
+    }
+
+    @Benchmark
+    public Object pointLookupOverMvc() throws Exception {
+        return mockMvc.perform(get("/api/hourly/transactions/{hour}", hour)).andReturn();
+    }
+
+    @Benchmark
+    public Object revenueRangeOverMvc() throws Exception {
+        return mockMvc.perform(get("/api/hourly/revenue/products/product-42")
+            .param("from", START.toString()).param("to", end.toString())).andReturn();
+    }
+}
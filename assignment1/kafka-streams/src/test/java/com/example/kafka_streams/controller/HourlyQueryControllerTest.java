@@ -0,0 +1,235 @@
+package com.example.kafka_streams.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.state.HostInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestClient;
+
+import com.example.kafka_streams.aggregate.HyperLogLog;
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.service.HourlyQueryService;
+import com.example.kafka_streams.suppress.SuppressionMode;
+import com.example.kafka_streams.topology.DistinctCustomersTopology;
+import com.example.kafka_streams.topology.HourlyRevenueTopology;
+import com.example.kafka_streams.topology.HourlyTransactionTopology;
+
+@WebMvcTest(HourlyQueryController.class)
+@Import({ HourlyQueryService.class, QueryExceptionHandler.class, HourlyQueryControllerTest.RemoteInstances.class })
+class HourlyQueryControllerTest {
+
+    private static final Instant HOUR = Instant.parse("2025-06-01T10:00:00Z");
+    private static final HostInfo SELF = new HostInfo("streams-a", 8084);
+    private static final HostInfo OTHER = new HostInfo("streams-b", 8084);
+
+    @TestConfiguration
+    static class RemoteInstances {
+        private final RestClient.Builder builder = RestClient.builder();
+        private final MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+
+        @Bean
+        RestClient.Builder restClientBuilder() {
+            return builder;
+        }
+
+        @Bean
+        MockRestServiceServer remoteInstances() {
+            return server;
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MockRestServiceServer remoteInstances;
+
+    @MockitoBean
+    private KafkaStreamsInteractiveQueryService interactiveQueryService;
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+
+    @BeforeEach
+    void populateStores() {
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<String, Order> orders = new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL,
+            Duration.ofSeconds(1), Duration.ofMinutes(2), Duration.ofDays(2)).build(builder);
+        new HourlyRevenueTopology(Duration.ofMinutes(2), Duration.ofDays(2)).build(orders);
+        new DistinctCustomersTopology(Duration.ofSeconds(1), Duration.ofMinutes(2), Duration.ofDays(2),
+            HyperLogLog.DEFAULT_PRECISION).build(builder, orders);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "hourly-query-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), props, HOUR);
+
+        TestInputTopic<String, Order> input = driver.createInputTopic(HourlyTransactionTopology.ORDERS_TOPIC,
+            Serdes.String().serializer(), new OrderSerdes().serializer());
+        input.pipeInput("order-1", order("order-1", "product-1", 2, "10.50"), HOUR.plusSeconds(10));
+        input.pipeInput("order-2", order("order-2", "product-1", 1, "0.99"), HOUR.plusSeconds(20));
+        input.pipeInput("order-3", order("order-3", "product-1", 1, "5.00"), HOUR.plus(Duration.ofHours(2)));
+        driver.advanceWallClockTime(Duration.ofSeconds(1));
+
+        for (String store : new String[] { HourlyTransactionTopology.COUNT_STORE,
+                HourlyRevenueTopology.PRODUCT_REVENUE_STORE, HourlyRevenueTopology.CUSTOMER_REVENUE_STORE,
+                DistinctCustomersTopology.HOURLY_STORE, DistinctCustomersTopology.DAILY_STORE }) {
+            doReturn(driver.getWindowStore(store)).when(interactiveQueryService).retrieveQueryableStore(eq(store), any());
+        }
+    }
+
+    @AfterEach
+    void closeDriver() {
+        driver.close();
+    }
+
+    @Test
+    void answersAnHourFromTheLocalStore() throws Exception {
+        mockMvc.perform(get("/api/hourly/transactions/2025-06-01T10:30:00Z"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"hour_window\":\"2025-06-01 10:00:00\",\"transaction_count\":2}"));
+
+        mockMvc.perform(get("/api/hourly/transactions/2025-06-01T11:00:00Z"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void listsHoursOfARange() throws Exception {
+        mockMvc.perform(get("/api/hourly/transactions")
+                .param("from", "2025-06-01T09:00:00Z").param("to", "2025-06-01T13:00:00Z"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].transaction_count").value(2))
+            .andExpect(jsonPath("$[1].hour_window").value("2025-06-01 12:00:00"))
+            .andExpect(jsonPath("$[1].transaction_count").value(1));
+    }
+
+    @Test
+    void fetchesRevenueWindowsOfAProduct() throws Exception {
+        mockMvc.perform(get("/api/hourly/revenue/products/product-1")
+                .param("from", "2025-06-01T10:00:00Z").param("to", "2025-06-01T12:00:00Z"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].order_count").value(2))
+            .andExpect(jsonPath("$[0].units").value(3))
+            .andExpect(jsonPath("$[0].revenue").value(21.99))
+            .andExpect(jsonPath("$[1].hour_window").value("2025-06-01 12:00:00"));
+    }
+
+    @Test
+    void estimatesDistinctCustomersPerHourAndDay() throws Exception {
+        mockMvc.perform(get("/api/hourly/customers/distinct/2025-06-01T10:15:00Z"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.window").value("2025-06-01 10:00:00"))
+            .andExpect(jsonPath("$.distinct_customers").value(1))
+            .andExpect(jsonPath("$.standard_error").value(0.01625));
+
+        mockMvc.perform(get("/api/hourly/customers/distinct/days/2025-06-01"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.window").value("2025-06-01"))
+            .andExpect(jsonPath("$.distinct_customers").value(1));
+
+        mockMvc.perform(get("/api/hourly/customers/distinct/days/2025-06-02"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void forwardsKeysHostedElsewhereOnce() throws Exception {
+        when(interactiveQueryService.getCurrentKafkaStreamsApplicationHostInfo()).thenReturn(SELF);
+        when(interactiveQueryService.getKafkaStreamsApplicationHostInfo(eq(HourlyRevenueTopology.CUSTOMER_REVENUE_STORE),
+            anyString(), any())).thenReturn(OTHER);
+        remoteInstances.expect(requestTo("http://streams-b:8084/api/hourly/revenue/customers/customer-9"
+                + "?from=2025-06-01T10%3A00%3A00Z&to=2025-06-01T11%3A00%3A00Z"))
+            .andExpect(header(HourlyQueryService.FORWARDED_HEADER, "true"))
+            .andRespond(withSuccess("[{\"hour_window\":\"2025-06-01 10:00:00\",\"id\":\"customer-9\","
+                + "\"order_count\":4,\"units\":4,\"revenue\":40.00}]", MediaType.APPLICATION_JSON));
+
+        mockMvc.perform(get("/api/hourly/revenue/customers/customer-9")
+                .param("from", "2025-06-01T10:00:00Z").param("to", "2025-06-01T11:00:00Z"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value("customer-9"))
+            .andExpect(jsonPath("$[0].order_count").value(4));
+        remoteInstances.verify();
+
+        mockMvc.perform(get("/api/hourly/revenue/customers/customer-9")
+                .param("from", "2025-06-01T10:00:00Z").param("to", "2025-06-01T11:00:00Z")
+                .header(HourlyQueryService.FORWARDED_HEADER, "true"))
+            .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void forwardsDistinctCustomerQueriesInTheFormTheRemoteControllerBinds() throws Exception {
+        when(interactiveQueryService.getCurrentKafkaStreamsApplicationHostInfo()).thenReturn(SELF);
+        when(interactiveQueryService.getKafkaStreamsApplicationHostInfo(eq(DistinctCustomersTopology.HOURLY_STORE),
+            anyString(), any())).thenReturn(OTHER);
+        when(interactiveQueryService.getKafkaStreamsApplicationHostInfo(eq(DistinctCustomersTopology.DAILY_STORE),
+            anyString(), any())).thenReturn(OTHER);
+        remoteInstances.expect(requestTo("http://streams-b:8084/api/hourly/customers/distinct/2025-06-01T10%3A00%3A00Z"))
+            .andExpect(header(HourlyQueryService.FORWARDED_HEADER, "true"))
+            .andRespond(withSuccess("{\"window\":\"2025-06-01 10:00:00\",\"distinct_customers\":7,"
+                + "\"standard_error\":0.01625}", MediaType.APPLICATION_JSON));
+        remoteInstances.expect(requestTo("http://streams-b:8084/api/hourly/customers/distinct/days/2025-06-01"))
+            .andExpect(header(HourlyQueryService.FORWARDED_HEADER, "true"))
+            .andRespond(withSuccess("{\"window\":\"2025-06-01\",\"distinct_customers\":9,"
+                + "\"standard_error\":0.01625}", MediaType.APPLICATION_JSON));
+
+        mockMvc.perform(get("/api/hourly/customers/distinct/2025-06-01T10:15:00Z"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.distinct_customers").value(7));
+        mockMvc.perform(get("/api/hourly/customers/distinct/days/2025-06-01"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.distinct_customers").value(9));
+        remoteInstances.verify();
+    }
+
+    @Test
+    void rejectsRangesLongerThanAWeek() throws Exception {
+        mockMvc.perform(get("/api/hourly/transactions")
+                .param("from", "2025-06-01T00:00:00Z").param("to", "2025-06-09T00:00:00Z"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private static Order order(String orderId, String productId, int quantity, String price) {
+        return new Order(orderId, "customer-1", productId, quantity, new BigDecimal(price), null, "PENDING");
+    }
+}
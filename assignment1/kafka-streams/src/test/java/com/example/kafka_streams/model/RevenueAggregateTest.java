@@ -0,0 +1,60 @@
+package com.example.kafka_streams.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class RevenueAggregateTest {
+
+    @Test
+    void takesRevenueFromPriceTimesQuantity() {
+        RevenueAggregate aggregate = RevenueAggregate.of(order(3, "19.99"));
+
+        assertThat(aggregate.getOrders()).isEqualTo(1);
+        assertThat(aggregate.getUnits()).isEqualTo(3);
+        assertThat(aggregate.getRevenueMicros()).isEqualTo(59_970_000);
+        assertThat(aggregate.getRevenue()).isEqualByComparingTo("59.97");
+    }
+
+    @Test
+    void roundsSubCentPricesOnlyOnTheTotal() {
+        RevenueAggregate aggregate = RevenueAggregate.EMPTY;
+        for (int i = 0; i < 100; i++) {
+            aggregate = aggregate.plus(RevenueAggregate.of(order(1, "0.005")));
+        }
+
+        // Rounding each order first would report 100 x 0.01 = 1.00
+        assertThat(aggregate.getRevenue()).isEqualByComparingTo("0.50");
+    }
+
+    @Test
+    void countsMissingQuantityAndPriceAsZero() {
+        assertThat(RevenueAggregate.of(order(null, null))).isEqualTo(new RevenueAggregate(1, 0, 0));
+    }
+
+    @Test
+    void roundTripsThroughTheSerdeInTwentyFourBytes() {
+        RevenueAggregate aggregate = RevenueAggregate.of(order(2, "10.50")).plus(RevenueAggregate.of(order(1, "0.99")));
+        RevenueAggregateSerde serde = new RevenueAggregateSerde();
+
+        byte[] bytes = serde.serializer().serialize("topic", aggregate);
+
+        assertThat(bytes).hasSize(24);
+        assertThat(serde.deserializer().deserialize("topic", bytes)).isEqualTo(new RevenueAggregate(2, 3, 21_990_000));
+        assertThat(serde.serializer().serialize("topic", null)).isNull();
+    }
+
+    @Test
+    void rejectsValuesOfTheWrongSize() {
+        assertThatThrownBy(() -> new RevenueAggregateSerde().deserializer().deserialize("topic", new byte[8]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Order order(Integer quantity, String price) {
+        return new Order("order-1", "customer-1", "product-1", quantity, price == null ? null : new BigDecimal(price),
+            null, "PENDING");
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.kafka_streams.suppress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.serialization.LongDeserializer;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * {@code TopologyTestDriver} commits, and so flushes RocksDB, after every input
+ * record. To reach a million distinct keys in reasonable time each input record
+ * here is a burst: a key prefix and a size that the topology fans out into that
+ * many windowed updates in front of the suppression processor.
+ */
+class SpillingSuppressProcessorTest {
+
+    private static final String STORE = "suppress-test-buffer";
+    private static final long HOUR_MS = Duration.ofHours(1).toMillis();
+    private static final Instant HOUR = Instant.parse("2025-06-01T10:00:00Z");
+    private static final long BURST = 10_000;
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Long> bursts;
+    private TestOutputTopic<String, Long> finals;
+
+    @BeforeEach
+    void start() {
+        StreamsBuilder builder = new StreamsBuilder();
+        // The driver keeps every record it produces, changelog records included, on
+        // the heap; with logging on it would measure itself rather than the buffer.
+        builder.addStateStore(SpillingSuppressProcessor.storeBuilder(STORE).withLoggingDisabled());
+        builder.stream("bursts", Consumed.with(Serdes.String(), Serdes.Long()))
+            .process(FanOut::new)
+            .process(() -> new SpillingSuppressProcessor(STORE, HOUR_MS, 0), STORE)
+            .map((windowed, value) -> KeyValue.pair(windowed.key(), value))
+            .to("finals", Produced.with(Serdes.String(), Serdes.Long()));
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "suppress-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, 1024 * 1024);
+        driver = new TopologyTestDriver(builder.build(), props);
+        bursts = driver.createInputTopic("bursts", new StringSerializer(), new LongSerializer());
+        finals = driver.createOutputTopic("finals", new StringDeserializer(), new LongDeserializer());
+    }
+
+    @AfterEach
+    void close() {
+        driver.close();
+    }
+
+    @Test
+    void keepsOnlyTheLatestValuePerWindowUntilItCloses() {
+        bursts.pipeInput("a", 1L, HOUR.plusSeconds(1));
+        bursts.pipeInput("a", 1L, HOUR.plusSeconds(2));
+        bursts.pipeInput("b", 1L, HOUR.plusSeconds(3));
+        assertThat(finals.isEmpty()).isTrue();
+        assertThat(metric(SpillingSuppressProcessor.RECORDS_METRIC)).isEqualTo(2.0);
+
+        bursts.pipeInput("c", 1L, HOUR.plusMillis(HOUR_MS));
+
+        // FanOut numbers its updates, so "a-0" must carry the second one.
+        assertThat(finals.readKeyValuesToMap()).containsOnly(Map.entry("a-0", 2L), Map.entry("b-0", 3L));
+        assertThat(metric(SpillingSuppressProcessor.RECORDS_METRIC)).isEqualTo(1.0);
+    }
+
+    @Test
+    void heapStaysFlatWithAMillionDistinctKeys() {
+        pipeBursts(0, 10);
+        long warmHeap = usedHeapAfterGc();
+        pipeBursts(10, 100);
+        long fullHeap = usedHeapAfterGc();
+
+        assertThat(metric(SpillingSuppressProcessor.RECORDS_METRIC)).isEqualTo(1_000_000.0);
+        // Held on the heap, 900k more pending results would cost 100+ MB; spilled,
+        // the heap does not grow beyond the 1 MB record cache and some noise.
+        assertThat(fullHeap - warmHeap).isLessThan(24L * 1024 * 1024);
+
+        bursts.pipeInput("close", 1L, HOUR.plusMillis(HOUR_MS));
+        long emitted = 0;
+        while (!finals.isEmpty()) {
+            finals.readValue();
+            emitted++;
+        }
+        assertThat(emitted).isEqualTo(1_000_000);
+        assertThat(metric(SpillingSuppressProcessor.RECORDS_METRIC)).isEqualTo(1.0);
+    }
+
+    private void pipeBursts(int from, int to) {
+        for (int burst = from; burst < to; burst++) {
+            bursts.pipeInput("burst" + burst, BURST, HOUR.plusSeconds(burst));
+        }
+    }
+
+    private double metric(String name) {
+        return driver.metrics().entrySet().stream()
+            .filter(e -> e.getKey().name().equals(name))
+            .map(Map.Entry::getValue)
+            .map(Metric::metricValue)
+            .mapToDouble(value -> (Double) value)
+            .sum();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** Turns ("p", n) into n hourly updates for keys "p-0" .. "p-(n-1)", numbered in order. */
+    private static class FanOut implements Processor<String, Long, Windowed<String>, Long> {
+
+        private ProcessorContext<Windowed<String>, Long> context;
+        private long sequence;
+
+        @Override
+        public void init(ProcessorContext<Windowed<String>, Long> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void process(Record<String, Long> record) {
+            long windowStart = record.timestamp() - record.timestamp() % HOUR_MS;
+            FixedWindow window = new FixedWindow(windowStart, windowStart + HOUR_MS);
+            for (long i = 0; i < record.value(); i++) {
+                context.forward(new Record<>(new Windowed<>(record.key() + "-" + i, window), ++sequence, record.timestamp()));
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.kafka_streams.topology;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.state.WindowStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.kafka_streams.aggregate.HyperLogLog;
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+
+class DistinctCustomersTopologyTest {
+
+    private static final Instant DAY = Instant.parse("2025-06-01T00:00:00Z");
+    private static final Instant HOUR = DAY.plus(Duration.ofHours(10));
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(1);
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Order> orders;
+
+    @BeforeEach
+    void startDriver() {
+        StreamsBuilder builder = new StreamsBuilder();
+        new DistinctCustomersTopology(FLUSH_INTERVAL, Duration.ofMinutes(2), Duration.ofDays(2),
+            HyperLogLog.DEFAULT_PRECISION).build(builder,
+            builder.stream(HourlyTransactionTopology.ORDERS_TOPIC, Consumed.with(Serdes.String(), new OrderSerdes())));
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "distinct-customers-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), props, HOUR);
+
+        orders = driver.createInputTopic(HourlyTransactionTopology.ORDERS_TOPIC,
+            Serdes.String().serializer(), new OrderSerdes().serializer());
+    }
+
+    @AfterEach
+    void closeDriver() {
+        driver.close();
+    }
+
+    @Test
+    void countsEachCustomerOncePerHourAndPerDay() {
+        // 10:00 sees customers 0-299 twice each, 11:00 sees 200-399; 400 distinct over the day.
+        pipeCustomers(0, 300, HOUR);
+        flushPartials();
+        pipeCustomers(0, 300, HOUR.plusSeconds(600));
+        flushPartials();
+        pipeCustomers(200, 400, HOUR.plus(Duration.ofHours(1)));
+        flushPartials();
+
+        assertThat(estimate(DistinctCustomersTopology.HOURLY_STORE, "2025-06-01 10:00:00", HOUR)).isCloseTo(300, within(6.0));
+        assertThat(estimate(DistinctCustomersTopology.HOURLY_STORE, "2025-06-01 11:00:00",
+            HOUR.plus(Duration.ofHours(1)))).isCloseTo(200, within(4.0));
+        assertThat(estimate(DistinctCustomersTopology.DAILY_STORE, "2025-06-01", DAY)).isCloseTo(400, within(8.0));
+    }
+
+    private double estimate(String storeName, String key, Instant windowStart) {
+        WindowStore<String, HyperLogLog> store = driver.getWindowStore(storeName);
+        HyperLogLog sketch = store.fetch(key, windowStart.toEpochMilli());
+        assertThat(sketch).as("%s %s", storeName, key).isNotNull();
+        return sketch.estimate();
+    }
+
+    private void pipeCustomers(int from, int to, Instant timestamp) {
+        for (int i = from; i < to; i++) {
+            String orderId = "order-" + timestamp.toEpochMilli() + "-" + i;
+            orders.pipeInput(orderId, new Order(orderId, "customer-" + i, "product-1", 1, new BigDecimal("10.00"), null,
+                "PENDING"), timestamp.plusMillis(i));
+        }
+    }
+
+    private void flushPartials() {
+        driver.advanceWallClockTime(FLUSH_INTERVAL);
+    }
+}
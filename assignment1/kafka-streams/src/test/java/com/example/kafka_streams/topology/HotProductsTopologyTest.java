@@ -0,0 +1,140 @@
+package com.example.kafka_streams.topology;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+
+class HotProductsTopologyTest {
+
+    private static final String APPLICATION_ID = "hot-products-test";
+    private static final Instant HOUR = Instant.parse("2025-06-01T10:00:00Z");
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration GRACE = Duration.ofMinutes(2);
+    private static final int CAPACITY = 20;
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Order> orders;
+    private TestOutputTopic<String, String> hotProducts;
+
+    @BeforeEach
+    void startDriver() {
+        StreamsBuilder builder = new StreamsBuilder();
+        new HotProductsTopology(FLUSH_INTERVAL, GRACE, CAPACITY, 3).build(builder,
+            builder.stream(HourlyTransactionTopology.ORDERS_TOPIC, Consumed.with(Serdes.String(), new OrderSerdes())));
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, APPLICATION_ID);
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), props, HOUR);
+
+        orders = driver.createInputTopic(HourlyTransactionTopology.ORDERS_TOPIC,
+            Serdes.String().serializer(), new OrderSerdes().serializer());
+        hotProducts = driver.createOutputTopic(HotProductsTopology.HOT_PRODUCTS_TOPIC,
+            new StringDeserializer(), new StringDeserializer());
+    }
+
+    @AfterEach
+    void closeDriver() {
+        driver.close();
+    }
+
+    @Test
+    void emitsTheTopProductsOfTheHourWithTheirErrors() {
+        pipe("product-a", 5, HOUR.plusSeconds(1));
+        pipe("product-b", 3, HOUR.plusSeconds(2));
+        pipe("product-c", 2, HOUR.plusSeconds(3));
+        pipe("product-d", 1, HOUR.plusSeconds(4));
+        flushPartials();
+
+        assertThat(hotProducts.readKeyValuesToList()).singleElement().satisfies(result -> {
+            assertThat(result.key).isEqualTo("2025-06-01 10:00:00");
+            assertThat(result.value).isEqualTo("{\"hour_window\":\"2025-06-01 10:00:00\",\"order_count\":11,\"max_error\":0,"
+                + "\"products\":[{\"product_id\":\"product-a\",\"count\":5,\"error\":0},"
+                + "{\"product_id\":\"product-b\",\"count\":3,\"error\":0},"
+                + "{\"product_id\":\"product-c\",\"count\":2,\"error\":0}]}");
+        });
+    }
+
+    @Test
+    void keepsStateAndChangelogRecordsBoundedByCapacityAcrossTheCatalog() {
+        TestOutputTopic<byte[], byte[]> changelog = driver.createOutputTopic(
+            APPLICATION_ID + "-" + HotProductsTopology.SKETCH_STORE + "-changelog",
+            new ByteArrayDeserializer(), new ByteArrayDeserializer());
+
+        int smallCatalog = sketchedChangelogSize(changelog, 100, HOUR);
+        int largeCatalog = sketchedChangelogSize(changelog, 2_000, HOUR.plus(Duration.ofHours(1)));
+
+        assertThat(largeCatalog).isEqualTo(smallCatalog);
+        String hot = hotProducts.readValuesToList().get(1);
+        assertThat(hot).startsWith("{\"hour_window\":\"2025-06-01 11:00:00\",\"order_count\":2100,\"max_error\":105,"
+            + "\"products\":[{\"product_id\":\"product-hot\",\"count\":");
+    }
+
+    @Test
+    void ignoresPartialsOfClosedHours() {
+        pipe("product-a", 1, HOUR.plusSeconds(1));
+        flushPartials();
+        pipe("product-a", 1, HOUR.plus(Duration.ofHours(1)).plus(GRACE));
+        flushPartials();
+        hotProducts.readValuesToList();
+
+        pipe("product-late", 1, HOUR.plusSeconds(2));
+        flushPartials();
+
+        assertThat(hotProducts.isEmpty()).isTrue();
+    }
+
+    /**
+     * Sketches {@code catalog} distinct products plus one hot product in an hour
+     * and returns the size of the changelog record written for it.
+     */
+    private int sketchedChangelogSize(TestOutputTopic<byte[], byte[]> changelog, int catalog, Instant hour) {
+        for (int i = 0; i < catalog; i++) {
+            pipe(String.format("product-%05d", i), 1, hour.plusMillis(i));
+        }
+        pipe("product-hot", 100, hour.plusSeconds(30));
+        flushPartials();
+
+        List<byte[]> records = changelog.readValuesToList();
+        assertThat(records).isNotEmpty();
+        return records.get(records.size() - 1).length;
+    }
+
+    private void pipe(String productId, int count, Instant timestamp) {
+        for (int i = 0; i < count; i++) {
+            String orderId = productId + "-" + timestamp.toEpochMilli() + "-" + i;
+            orders.pipeInput(orderId, new Order(orderId, "customer-1", productId, 1, new BigDecimal("10.00"), null,
+                "PENDING"), timestamp);
+        }
+    }
+
+    private void flushPartials() {
+        driver.advanceWallClockTime(FLUSH_INTERVAL);
+    }
+}
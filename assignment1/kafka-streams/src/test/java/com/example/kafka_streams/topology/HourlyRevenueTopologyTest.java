@@ -0,0 +1,118 @@
+package com.example.kafka_streams.topology;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.state.WindowStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.model.RevenueAggregate;
+import com.example.kafka_streams.state.BoundedMemoryRocksDBConfig;
+
+class HourlyRevenueTopologyTest {
+
+    private static final Instant HOUR = Instant.parse("2025-06-01T10:00:00Z");
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Order> orders;
+    private TestOutputTopic<String, String> productRevenue;
+    private TestOutputTopic<String, String> customerRevenue;
+
+    @BeforeEach
+    void startDriver() {
+        StreamsBuilder builder = new StreamsBuilder();
+        new HourlyRevenueTopology(Duration.ofMinutes(2), Duration.ofDays(2)).build(
+            builder.stream(HourlyTransactionTopology.ORDERS_TOPIC,
+                Consumed.with(Serdes.String(), new OrderSerdes())));
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "hourly-revenue-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, 0);
+        props.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, BoundedMemoryRocksDBConfig.class);
+        props.put(BoundedMemoryRocksDBConfig.TOTAL_MEMORY_CONFIG, "8388608");
+        driver = new TopologyTestDriver(builder.build(), props, HOUR);
+
+        orders = driver.createInputTopic(HourlyTransactionTopology.ORDERS_TOPIC,
+            Serdes.String().serializer(), new OrderSerdes().serializer());
+        productRevenue = driver.createOutputTopic(HourlyRevenueTopology.PRODUCT_REVENUE_TOPIC,
+            new StringDeserializer(), new StringDeserializer());
+        customerRevenue = driver.createOutputTopic(HourlyRevenueTopology.CUSTOMER_REVENUE_TOPIC,
+            new StringDeserializer(), new StringDeserializer());
+    }
+
+    @AfterEach
+    void closeDriver() {
+        driver.close();
+    }
+
+    @Test
+    void aggregatesRevenueAndUnitsPerProductAndHour() {
+        pipe("order-1", "customer-1", "product-1", 2, "10.50", HOUR.plusSeconds(10));
+        pipe("order-2", "customer-2", "product-1", 1, "0.99", HOUR.plusSeconds(20));
+        pipe("order-3", "customer-1", "product-2", 5, "3.00", HOUR.plusSeconds(30));
+        pipe("order-4", "customer-1", "product-1", 1, "1.00", HOUR.plus(Duration.ofHours(1)));
+
+        Map<String, String> latest = productRevenue.readKeyValuesToMap();
+        assertThat(latest).containsOnly(
+            Map.entry("2025-06-01 10:00:00|product-1",
+                "{\"hour_window\":\"2025-06-01 10:00:00\",\"product_id\":\"product-1\",\"order_count\":2,\"units\":3,\"revenue\":21.99}"),
+            Map.entry("2025-06-01 10:00:00|product-2",
+                "{\"hour_window\":\"2025-06-01 10:00:00\",\"product_id\":\"product-2\",\"order_count\":1,\"units\":5,\"revenue\":15.00}"),
+            Map.entry("2025-06-01 11:00:00|product-1",
+                "{\"hour_window\":\"2025-06-01 11:00:00\",\"product_id\":\"product-1\",\"order_count\":1,\"units\":1,\"revenue\":1.00}"));
+
+        WindowStore<String, RevenueAggregate> store = driver.getWindowStore(HourlyRevenueTopology.PRODUCT_REVENUE_STORE);
+        assertThat(store.fetch("product-1", HOUR.toEpochMilli())).isEqualTo(new RevenueAggregate(2, 3, 21_990_000));
+        assertThat(BoundedMemoryRocksDBConfig.usage()).isPositive();
+    }
+
+    @Test
+    void aggregatesRevenuePerCustomerAndSkipsOrdersWithoutOne() {
+        pipe("order-1", "customer-1", "product-1", 2, "10.50", HOUR.plusSeconds(10));
+        pipe("order-2", "customer-1", "product-2", 1, "4.00", HOUR.plusSeconds(20));
+        pipe("order-3", null, "product-2", 1, "4.00", HOUR.plusSeconds(30));
+
+        assertThat(customerRevenue.readKeyValuesToMap()).containsOnly(
+            Map.entry("2025-06-01 10:00:00|customer-1",
+                "{\"hour_window\":\"2025-06-01 10:00:00\",\"customer_id\":\"customer-1\",\"order_count\":2,\"units\":3,\"revenue\":25.00}"));
+        WindowStore<String, RevenueAggregate> store = driver.getWindowStore(HourlyRevenueTopology.PRODUCT_REVENUE_STORE);
+        assertThat(store.fetch("product-2", HOUR.toEpochMilli())).isEqualTo(new RevenueAggregate(2, 2, 8_000_000));
+    }
+
+    @Test
+    void escapesIdsInTheResultJson() {
+        pipe("order-1", "customer \"1\"\\", "product-1", 1, "1.00", HOUR.plusSeconds(10));
+
+        assertThat(customerRevenue.readValue()).isEqualTo("{\"hour_window\":\"2025-06-01 10:00:00\","
+            + "\"customer_id\":\"customer \\\"1\\\"\\\\\",\"order_count\":1,\"units\":1,\"revenue\":1.00}");
+    }
+
+    private void pipe(String orderId, String customerId, String productId, int quantity, String price, Instant timestamp) {
+        orders.pipeInput(orderId, new Order(orderId, customerId, productId, quantity, new BigDecimal(price), null, "PENDING"),
+            timestamp);
+    }
+}
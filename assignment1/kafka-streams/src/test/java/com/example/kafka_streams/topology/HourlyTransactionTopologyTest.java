@@ -0,0 +1,357 @@
+package com.example.kafka_streams.topology;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Materialized.StoreType;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.apache.kafka.streams.state.WindowStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.example.kafka_streams.model.Order;
+import com.example.kafka_streams.model.OrderSerdes;
+import com.example.kafka_streams.suppress.SuppressionMode;
+
+class HourlyTransactionTopologyTest {
+
+    private static final Instant HOUR = Instant.parse("2025-06-01T10:00:00Z");
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration GRACE = Duration.ofMinutes(2);
+    private static final Duration EARLY_INTERVAL = Duration.ofSeconds(10);
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Order> orders;
+    private TestOutputTopic<String, String> hourly;
+    private TestOutputTopic<String, String> early;
+    private long cacheBytes = 1024 * 1024;
+
+    @AfterEach
+    void closeDriver() {
+        if (driver != null) {
+            driver.close();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SuppressionMode.class)
+    void emitsOneTotalPerHourOnceTheHourCloses(SuppressionMode mode) {
+        start(mode);
+
+        pipe("order-1", HOUR.plusSeconds(10));
+        pipe("order-1", HOUR.plusSeconds(20));
+        pipe("order-2", HOUR.plusSeconds(30));
+        flushPartials();
+        assertThat(hourly.isEmpty()).isTrue();
+
+        closeHourOf(HOUR);
+
+        assertThat(hourly.readKeyValuesToList()).containsExactly(KeyValue.pair("2025-06-01 10:00:00",
+            "{\"hour_window\":\"2025-06-01 10:00:00\",\"transaction_count\":3}"));
+    }
+
+    @Test
+    void mergesPartialsThatArriveWithinGrace() {
+        start(SuppressionMode.SPILL);
+
+        pipe("order-1", HOUR.plus(Duration.ofMinutes(30)));
+        flushPartials();
+        pipe("order-2", HOUR.plus(Duration.ofMinutes(61)));
+        flushPartials();
+        // Late for stream time, but within grace of the 10:00 window.
+        pipe("order-3", HOUR.plus(Duration.ofMinutes(59)));
+        flushPartials();
+
+        closeHourOf(HOUR);
+
+        assertThat(hourly.readValuesToList())
+            .containsExactly("{\"hour_window\":\"2025-06-01 10:00:00\",\"transaction_count\":2}");
+    }
+
+    @ParameterizedTest
+    @EnumSource(StoreType.class)
+    void rollsMinutePartialsUpIntoMinutesHoursAndDays(StoreType storeType) {
+        start(new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL, FLUSH_INTERVAL, GRACE,
+            Duration.ofDays(2)).withStoreType(storeType));
+        TestOutputTopic<String, String> minutes = driver.createOutputTopic(HourlyTransactionTopology.MINUTE_TOPIC,
+            new StringDeserializer(), new StringDeserializer());
+
+        pipe("order-1", HOUR.plusSeconds(10));
+        pipe("order-2", HOUR.plusSeconds(20));
+        pipe("order-3", HOUR.plusSeconds(70));
+        pipe("order-4", HOUR.plus(Duration.ofMinutes(90)));
+        flushPartials();
+
+        assertThat(count(HourlyTransactionTopology.MINUTE_STORE, "2025-06-01 10:00:00", HOUR)).isEqualTo(2);
+        assertThat(count(HourlyTransactionTopology.MINUTE_STORE, "2025-06-01 10:01:00", HOUR.plusSeconds(60))).isEqualTo(1);
+        assertThat(count(HourlyTransactionTopology.COUNT_STORE, "2025-06-01 10:00:00", HOUR)).isEqualTo(3);
+        assertThat(count(HourlyTransactionTopology.COUNT_STORE, "2025-06-01 11:00:00", HOUR.plus(Duration.ofHours(1))))
+            .isEqualTo(1);
+        assertThat(count(HourlyTransactionTopology.DAILY_STORE, "2025-06-01", Instant.parse("2025-06-01T00:00:00Z")))
+            .isEqualTo(4);
+        assertThat(minutes.readKeyValuesToMap()).containsEntry("2025-06-01 10:00:00",
+            "{\"minute_window\":\"2025-06-01 10:00:00\",\"transaction_count\":2}");
+        for (String store : List.of(HourlyTransactionTopology.PARTIAL_STORE, HourlyTransactionTopology.MINUTE_STORE,
+                HourlyTransactionTopology.COUNT_STORE, HourlyTransactionTopology.DAILY_STORE)) {
+            assertThat(driver.getAllStateStores().get(store).persistent()).isEqualTo(storeType == StoreType.ROCKS_DB);
+        }
+    }
+
+    @Test
+    void keepsEachLevelForItsOwnRetention() {
+        // Expired windows can still be served from the record cache; look at the stores themselves.
+        cacheBytes = 0;
+        start(new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL, FLUSH_INTERVAL, GRACE,
+            Duration.ofDays(2)).withRollupRetention(Duration.ofHours(1), Duration.ofDays(35)));
+
+        pipe("order-1", HOUR.plusSeconds(10));
+        flushPartials();
+        pipe("order-2", HOUR.plus(Duration.ofHours(3)));
+        flushPartials();
+
+        assertThat(count(HourlyTransactionTopology.MINUTE_STORE, "2025-06-01 10:00:00", HOUR)).isNull();
+        assertThat(count(HourlyTransactionTopology.COUNT_STORE, "2025-06-01 10:00:00", HOUR)).isEqualTo(1);
+        assertThat(count(HourlyTransactionTopology.DAILY_STORE, "2025-06-01", Instant.parse("2025-06-01T00:00:00Z")))
+            .isEqualTo(2);
+    }
+
+    @Test
+    void keepsOnePartialPerMinuteRegardlessOfOrderCount() {
+        start(SuppressionMode.SPILL);
+
+        for (int i = 0; i < 1_000; i++) {
+            pipe("order-" + i, HOUR.plusMillis(i));
+        }
+
+        assertThat(partialCounts()).containsOnly(Map.entry(HOUR.toEpochMilli(), 1_000L));
+        flushPartials();
+        assertThat(partialCounts()).isEmpty();
+    }
+
+    @Test
+    void reportsSuppressionBufferOccupancy() {
+        start(SuppressionMode.SPILL);
+
+        pipe("order-1", HOUR.plusSeconds(10));
+        flushPartials();
+        assertThat(bufferedRecords()).isEqualTo(1.0);
+
+        closeHourOf(HOUR);
+        assertThat(bufferedRecords()).isEqualTo(1.0);
+        assertThat(hourly.getQueueSize()).isEqualTo(1);
+    }
+
+    @Test
+    void emitsRunningCountsEarlyAndTheFinalCountOnce() {
+        startWithEarlyResults();
+
+        pipe("order-1", HOUR.plusSeconds(10));
+        pipe("order-2", HOUR.plusSeconds(20));
+        nextEarlyInterval();
+        assertThat(early.readValuesToList())
+            .containsExactly("{\"hour_window\":\"2025-06-01 10:00:00\",\"transaction_count\":2}");
+
+        nextEarlyInterval();
+        assertThat(early.isEmpty()).as("nothing changed, nothing re-emitted").isTrue();
+
+        pipe("order-3", HOUR.plusSeconds(30));
+        nextEarlyInterval();
+        assertThat(early.readValuesToList())
+            .containsExactly("{\"hour_window\":\"2025-06-01 10:00:00\",\"transaction_count\":3}");
+        assertThat(hourly.isEmpty()).isTrue();
+
+        closeHourOf(HOUR);
+        nextEarlyInterval();
+
+        assertThat(hourly.readValuesToList())
+            .containsExactly("{\"hour_window\":\"2025-06-01 10:00:00\",\"transaction_count\":3}");
+        assertThat(early.readKeyValuesToList()).extracting(kv -> kv.key)
+            .as("a closed hour gets no more early results").doesNotContain("2025-06-01 10:00:00");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 10, 100 })
+    void boundsEarlyResultsPerHourByTheIntervalNotTheInputRate(int ordersPerInterval) {
+        startWithEarlyResults();
+        int intervals = 12;
+
+        for (int interval = 0; interval < intervals; interval++) {
+            for (int i = 0; i < ordersPerInterval; i++) {
+                pipe("order-" + interval + "-" + i, HOUR.plus(EARLY_INTERVAL.multipliedBy(interval)).plusMillis(i));
+            }
+            nextEarlyInterval();
+        }
+
+        List<String> updates = early.readValuesToList();
+        assertThat(updates).hasSize(intervals);
+        assertThat(updates.get(intervals - 1)).isEqualTo(String.format(
+            "{\"hour_window\":\"2025-06-01 10:00:00\",\"transaction_count\":%d}", intervals * ordersPerInterval));
+    }
+
+    @Test
+    void closesAnHourWhoseSuccessorHashesToAnotherPartition() throws Exception {
+        int partitions = 3;
+        Instant hour = HOUR;
+        while (partition(hour, partitions) == partition(hour.plus(Duration.ofHours(1)), partitions)) {
+            hour = hour.plus(Duration.ofHours(1));
+        }
+        String hourKey = HourlyTransactionTopology.HOUR_FORMAT.format(hour);
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, partitions,
+            HourlyTransactionTopology.ORDERS_TOPIC, HourlyTransactionTopology.MINUTE_TOPIC,
+            HourlyTransactionTopology.HOURLY_TOPIC);
+        broker.afterPropertiesSet();
+        StreamsBuilder builder = new StreamsBuilder();
+        new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL, Duration.ofMillis(100), GRACE,
+            Duration.ofDays(2)).build(builder);
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "hourly-transaction-partitions-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 100);
+        props.put(StreamsConfig.consumerPrefix(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG), "earliest");
+
+        try (KafkaStreams streams = new KafkaStreams(builder.build(), props);
+             KafkaProducer<String, Order> producer = new KafkaProducer<>(Map.of(
+                 ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()),
+                 new StringSerializer(), new OrderSerdes().serializer());
+             KafkaConsumer<String, String> consumer = new KafkaConsumer<>(Map.of(
+                 ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                 ConsumerConfig.GROUP_ID_CONFIG, "hourly-results",
+                 ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"),
+                 new StringDeserializer(), new StringDeserializer())) {
+            streams.start();
+            // Nothing after the next hour: only its partial can close this one
+            producer.send(orderRecord("order-1", hour.plusSeconds(10))).get();
+            producer.send(orderRecord("order-2", hour.plus(Duration.ofHours(1)).plus(GRACE).plusSeconds(10))).get();
+
+            consumer.subscribe(List.of(HourlyTransactionTopology.HOURLY_TOPIC));
+            List<String> results = new ArrayList<>();
+            await().atMost(Duration.ofSeconds(60)).until(() -> {
+                consumer.poll(Duration.ofMillis(200)).forEach(record -> results.add(record.key()));
+                return results.contains(hourKey);
+            });
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static int partition(Instant hour, int partitions) {
+        byte[] key = Serdes.String().serializer().serialize(null, HourlyTransactionTopology.HOUR_FORMAT.format(hour));
+        return Utils.toPositive(Utils.murmur2(key)) % partitions;
+    }
+
+    private static ProducerRecord<String, Order> orderRecord(String orderId, Instant timestamp) {
+        return new ProducerRecord<>(HourlyTransactionTopology.ORDERS_TOPIC, 0, timestamp.toEpochMilli(), orderId,
+            new Order(orderId, "customer-1", "product-1", 1, new BigDecimal("10.00"), null, "PENDING"));
+    }
+
+    private void start(SuppressionMode mode) {
+        start(new HourlyTransactionTopology(new OrderSerdes(), mode, FLUSH_INTERVAL, GRACE, Duration.ofDays(2)));
+    }
+
+    private void startWithEarlyResults() {
+        start(new HourlyTransactionTopology(new OrderSerdes(), SuppressionMode.SPILL, FLUSH_INTERVAL, GRACE,
+            Duration.ofDays(2)).withEarlyResults(EARLY_INTERVAL));
+    }
+
+    private void start(HourlyTransactionTopology topology) {
+        StreamsBuilder builder = new StreamsBuilder();
+        topology.build(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "hourly-transaction-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, cacheBytes);
+        driver = new TopologyTestDriver(builder.build(), props, HOUR);
+
+        orders = driver.createInputTopic(HourlyTransactionTopology.ORDERS_TOPIC,
+            Serdes.String().serializer(), new OrderSerdes().serializer());
+        hourly = driver.createOutputTopic(HourlyTransactionTopology.HOURLY_TOPIC,
+            new StringDeserializer(), new StringDeserializer());
+        early = driver.createOutputTopic(HourlyTransactionTopology.EARLY_TOPIC,
+            new StringDeserializer(), new StringDeserializer());
+    }
+
+    private void pipe(String orderId, Instant timestamp) {
+        orders.pipeInput(orderId, new Order(orderId, "customer-1", "product-1", 1, new BigDecimal("10.00"), null, "PENDING"),
+            timestamp);
+    }
+
+    private void flushPartials() {
+        driver.advanceWallClockTime(FLUSH_INTERVAL);
+    }
+
+    /** Flushes the partials, then lets the rest of the early-result interval pass. */
+    private void nextEarlyInterval() {
+        flushPartials();
+        driver.advanceWallClockTime(EARLY_INTERVAL.minus(FLUSH_INTERVAL));
+    }
+
+    /** Moves stream time past the end of the hour plus grace. */
+    private void closeHourOf(Instant hour) {
+        pipe("closing-order", hour.plus(Duration.ofHours(1)).plus(GRACE));
+        flushPartials();
+    }
+
+    private Long count(String storeName, String key, Instant windowStart) {
+        WindowStore<String, Long> store = driver.getWindowStore(storeName);
+        return store.fetch(key, windowStart.toEpochMilli());
+    }
+
+    private Map<Long, Long> partialCounts() {
+        KeyValueStore<Long, ValueAndTimestamp<Long>> store =
+            driver.getTimestampedKeyValueStore(HourlyTransactionTopology.PARTIAL_STORE);
+        Map<Long, Long> counts = new HashMap<>();
+        try (KeyValueIterator<Long, ValueAndTimestamp<Long>> all = store.all()) {
+            all.forEachRemaining(kv -> counts.put(kv.key, kv.value.value()));
+        }
+        return counts;
+    }
+
+    private double bufferedRecords() {
+        return driver.metrics().entrySet().stream()
+            .filter(e -> e.getKey().name().equals("suppression-buffer-records"))
+            .map(Map.Entry::getValue)
+            .map(Metric::metricValue)
+            .mapToDouble(value -> (Double) value)
+            .sum();
+    }
+}
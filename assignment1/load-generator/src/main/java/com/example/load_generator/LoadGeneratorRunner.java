@@ -0,0 +1,52 @@
+package com.example.load_generator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import com.example.load_generator.config.LoadProfile;
+import com.example.load_generator.driver.HttpOrderDriver;
+import com.example.load_generator.driver.KafkaOrderDriver;
+import com.example.load_generator.driver.OrderDriver;
+import com.example.load_generator.embedded.EmbeddedStack;
+import com.example.load_generator.generator.OrderFactory;
+import com.example.load_generator.runner.LoadReport;
+import com.example.load_generator.runner.LoadRunner;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs one load profile on startup and exits non-zero if any request failed.
+ */
+@Component
+@Slf4j
+public class LoadGeneratorRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    @Autowired
+    private LoadProfile profile;
+
+    private LoadReport report;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        try (EmbeddedStack stack = profile.isEmbedded() ? EmbeddedStack.start(profile) : null) {
+            boolean http = profile.getTarget() == LoadProfile.Target.HTTP;
+            try (OrderDriver driver = http ? new HttpOrderDriver(profile) : new KafkaOrderDriver(profile)) {
+                // Over HTTP the producer assigns order ids; straight to Kafka nobody else will.
+                report = new LoadRunner(profile, new OrderFactory(profile, !http), driver).run();
+            }
+        }
+        log.info("Load run finished\n{}", report.format());
+    }
+
+    public LoadReport getReport() {
+        return report;
+    }
+
+    @Override
+    public int getExitCode() {
+        return report == null || report.getFailed() > 0 ? 1 : 0;
+    }
+}
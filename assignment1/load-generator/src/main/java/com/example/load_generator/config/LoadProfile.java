@@ -0,0 +1,108 @@
+package com.example.load_generator.config;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.order_codec.OrderWireFormat;
+
+import lombok.Data;
+
+/**
+ * Shape of one load run, bound from {@code load.*} properties so every knob can
+ * be overridden on the command line, e.g. {@code --load.rate=5000}.
+ */
+@Component
+@Data
+public class LoadProfile {
+
+    public enum Target { HTTP, KAFKA }
+
+    public enum Payload { SINGLE, BATCH }
+
+    public enum Ack { NONE, WAIT, ASYNC }
+
+    @Value("${load.target:http}")
+    private Target target;
+
+    /** Orders per second; 0 runs closed-loop, as fast as {@link #concurrency} allows. */
+    @Value("${load.rate:1000}")
+    private int rate;
+
+    /** Upper bound on requests that have been sent and not yet answered. */
+    @Value("${load.concurrency:64}")
+    private int concurrency;
+
+    @Value("${load.duration:60s}")
+    private Duration duration;
+
+    @Value("${load.warmup:10s}")
+    private Duration warmup;
+
+    @Value("${load.report-interval:1s}")
+    private Duration reportInterval;
+
+    @Value("${load.customers:10000}")
+    private int customers;
+
+    @Value("${load.products:1000}")
+    private int products;
+
+    /** Zipf exponent for picking customers; 0 is uniform, around 1 is typical web traffic. */
+    @Value("${load.customer-skew:1.0}")
+    private double customerSkew;
+
+    @Value("${load.product-skew:1.0}")
+    private double productSkew;
+
+    @Value("${load.max-quantity:5}")
+    private int maxQuantity;
+
+    @Value("${load.min-price:1.00}")
+    private BigDecimal minPrice;
+
+    @Value("${load.max-price:500.00}")
+    private BigDecimal maxPrice;
+
+    @Value("${load.payload:single}")
+    private Payload payload;
+
+    /** Orders per request when {@code load.payload=batch}. */
+    @Value("${load.batch-size:100}")
+    private int batchSize;
+
+    @Value("${load.http.url:http://localhost:8081}")
+    private String httpUrl;
+
+    @Value("${load.http.ack:none}")
+    private Ack httpAck;
+
+    @Value("${load.kafka.bootstrap-servers:localhost:9092}")
+    private String kafkaBootstrapServers;
+
+    @Value("${load.kafka.topic:orders-topic}")
+    private String kafkaTopic;
+
+    /** Wire format of the produced orders, as {@code order.codec.format} in order-producer. */
+    @Value("${load.kafka.format:json}")
+    private OrderWireFormat kafkaFormat;
+
+    /** Starts a single-node KRaft broker, and for the HTTP target an order-producer process. */
+    @Value("${load.embedded.enabled:false}")
+    private boolean embedded;
+
+    @Value("${load.embedded.partitions:3}")
+    private int embeddedPartitions;
+
+    @Value("${load.embedded.producer-jar:order-producer/target/order-producer-0.0.1-SNAPSHOT.jar}")
+    private String embeddedProducerJar;
+
+    @Value("${load.embedded.producer-port:18081}")
+    private int embeddedProducerPort;
+
+    public int ordersPerRequest() {
+        return payload == Payload.BATCH ? batchSize : 1;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.load_generator.driver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.load_generator.config.LoadProfile;
+import com.example.load_generator.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Posts orders to order-producer: single orders to {@code /api/orders}, batches
+ * as NDJSON to {@code /api/orders/batch}. {@code load.http.ack} selects the
+ * acknowledgement mode of the endpoint.
+ */
+@Slf4j
+public class HttpOrderDriver implements OrderDriver {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI singleUri;
+    private final URI batchUri;
+
+    public HttpOrderDriver(LoadProfile profile) {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        String baseUrl = profile.getHttpUrl().replaceAll("/+$", "");
+        String singleQuery = switch (profile.getHttpAck()) {
+            case NONE -> "";
+            case WAIT -> "?ack=wait";
+            case ASYNC -> "?ack=async";
+        };
+        // The batch endpoint only knows ack=wait.
+        String batchQuery = profile.getHttpAck() == LoadProfile.Ack.WAIT ? "?ack=wait" : "";
+        this.singleUri = URI.create(baseUrl + "/api/orders" + singleQuery);
+        this.batchUri = URI.create(baseUrl + "/api/orders/batch" + batchQuery);
+    }
+
+    @Override
+    public CompletableFuture<SendOutcome> send(List<Order> orders) {
+        HttpRequest request;
+        try {
+            request = orders.size() == 1
+                ? HttpRequest.newBuilder(singleUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(orders.get(0))))
+                    .build()
+                : HttpRequest.newBuilder(batchUri)
+                    .header("Content-Type", NDJSON)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(ndjson(orders)))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .handle((response, ex) -> {
+                if (ex != null) {
+                    log.debug("Request to {} failed: {}", request.uri(), ex.getMessage());
+                    return SendOutcome.FAILED;
+                }
+                int status = response.statusCode();
+                if (status == 429) {
+                    return SendOutcome.REJECTED;
+                }
+                return status >= 200 && status < 300 ? SendOutcome.ACCEPTED : SendOutcome.FAILED;
+            });
+    }
+
+    private byte[] ndjson(List<Order> orders) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(orders.size() * 192);
+        for (Order order : orders) {
+            body.write(objectMapper.writeValueAsBytes(order));
+            body.write('\n');
+        }
+        return body.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.load_generator.driver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.example.load_generator.config.LoadProfile;
+import com.example.load_generator.model.Order;
+import com.example.load_generator.model.OrderCodecAdapter;
+import com.example.order_codec.BinaryOrderCodec;
+import com.example.order_codec.OrderSerializer;
+
+/**
+ * Produces orders straight to the orders topic with the same codec and batching
+ * settings as order-producer, leaving out HTTP and the controller. A request
+ * is answered once the broker has acknowledged every order in it.
+ */
+public class KafkaOrderDriver implements OrderDriver {
+
+    private final KafkaProducer<String, Order> producer;
+    private final String topic;
+
+    public KafkaOrderDriver(LoadProfile profile) {
+        this.topic = profile.getKafkaTopic();
+        this.producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, profile.getKafkaBootstrapServers(),
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.BATCH_SIZE_CONFIG, 65536,
+                ProducerConfig.LINGER_MS_CONFIG, 5),
+            new StringSerializer(),
+            new OrderSerializer<>(new BinaryOrderCodec<>(OrderCodecAdapter.INSTANCE), new JsonSerializer<>(),
+                profile.getKafkaFormat()));
+    }
+
+    @Override
+    public CompletableFuture<SendOutcome> send(List<Order> orders) {
+        CompletableFuture<?>[] acks = new CompletableFuture<?>[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            CompletableFuture<Void> ack = new CompletableFuture<>();
+            try {
+                producer.send(new ProducerRecord<>(topic, order.getOrderId(), order), (metadata, ex) -> {
+                    if (ex != null) {
+                        ack.completeExceptionally(ex);
+                    } else {
+                        ack.complete(null);
+                    }
+                });
+            } catch (RuntimeException e) {
+                ack.completeExceptionally(e);
+            }
+            acks[i] = ack;
+        }
+        return CompletableFuture.allOf(acks).handle((done, ex) -> ex == null ? SendOutcome.ACCEPTED : SendOutcome.FAILED);
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.load_generator.driver;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.load_generator.model.Order;
+
+/**
+ * Sends one request worth of orders to the system under test. Implementations
+ * must not block the caller; the future completes, never exceptionally, once
+ * the target has answered.
+ */
+public interface OrderDriver extends AutoCloseable {
+
+    CompletableFuture<SendOutcome> send(List<Order> orders);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,10 @@
+package com.example.load_generator.driver;
+
+public enum SendOutcome {
+    /** Accepted by the target (2xx, or acknowledged by the broker). */
+    ACCEPTED,
+    /** Shed by the target's admission control (429). */
+    REJECTED,
+    /** Any other response or a transport error. */
+    FAILED
+}
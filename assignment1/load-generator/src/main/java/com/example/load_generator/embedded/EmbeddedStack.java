@@ -0,0 +1,121 @@
+package com.example.load_generator.embedded;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.example.load_generator.config.LoadProfile;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Everything a load run needs when the docker-compose stack is not up: a
+ * single-node KRaft broker with the orders topic and, for the HTTP target, the
+ * order-producer jar started in its own JVM against that broker. The profile is
+ * pointed at both.
+ */
+@Slf4j
+public class EmbeddedStack implements AutoCloseable {
+
+    private static final Duration PRODUCER_STARTUP_TIMEOUT = Duration.ofSeconds(90);
+
+    private final EmbeddedKafkaKraftBroker broker;
+    private Process producer;
+
+    private EmbeddedStack(EmbeddedKafkaKraftBroker broker) {
+        this.broker = broker;
+    }
+
+    public static EmbeddedStack start(LoadProfile profile) throws IOException, InterruptedException {
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, profile.getEmbeddedPartitions(),
+            profile.getKafkaTopic());
+        broker.afterPropertiesSet();
+        profile.setKafkaBootstrapServers(broker.getBrokersAsString());
+        log.info("Embedded Kafka broker listening on {}", broker.getBrokersAsString());
+
+        EmbeddedStack stack = new EmbeddedStack(broker);
+        if (profile.getTarget() == LoadProfile.Target.HTTP) {
+            try {
+                stack.startProducer(profile);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                stack.close();
+                throw e;
+            }
+        }
+        return stack;
+    }
+
+    private void startProducer(LoadProfile profile) throws IOException, InterruptedException {
+        Path jar = Path.of(profile.getEmbeddedProducerJar());
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("order-producer jar not found at " + jar.toAbsolutePath()
+                + "; build it with: mvn -pl order-producer -am package spring-boot:repackage -DskipTests");
+        }
+        Path logFile = Files.createTempFile("order-producer-", ".log");
+        Path spoolDir = Files.createTempDirectory("order-producer-spool-");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        producer = new ProcessBuilder(java, "-jar", jar.toString(),
+                "--spring.kafka.bootstrap-servers=" + profile.getKafkaBootstrapServers(),
+                "--server.port=" + profile.getEmbeddedProducerPort(),
+                "--order.producer.spool.dir=" + spoolDir)
+            .redirectErrorStream(true)
+            .redirectOutput(logFile.toFile())
+            .start();
+        log.info("Started order-producer (pid {}), logging to {}", producer.pid(), logFile);
+
+        String baseUrl = "http://localhost:" + profile.getEmbeddedProducerPort();
+        awaitHealthy(baseUrl, logFile);
+        profile.setHttpUrl(baseUrl);
+    }
+
+    private void awaitHealthy(String baseUrl, Path logFile) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+            .timeout(Duration.ofSeconds(2))
+            .build();
+        long deadline = System.nanoTime() + PRODUCER_STARTUP_TIMEOUT.toNanos();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            while (System.nanoTime() < deadline) {
+                if (!producer.isAlive()) {
+                    throw new IllegalStateException("order-producer exited with " + producer.exitValue()
+                        + " during startup, see " + logFile);
+                }
+                try {
+                    if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        log.info("order-producer is up at {}", baseUrl);
+                        return;
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("order-producer did not become healthy within "
+            + PRODUCER_STARTUP_TIMEOUT + ", see " + logFile);
+    }
+
+    @Override
+    public void close() {
+        if (producer != null) {
+            producer.destroy();
+            try {
+                if (!producer.waitFor(10, TimeUnit.SECONDS)) {
+                    producer.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                producer.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        broker.destroy();
+    }
+}
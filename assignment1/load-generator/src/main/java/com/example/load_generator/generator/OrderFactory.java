@@ -0,0 +1,76 @@
+package com.example.load_generator.generator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.load_generator.config.LoadProfile;
+import com.example.load_generator.model.Order;
+
+/**
+ * Builds orders for a {@link LoadProfile}. Customers and products are drawn from
+ * Zipf distributions so hot keys look like real traffic; each product has a
+ * fixed price. Ids and prices are precomputed so generating an order costs a few
+ * random draws and no formatting.
+ */
+public class OrderFactory {
+
+    private final ZipfSampler customers;
+    private final ZipfSampler products;
+    private final String[] customerIds;
+    private final String[] productIds;
+    private final BigDecimal[] prices;
+    private final int maxQuantity;
+    private final boolean assignOrderIds;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param assignOrderIds whether orders carry an id; over HTTP the producer
+     *                       assigns ids itself, straight to Kafka nobody else will
+     */
+    public OrderFactory(LoadProfile profile, boolean assignOrderIds) {
+        this.customers = new ZipfSampler(profile.getCustomers(), profile.getCustomerSkew());
+        this.products = new ZipfSampler(profile.getProducts(), profile.getProductSkew());
+        this.maxQuantity = profile.getMaxQuantity();
+        this.assignOrderIds = assignOrderIds;
+
+        customerIds = new String[profile.getCustomers()];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = "customer-" + i;
+        }
+        productIds = new String[profile.getProducts()];
+        prices = new BigDecimal[profile.getProducts()];
+        BigDecimal span = profile.getMaxPrice().subtract(profile.getMinPrice());
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = "product-" + i;
+            BigDecimal fraction = BigDecimal.valueOf(ThreadLocalRandom.current().nextDouble());
+            prices[i] = profile.getMinPrice().add(span.multiply(fraction)).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    public Order next() {
+        int product = products.sample();
+        return new Order(
+            assignOrderIds ? "lg-" + runId + "-" + sequence.incrementAndGet() : null,
+            customerIds[customers.sample()],
+            productIds[product],
+            1 + ThreadLocalRandom.current().nextInt(maxQuantity),
+            prices[product],
+            LocalDateTime.now(),
+            "PENDING"
+        );
+    }
+
+    public List<Order> next(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(next());
+        }
+        return orders;
+    }
+}
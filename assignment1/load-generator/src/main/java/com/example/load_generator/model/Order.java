@@ -0,0 +1,21 @@
+package com.example.load_generator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Order {
+    private String orderId;
+    private String customerId;
+    private String productId;
+    private Integer quantity;
+    private BigDecimal price;
+    private LocalDateTime orderTime;
+    private String status;
+}
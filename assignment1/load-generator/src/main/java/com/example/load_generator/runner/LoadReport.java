@@ -0,0 +1,51 @@
+package com.example.load_generator.runner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+import lombok.Data;
+
+/**
+ * Outcome of a load run after warmup. Latencies are in nanoseconds, measured from
+ * the time each request was scheduled to be sent, not from when it actually went
+ * out, so a stalled target also shows up in the percentiles of requests that
+ * queued behind it.
+ */
+@Data
+public class LoadReport {
+
+    private final long elapsedNanos;
+    private final int ordersPerRequest;
+    private final long accepted;
+    private final long rejected;
+    private final long failed;
+    private final Histogram latency;
+
+    public long getRequests() {
+        return accepted + rejected + failed;
+    }
+
+    public double requestsPerSecond() {
+        return getRequests() * 1e9 / elapsedNanos;
+    }
+
+    /** Accepted orders per second. */
+    public double ordersPerSecond() {
+        return accepted * ordersPerRequest * 1e9 / elapsedNanos;
+    }
+
+    public String format() {
+        return String.format(
+            "%d requests in %.1fs: %.0f orders/s accepted, %.0f requests/s, %d rejected, %d failed%n"
+                + "latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+            getRequests(), elapsedNanos / 1e9, ordersPerSecond(), requestsPerSecond(), rejected, failed,
+            millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+            millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+            millis(latency.getMaxValue()));
+    }
+
+    static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
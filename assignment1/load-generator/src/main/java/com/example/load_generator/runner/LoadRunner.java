@@ -0,0 +1,148 @@
+package com.example.load_generator.runner;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.example.load_generator.config.LoadProfile;
+import com.example.load_generator.driver.OrderDriver;
+import com.example.load_generator.driver.SendOutcome;
+import com.example.load_generator.generator.OrderFactory;
+import com.example.load_generator.model.Order;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drives an {@link OrderDriver} for the duration of a {@link LoadProfile}.
+ *
+ * <p>With a positive {@code load.rate} the run is open-loop: request {@code n} is
+ * due at {@code start + n * interval} whether or not earlier ones have been
+ * answered, and its latency is counted from that due time. When the target falls
+ * behind and all {@code load.concurrency} permits are taken, the backlog is sent
+ * as soon as permits free up and the wait is charged to those requests, which
+ * avoids coordinated omission. With {@code load.rate=0} the run is closed-loop
+ * and each request is timed from when it was sent.
+ */
+@Slf4j
+public class LoadRunner {
+
+    private static final long DRAIN_TIMEOUT_SECONDS = 30;
+
+    private final LoadProfile profile;
+    private final OrderFactory orderFactory;
+    private final OrderDriver driver;
+
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public LoadRunner(LoadProfile profile, OrderFactory orderFactory, OrderDriver driver) {
+        this.profile = profile;
+        this.orderFactory = orderFactory;
+        this.driver = driver;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        int ordersPerRequest = profile.ordersPerRequest();
+        long intervalNanos = profile.getRate() > 0 ? 1_000_000_000L * ordersPerRequest / profile.getRate() : 0;
+        long reportNanos = profile.getReportInterval().toNanos();
+        Semaphore permits = new Semaphore(profile.getConcurrency());
+
+        long start = System.nanoTime();
+        long measureStart = start + profile.getWarmup().toNanos();
+        long end = measureStart + profile.getDuration().toNanos();
+        boolean measuring = measureStart == start;
+        long nextDue = start;
+        long nextReport = start + reportNanos;
+
+        Histogram total = new Histogram(3);
+        Histogram interval = null;
+        long intervalStart = start;
+
+        log.info("Running {} load: rate={} orders/s, concurrency={}, {} orders/request, warmup={}, duration={}",
+            profile.getTarget(), profile.getRate(), profile.getConcurrency(), ordersPerRequest,
+            profile.getWarmup(), profile.getDuration());
+
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= end) {
+                break;
+            }
+            if (!measuring && now >= measureStart) {
+                interval = recorder.getIntervalHistogram(interval);
+                resetCounters();
+                measuring = true;
+                intervalStart = now;
+                nextReport = now + reportNanos;
+                log.info("Warmup done");
+            }
+            if (now >= nextReport) {
+                interval = recorder.getIntervalHistogram(interval);
+                if (measuring) {
+                    total.add(interval);
+                }
+                logInterval(interval, now - intervalStart, ordersPerRequest, measuring);
+                intervalStart = now;
+                nextReport += reportNanos;
+                continue;
+            }
+
+            if (intervalNanos > 0 && now < nextDue) {
+                LockSupport.parkNanos(Math.min(nextDue, nextReport) - now);
+                continue;
+            }
+            if (!permits.tryAcquire(nextReport - now, TimeUnit.NANOSECONDS)) {
+                continue;
+            }
+
+            long due = intervalNanos > 0 ? nextDue : System.nanoTime();
+            nextDue += intervalNanos;
+            send(orderFactory.next(ordersPerRequest), due, permits);
+        }
+
+        if (!permits.tryAcquire(profile.getConcurrency(), DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("{} requests still unanswered after {}s", profile.getConcurrency() - permits.availablePermits(),
+                DRAIN_TIMEOUT_SECONDS);
+        }
+        long elapsed = System.nanoTime() - measureStart;
+        total.add(recorder.getIntervalHistogram(interval));
+        return new LoadReport(elapsed, ordersPerRequest, accepted.sum(), rejected.sum(), failed.sum(), total);
+    }
+
+    private void send(List<Order> orders, long due, Semaphore permits) {
+        driver.send(orders).whenComplete((outcome, ex) -> {
+            recorder.recordValue(Math.max(0, System.nanoTime() - due));
+            switch (ex != null ? SendOutcome.FAILED : outcome) {
+                case ACCEPTED -> accepted.increment();
+                case REJECTED -> rejected.increment();
+                case FAILED -> failed.increment();
+            }
+            permits.release();
+        });
+    }
+
+    private void resetCounters() {
+        accepted.reset();
+        rejected.reset();
+        failed.reset();
+    }
+
+    private void logInterval(Histogram interval, long elapsedNanos, int ordersPerRequest, boolean measuring) {
+        double seconds = elapsedNanos / 1e9;
+        log.info("{}{} req/s ({} orders/s)  p50={}ms p99={}ms p99.9={}ms max={}ms  accepted={} rejected={} failed={}",
+            measuring ? "" : "[warmup] ",
+            Math.round(interval.getTotalCount() / seconds),
+            Math.round(interval.getTotalCount() * ordersPerRequest / seconds),
+            String.format("%.2f", LoadReport.millis(interval.getValueAtPercentile(50))),
+            String.format("%.2f", LoadReport.millis(interval.getValueAtPercentile(99))),
+            String.format("%.2f", LoadReport.millis(interval.getValueAtPercentile(99.9))),
+            String.format("%.2f", LoadReport.millis(interval.getMaxValue())),
+            accepted.sum(), rejected.sum(), failed.sum());
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.load_generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.load_generator.runner.LoadReport;
+
+@SpringBootTest(properties = {
+	"load.target=kafka",
+	"load.embedded.enabled=true",
+	"load.rate=200",
+	"load.warmup=0s",
+	"load.duration=2s"
+})
+class LoadGeneratorApplicationTests {
+
+	@Autowired
+	private LoadGeneratorRunner runner;
+
+	@Test
+	void runsAgainstEmbeddedKafka() {
+		LoadReport report = runner.getReport();
+
+		assertThat(report.getAccepted()).isGreaterThan(300);
+		assertThat(report.getFailed()).isZero();
+		assertThat(runner.getExitCode()).isZero();
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.example.load_generator.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class ZipfSamplerTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    void zeroExponentIsUniform() {
+        ZipfSampler sampler = new ZipfSampler(10, 0);
+        int[] counts = sample(sampler, 10);
+
+        for (int count : counts) {
+            assertThat(count / (double) SAMPLES).isCloseTo(0.1, within(0.01));
+        }
+    }
+
+    @Test
+    void hotRanksFollowTheZipfWeights() {
+        ZipfSampler sampler = new ZipfSampler(1000, 1.0);
+        int[] counts = sample(sampler, 1000);
+
+        // H(1000) ~ 7.485, so rank 0 gets ~13.4% and rank 1 half of that.
+        assertThat(sampler.probability(0)).isCloseTo(1 / 7.485, within(0.001));
+        assertThat(counts[0] / (double) SAMPLES).isCloseTo(sampler.probability(0), within(0.01));
+        assertThat(counts[1] / (double) SAMPLES).isCloseTo(sampler.probability(0) / 2, within(0.01));
+    }
+
+    private static int[] sample(ZipfSampler sampler, int n) {
+        int[] counts = new int[n];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[sampler.sample()]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.load_generator.runner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.load_generator.config.LoadProfile;
+import com.example.load_generator.driver.OrderDriver;
+import com.example.load_generator.driver.SendOutcome;
+import com.example.load_generator.generator.OrderFactory;
+import com.example.load_generator.model.Order;
+
+class LoadRunnerTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void holdsTheConfiguredRate() throws InterruptedException {
+        LoadProfile profile = profile(2000, 64);
+        LoadReport report = new LoadRunner(profile, new OrderFactory(profile, true), delayed(2, null)).run();
+
+        assertThat(report.getAccepted()).isBetween(1800L, 2200L);
+        assertThat(report.getFailed()).isZero();
+        assertThat(report.getLatency().getValueAtPercentile(50)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(2));
+    }
+
+    @Test
+    void chargesQueueingBehindAStallToTheQueuedRequests() throws InterruptedException {
+        LoadProfile profile = profile(1000, 4);
+        AtomicBoolean stalled = new AtomicBoolean();
+        LoadReport report = new LoadRunner(profile, new OrderFactory(profile, true), delayed(1, stalled)).run();
+
+        // Only 4 requests can be in flight during the 300ms stall, but the ~300
+        // that were due meanwhile are timed from their due time.
+        assertThat(report.getLatency().getMaxValue()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+        assertThat(report.getLatency().getValueAtPercentile(90)).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void countsRejectedRequests() throws InterruptedException {
+        LoadProfile profile = profile(500, 8);
+        OrderDriver rejecting = driver(orders -> CompletableFuture.completedFuture(SendOutcome.REJECTED));
+        LoadReport report = new LoadRunner(profile, new OrderFactory(profile, true), rejecting).run();
+
+        assertThat(report.getRejected()).isPositive();
+        assertThat(report.getAccepted()).isZero();
+    }
+
+    /**
+     * Answers every request after {@code millis}; when {@code stall} is given the
+     * target stops answering for 300ms once the 200th request arrives.
+     */
+    private OrderDriver delayed(long millis, AtomicBoolean stall) {
+        int[] sent = { 0 };
+        long[] stalledUntil = { 0 };
+        return driver(orders -> {
+            CompletableFuture<SendOutcome> answer = new CompletableFuture<>();
+            long now = System.nanoTime();
+            if (stall != null && ++sent[0] == 200 && stall.compareAndSet(false, true)) {
+                stalledUntil[0] = now + TimeUnit.MILLISECONDS.toNanos(300);
+            }
+            long delay = Math.max(TimeUnit.MILLISECONDS.toNanos(millis), stalledUntil[0] - now);
+            scheduler.schedule(() -> answer.complete(SendOutcome.ACCEPTED), delay, TimeUnit.NANOSECONDS);
+            return answer;
+        });
+    }
+
+    private static OrderDriver driver(java.util.function.Function<List<Order>, CompletableFuture<SendOutcome>> send) {
+        return new OrderDriver() {
+            @Override
+            public CompletableFuture<SendOutcome> send(List<Order> orders) {
+                return send.apply(orders);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static LoadProfile profile(int rate, int concurrency) {
+        LoadProfile profile = new LoadProfile();
+        profile.setTarget(LoadProfile.Target.KAFKA);
+        profile.setRate(rate);
+        profile.setConcurrency(concurrency);
+        profile.setWarmup(Duration.ZERO);
+        profile.setDuration(Duration.ofSeconds(1));
+        profile.setReportInterval(Duration.ofMillis(500));
+        profile.setPayload(LoadProfile.Payload.SINGLE);
+        profile.setCustomers(100);
+        profile.setProducts(10);
+        profile.setCustomerSkew(1.0);
+        profile.setProductSkew(1.0);
+        profile.setMaxQuantity(3);
+        profile.setMinPrice(BigDecimal.ONE);
+        profile.setMaxPrice(BigDecimal.TEN);
+        return profile;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.order_codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Versioned binary encoding of an order.
+ *
+ * <pre>
+ * magic    1 byte   0xC0, never the first byte of a JSON document
+ * version  1 byte
+ * flags    1 byte   bit i set when field i is present, bit 7 for a wide price
+ * orderId, customerId, productId   varint length + UTF-8
+ * quantity           zigzag varint
+ * price              zigzag varint scale + zigzag varlong unscaled value
+ *                    (wide price: varint length + two's-complement bytes)
+ * orderTime          zigzag varlong microseconds since the epoch, UTC
+ * status             varint length + UTF-8
+ * </pre>
+ *
+ * Absent fields take no space. {@code orderTime} is truncated to microseconds.
+ */
+public class BinaryOrderCodec<T> {
+
+    public static final byte MAGIC = (byte) 0xC0;
+    public static final byte VERSION = 1;
+
+    private static final int ORDER_ID = 0;
+    private static final int CUSTOMER_ID = 1;
+    private static final int PRODUCT_ID = 2;
+    private static final int QUANTITY = 3;
+    private static final int PRICE = 4;
+    private static final int ORDER_TIME = 5;
+    private static final int STATUS = 6;
+    private static final int WIDE_PRICE = 7;
+
+    private final OrderAdapter<T> adapter;
+
+    public BinaryOrderCodec(OrderAdapter<T> adapter) {
+        this.adapter = adapter;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public byte[] encode(T order) {
+        String orderId = adapter.orderId(order);
+        String customerId = adapter.customerId(order);
+        String productId = adapter.productId(order);
+        Integer quantity = adapter.quantity(order);
+        BigDecimal price = adapter.price(order);
+        LocalDateTime orderTime = adapter.orderTime(order);
+        String status = adapter.status(order);
+
+        int flags = 0;
+        flags |= orderId != null ? 1 << ORDER_ID : 0;
+        flags |= customerId != null ? 1 << CUSTOMER_ID : 0;
+        flags |= productId != null ? 1 << PRODUCT_ID : 0;
+        flags |= quantity != null ? 1 << QUANTITY : 0;
+        flags |= price != null ? 1 << PRICE : 0;
+        flags |= orderTime != null ? 1 << ORDER_TIME : 0;
+        flags |= status != null ? 1 << STATUS : 0;
+        boolean widePrice = price != null && price.unscaledValue().bitLength() > 63;
+        flags |= widePrice ? 1 << WIDE_PRICE : 0;
+
+        Writer out = new Writer(64);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(flags);
+        out.writeString(orderId);
+        out.writeString(customerId);
+        out.writeString(productId);
+        if (quantity != null) {
+            out.writeVarLong(zigZag(quantity));
+        }
+        if (price != null) {
+            out.writeVarLong(zigZag(price.scale()));
+            if (widePrice) {
+                out.writeBytes(price.unscaledValue().toByteArray());
+            } else {
+                out.writeVarLong(zigZag(price.unscaledValue().longValue()));
+            }
+        }
+        if (orderTime != null) {
+            out.writeVarLong(zigZag(toEpochMicros(orderTime)));
+        }
+        out.writeString(status);
+        return out.toByteArray();
+    }
+
+    public T decode(byte[] data) {
+        if (!isBinary(data) || data.length < 3) {
+            throw new SerializationException("Not a binary order record");
+        }
+        if (data[1] != VERSION) {
+            throw new SerializationException("Unsupported binary order version " + data[1]);
+        }
+        try {
+            Reader in = new Reader(data, 2);
+            int flags = in.readByte() & 0xFF;
+            String orderId = has(flags, ORDER_ID) ? in.readString() : null;
+            String customerId = has(flags, CUSTOMER_ID) ? in.readString() : null;
+            String productId = has(flags, PRODUCT_ID) ? in.readString() : null;
+            Integer quantity = has(flags, QUANTITY) ? (int) unZigZag(in.readVarLong()) : null;
+            BigDecimal price = null;
+            if (has(flags, PRICE)) {
+                int scale = (int) unZigZag(in.readVarLong());
+                price = has(flags, WIDE_PRICE)
+                        ? new BigDecimal(new BigInteger(in.readBytes()), scale)
+                        : BigDecimal.valueOf(unZigZag(in.readVarLong()), scale);
+            }
+            LocalDateTime orderTime = has(flags, ORDER_TIME) ? fromEpochMicros(unZigZag(in.readVarLong())) : null;
+            String status = has(flags, STATUS) ? in.readString() : null;
+            return adapter.newOrder(orderId, customerId, productId, quantity, price, orderTime, status);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated binary order record", e);
+        }
+    }
+
+    static long toEpochMicros(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        return Math.addExact(Math.multiplyExact(seconds, 1_000_000L), time.getNano() / 1_000);
+    }
+
+    static LocalDateTime fromEpochMicros(long micros) {
+        long seconds = Math.floorDiv(micros, 1_000_000L);
+        int nanos = (int) Math.floorMod(micros, 1_000_000L) * 1_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static boolean has(int flags, int field) {
+        return (flags & (1 << field)) != 0;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private byte[] buf;
+        private int pos;
+
+        Writer(int initialCapacity) {
+            this.buf = new byte[initialCapacity];
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void writeString(String value) {
+            if (value != null) {
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        byte readByte() {
+            return buf[pos++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in binary order record");
+        }
+
+        byte[] readBytes() {
+            int length = (int) readVarLong();
+            if (length < 0 || pos + length > buf.length) {
+                throw new SerializationException("Truncated binary order record");
+            }
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length < 0 || pos + length > buf.length) {
+                throw new SerializationException("Truncated binary order record");
+            }
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+    }
+}
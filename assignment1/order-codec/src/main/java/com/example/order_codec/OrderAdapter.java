@@ -0,0 +1,28 @@
+package com.example.order_codec;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bridges a service's own {@code Order} class to the shared codec, so each
+ * service keeps its model while the wire format lives in one place.
+ */
+public interface OrderAdapter<T> {
+
+    String orderId(T order);
+
+    String customerId(T order);
+
+    String productId(T order);
+
+    Integer quantity(T order);
+
+    BigDecimal price(T order);
+
+    LocalDateTime orderTime(T order);
+
+    String status(T order);
+
+    T newOrder(String orderId, String customerId, String productId, Integer quantity,
+               BigDecimal price, LocalDateTime orderTime, String status);
+}
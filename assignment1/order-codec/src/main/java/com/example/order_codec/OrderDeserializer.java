@@ -0,0 +1,47 @@
+package com.example.order_codec;
+
+import java.util.Map;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Reads both wire formats: records starting with {@link BinaryOrderCodec#MAGIC}
+ * are decoded directly, anything else goes to the JSON delegate.
+ */
+public class OrderDeserializer<T> implements Deserializer<T> {
+
+    private final BinaryOrderCodec<T> codec;
+    private final Deserializer<T> jsonDeserializer;
+
+    public OrderDeserializer(BinaryOrderCodec<T> codec, Deserializer<T> jsonDeserializer) {
+        this.codec = codec;
+        this.jsonDeserializer = jsonDeserializer;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return BinaryOrderCodec.isBinary(data) ? codec.decode(data) : jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return BinaryOrderCodec.isBinary(data) ? codec.decode(data) : jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
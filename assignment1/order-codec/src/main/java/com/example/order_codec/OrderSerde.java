@@ -0,0 +1,36 @@
+package com.example.order_codec;
+
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+public class OrderSerde<T> implements Serde<T> {
+
+    private final OrderSerializer<T> serializer;
+    private final OrderDeserializer<T> deserializer;
+
+    public OrderSerde(OrderAdapter<T> adapter, Serializer<T> jsonSerializer, Deserializer<T> jsonDeserializer,
+                      OrderWireFormat format) {
+        BinaryOrderCodec<T> codec = new BinaryOrderCodec<>(adapter);
+        this.serializer = new OrderSerializer<>(codec, jsonSerializer, format);
+        this.deserializer = new OrderDeserializer<>(codec, jsonDeserializer);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        serializer.configure(configs, isKey);
+        deserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return deserializer;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.order_codec;
+
+import java.util.Map;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Writes orders in the configured {@link OrderWireFormat}. The JSON delegate is the
+ * serializer the service used before the binary format existed, so switching back
+ * produces exactly the old records.
+ */
+public class OrderSerializer<T> implements Serializer<T> {
+
+    private final BinaryOrderCodec<T> codec;
+    private final Serializer<T> jsonSerializer;
+    private final OrderWireFormat format;
+
+    public OrderSerializer(BinaryOrderCodec<T> codec, Serializer<T> jsonSerializer, OrderWireFormat format) {
+        this.codec = codec;
+        this.jsonSerializer = jsonSerializer;
+        this.format = format;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        return format == OrderWireFormat.BINARY ? codec.encode(data) : jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return null;
+        }
+        return format == OrderWireFormat.BINARY ? codec.encode(data) : jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.order_codec;
+
+/**
+ * Format written by {@link OrderSerializer}. Readers always accept both, which is
+ * what makes a rolling switch possible: upgrade every reader first while writers
+ * stay on {@link #JSON}, then flip the writers to {@link #BINARY}.
+ */
+public enum OrderWireFormat {
+    BINARY,
+    JSON
+}
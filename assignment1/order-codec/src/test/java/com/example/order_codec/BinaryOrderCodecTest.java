@@ -0,0 +1,84 @@
+package com.example.order_codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+class BinaryOrderCodecTest {
+
+    private final BinaryOrderCodec<TestOrder> codec = new BinaryOrderCodec<>(TestOrder.ADAPTER);
+
+    @Test
+    void roundTripsAllFields() {
+        TestOrder order = TestOrder.sample();
+
+        assertThat(codec.decode(codec.encode(order))).isEqualTo(order);
+    }
+
+    @Test
+    void roundTripsAbsentFields() {
+        TestOrder order = new TestOrder("o-1", null, null, null, null, null, null);
+
+        byte[] encoded = codec.encode(order);
+
+        assertThat(codec.decode(encoded)).isEqualTo(order);
+        assertThat(encoded).hasSize(3 + 1 + 3);
+    }
+
+    @Test
+    void keepsScaleAndWidePrices() {
+        TestOrder scaled = withPrice(new BigDecimal("-12.500"));
+        TestOrder wide = withPrice(new BigDecimal("123456789012345678901234567890.42"));
+
+        assertThat(codec.decode(codec.encode(scaled)).price()).isEqualTo(new BigDecimal("-12.500"));
+        assertThat(codec.decode(codec.encode(wide)).price()).isEqualTo(wide.price());
+    }
+
+    @Test
+    void encodesOrderTimeAsEpochMicros() {
+        LocalDateTime beforeEpoch = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999);
+        TestOrder order = new TestOrder("o-1", null, null, null, null, beforeEpoch, null);
+
+        assertThat(codec.decode(codec.encode(order)).orderTime())
+                .isEqualTo(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000));
+    }
+
+    @Test
+    void rejectsTruncatedAndUnknownVersions() {
+        byte[] encoded = codec.encode(TestOrder.sample());
+        byte[] futureVersion = encoded.clone();
+        futureVersion[1] = 2;
+
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(encoded, encoded.length - 4)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> codec.decode(futureVersion))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void deserializerFallsBackToJson() {
+        JsonDeserializer<TestOrder> jsonDeserializer = new JsonDeserializer<>(TestOrder.class, false);
+        OrderSerde<TestOrder> serde = new OrderSerde<>(TestOrder.ADAPTER, new JsonSerializer<>(), jsonDeserializer,
+                OrderWireFormat.BINARY);
+        byte[] json = new JsonSerializer<TestOrder>().serialize("orders-topic", TestOrder.sample());
+        byte[] binary = serde.serializer().serialize("orders-topic", TestOrder.sample());
+
+        assertThat(binary.length).isLessThan(json.length / 2);
+        assertThat(serde.deserializer().deserialize("orders-topic", json)).isEqualTo(TestOrder.sample());
+        assertThat(serde.deserializer().deserialize("orders-topic", binary)).isEqualTo(TestOrder.sample());
+    }
+
+    private static TestOrder withPrice(BigDecimal price) {
+        TestOrder sample = TestOrder.sample();
+        return new TestOrder(sample.orderId(), sample.customerId(), sample.productId(), sample.quantity(), price,
+                sample.orderTime(), sample.status());
+    }
+}
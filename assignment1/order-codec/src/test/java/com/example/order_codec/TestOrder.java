@@ -0,0 +1,56 @@
+package com.example.order_codec;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record TestOrder(String orderId, String customerId, String productId, Integer quantity,
+                        BigDecimal price, LocalDateTime orderTime, String status) {
+
+    public static final OrderAdapter<TestOrder> ADAPTER = new OrderAdapter<>() {
+        @Override
+        public String orderId(TestOrder order) {
+            return order.orderId();
+        }
+
+        @Override
+        public String customerId(TestOrder order) {
+            return order.customerId();
+        }
+
+        @Override
+        public String productId(TestOrder order) {
+            return order.productId();
+        }
+
+        @Override
+        public Integer quantity(TestOrder order) {
+            return order.quantity();
+        }
+
+        @Override
+        public BigDecimal price(TestOrder order) {
+            return order.price();
+        }
+
+        @Override
+        public LocalDateTime orderTime(TestOrder order) {
+            return order.orderTime();
+        }
+
+        @Override
+        public String status(TestOrder order) {
+            return order.status();
+        }
+
+        @Override
+        public TestOrder newOrder(String orderId, String customerId, String productId, Integer quantity,
+                                  BigDecimal price, LocalDateTime orderTime, String status) {
+            return new TestOrder(orderId, customerId, productId, quantity, price, orderTime, status);
+        }
+    };
+
+    public static TestOrder sample() {
+        return new TestOrder("6f1c2b7e-8d4a-4b61-9a57-0f3e2c1d9b88", "customer-123", "product-456", 2,
+                new BigDecimal("29.99"), LocalDateTime.of(2025, 5, 14, 10, 15, 30, 123_456_000), "PENDING");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.order_codec.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.example.order_codec.OrderSerde;
+import com.example.order_codec.OrderWireFormat;
+import com.example.order_codec.TestOrder;
+
+/**
+ * Binary codec against the Spring {@code JsonSerializer}/{@code JsonDeserializer}
+ * pair the services used before. Encoded sizes are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderCodecBenchmark {
+
+    private static final String TOPIC = "orders-topic";
+
+    private TestOrder order;
+    private JsonSerializer<TestOrder> jsonSerializer;
+    private JsonDeserializer<TestOrder> jsonDeserializer;
+    private OrderSerde<TestOrder> binarySerde;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        order = TestOrder.sample();
+        jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        jsonDeserializer = new JsonDeserializer<>(TestOrder.class, false);
+        binarySerde = new OrderSerde<>(TestOrder.ADAPTER, new JsonSerializer<>(),
+                new JsonDeserializer<>(TestOrder.class, false), OrderWireFormat.BINARY);
+        json = jsonSerializer.serialize(TOPIC, order);
+        binary = binarySerde.serializer().serialize(TOPIC, order);
+        System.out.printf("%nbytes/record: json=%d binary=%d%n", json.length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(TOPIC, order);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerde.serializer().serialize(TOPIC, order);
+    }
+
+    @Benchmark
+    public TestOrder deserializeJson() {
+        return jsonDeserializer.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public TestOrder deserializeBinary() {
+        return binarySerde.deserializer().deserialize(TOPIC, binary);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.order_consumer.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+@Configuration
+public class KafkaListenerConfig {
+
+    /**
+     * Hands each poll to the listener as one list, with the Boot consumer settings
+     * ({@code spring.kafka.consumer.max-poll-records} caps the batch). Offsets are
+     * committed once the listener has returned for the whole batch; a batch that
+     * throws is redelivered by {@link #listenerErrorHandler(Duration, Duration)}.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(AckMode.BATCH);
+        return factory;
+    }
+
+    /**
+     * Error handler of every listener container; Boot's configurer sets it on the
+     * default factory, which the record listener uses, and on the factories here.
+     * The listeners throw while the database is unavailable, so the partition
+     * waits here instead of sending its orders through the retry tiers.
+     */
+    @Bean
+    public DefaultErrorHandler listenerErrorHandler(
+            @Value("${order-consumer.listener.initial-backoff:1s}") Duration initialBackOff,
+            @Value("${order-consumer.listener.max-backoff:30s}") Duration maxBackOff) {
+        return backOffErrorHandler(initialBackOff, maxBackOff);
+    }
+
+    /**
+     * Redelivers a failed batch or record, with its offsets uncommitted,
+     * {@code initial} after the first failure and then twice as long each time up
+     * to {@code max}, for as long as it keeps failing. The container stays paused
+     * in between, so the consumer keeps its partitions. Without it the default
+     * handler gives up after nine immediate retries and commits, which drops the
+     * records when MySQL is briefly away.
+     */
+    static DefaultErrorHandler backOffErrorHandler(Duration initial, Duration max) {
+        ExponentialBackOff backOff = new ExponentialBackOff(initial.toMillis(), 2.0);
+        backOff.setMaxInterval(max.toMillis());
+        return new DefaultErrorHandler(backOff);
+    }
+
+    /**
+     * Record listeners for the retry tiers, created by
+     * {@link com.example.order_consumer.retry.RetryOrderConsumer}. Offsets are
+     * acknowledged manually so a record that is not due yet can be nacked. A
+     * record that cannot be stored because the database is unavailable, or whose
+     * next tier cannot be reached, is redelivered until it can.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> retryListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+        return factory;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.order_consumer.config;
+
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.example.order_codec.BinaryOrderCodec;
+import com.example.order_codec.OrderDeserializer;
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.model.OrderCodecAdapter;
+
+@Configuration
+public class OrderCodecConfig {
+
+    /**
+     * Reads binary order records directly and hands anything else to the JSON
+     * deserializer configured through {@code spring.kafka.consumer.properties}.
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaConsumerFactoryCustomizer orderDeserializerCustomizer() {
+        BinaryOrderCodec<Order> codec = new BinaryOrderCodec<>(OrderCodecAdapter.INSTANCE);
+        return factory -> ((DefaultKafkaConsumerFactory<String, Order>) factory)
+                .setValueDeserializerSupplier(() -> new OrderDeserializer<>(codec, new JsonDeserializer<>()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.order_consumer.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.order_consumer.retry.DeadLetterReplayer;
+import com.example.order_consumer.retry.DeadLetterReplayer.Replay;
+
+/**
+ * Operator endpoint for {@code orders-topic-dlt}. Replaying sends the oldest
+ * dead letters back to {@code orders-topic}; call it again while
+ * {@code remaining} is above zero.
+ */
+@RestController
+@RequestMapping("/api/dead-letters")
+public class DeadLetterController {
+
+    @Autowired
+    private DeadLetterReplayer deadLetterReplayer;
+
+    @PostMapping("/replay")
+    public ResponseEntity<Replay> replay(@RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(deadLetterReplayer.replay(limit));
+    }
+}
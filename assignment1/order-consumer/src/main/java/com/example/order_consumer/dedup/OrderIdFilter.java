@@ -0,0 +1,186 @@
+package com.example.order_consumer.dedup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers "is this order already stored?" without MySQL for most orders. A Bloom
+ * filter over the order ids stored recently proves an order {@link Verdict#NEW
+ * new}; an LRU of the most recently stored ids proves it a {@link
+ * Verdict#DUPLICATE duplicate}. Everything else is {@link Verdict#UNKNOWN} and
+ * has to be looked up.
+ *
+ * <p>The Bloom filter has two generations of {@code expected-orders} ids each;
+ * when the current one is full it becomes the previous one and the oldest is
+ * dropped, so memory stays fixed. An order is checked against both, so each is
+ * sized for half of {@code false-positive-rate} to keep the combined rate at
+ * or below it. An order older than both generations is reported new; the unique key
+ * on {@code order_id} still rejects it, and callers fall back to a lookup then
+ * (see {@link #recordMissed()}). On startup the filter is warmed from the most
+ * recent rows of {@code transactions}.
+ *
+ * <p>Ids are recorded with {@link #recordStored(String)} only once their rows
+ * have committed or a lookup has found them stored.
+ */
+@Component
+@Slf4j
+public class OrderIdFilter {
+
+    public enum Verdict {
+        /** Not stored: the Bloom filter has never seen it. */
+        NEW,
+        /** Stored recently. */
+        DUPLICATE,
+        /** May be stored; ask the database. */
+        UNKNOWN
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long expectedOrders;
+    private final double generationFalsePositiveRate;
+    private final int warmUpOrders;
+    private final Map<String, Boolean> recent;
+
+    private BloomFilter current;
+    private BloomFilter previous;
+
+    private final Counter bloomNegatives;
+    private final Counter recentHits;
+    private final Counter lookups;
+    private final Counter falsePositives;
+    private final Counter missed;
+
+    public OrderIdFilter(JdbcTemplate jdbcTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${order-consumer.dedup.enabled:true}") boolean enabled,
+                         @Value("${order-consumer.dedup.expected-orders:1000000}") long expectedOrders,
+                         @Value("${order-consumer.dedup.false-positive-rate:0.01}") double falsePositiveRate,
+                         @Value("${order-consumer.dedup.recent-orders:10000}") int recentOrders,
+                         @Value("${order-consumer.dedup.warm-up-orders:100000}") int warmUpOrders) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.expectedOrders = expectedOrders;
+        this.generationFalsePositiveRate = falsePositiveRate / 2;
+        this.warmUpOrders = warmUpOrders;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentOrders;
+            }
+        };
+        this.current = new BloomFilter(expectedOrders, generationFalsePositiveRate);
+
+        this.bloomNegatives = Counter.builder("orders.dedup.checks")
+                .description("Orders checked against the duplicate filter")
+                .tag("verdict", "new")
+                .register(meterRegistry);
+        this.recentHits = Counter.builder("orders.dedup.checks")
+                .description("Orders checked against the duplicate filter")
+                .tag("verdict", "duplicate")
+                .register(meterRegistry);
+        this.lookups = Counter.builder("orders.dedup.checks")
+                .description("Orders checked against the duplicate filter")
+                .tag("verdict", "unknown")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("orders.dedup.false-positives")
+                .description("Orders the Bloom filter could not rule out that turned out not to be stored")
+                .register(meterRegistry);
+        this.missed = Counter.builder("orders.dedup.missed")
+                .description("Orders passed as new that the unique key rejected")
+                .register(meterRegistry);
+        Gauge.builder("orders.dedup.hit.rate", this, OrderIdFilter::hitRate)
+                .description("Share of checks answered without a database lookup")
+                .register(meterRegistry);
+        Gauge.builder("orders.dedup.false-positive.rate", this, OrderIdFilter::falsePositiveRate)
+                .description("Share of orders not stored that the Bloom filter could not rule out")
+                .register(meterRegistry);
+    }
+
+    /** Loads the ids of the most recent rows, oldest first, so the newest end up in the LRU. */
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled || warmUpOrders <= 0) {
+            return;
+        }
+        List<String> orderIds;
+        try {
+            orderIds = jdbcTemplate.queryForList("SELECT order_id FROM transactions ORDER BY id DESC LIMIT ?",
+                    String.class, warmUpOrders);
+        } catch (DataAccessException e) {
+            log.warn("Could not warm up the duplicate filter, starting empty: {}", e.getMessage());
+            return;
+        }
+        for (int i = orderIds.size() - 1; i >= 0; i--) {
+            recordStored(orderIds.get(i));
+        }
+        log.info("Warmed up the duplicate filter with {} order ids", orderIds.size());
+    }
+
+    public synchronized Verdict check(String orderId) {
+        if (!enabled) {
+            return Verdict.UNKNOWN;
+        }
+        if (!current.mightContain(orderId) && (previous == null || !previous.mightContain(orderId))) {
+            bloomNegatives.increment();
+            return Verdict.NEW;
+        }
+        if (recent.get(orderId) != null) {
+            recentHits.increment();
+            return Verdict.DUPLICATE;
+        }
+        lookups.increment();
+        return Verdict.UNKNOWN;
+    }
+
+    /** Remembers an order whose row has committed, or that was found stored. */
+    public synchronized void recordStored(String orderId) {
+        if (!enabled) {
+            return;
+        }
+        if (current.insertions() >= expectedOrders) {
+            previous = current;
+            current = new BloomFilter(expectedOrders, generationFalsePositiveRate);
+        }
+        current.put(orderId);
+        recent.put(orderId, Boolean.TRUE);
+    }
+
+    /**
+     * Reports the outcome of looking up orders the filter answered
+     * {@link Verdict#UNKNOWN} for: how many of them were not stored after all.
+     */
+    public void recordLookups(int notStored) {
+        if (enabled) {
+            falsePositives.increment(notStored);
+        }
+    }
+
+    /** Reports an order answered {@link Verdict#NEW} that the database already had. */
+    public void recordMissed() {
+        missed.increment();
+    }
+
+    double hitRate() {
+        double answered = bloomNegatives.count() + recentHits.count();
+        double checks = answered + lookups.count();
+        return checks == 0 ? 0.0 : answered / checks;
+    }
+
+    double falsePositiveRate() {
+        double notStored = bloomNegatives.count() + falsePositives.count();
+        return notStored == 0 ? 0.0 : falsePositives.count() / notStored;
+    }
+}
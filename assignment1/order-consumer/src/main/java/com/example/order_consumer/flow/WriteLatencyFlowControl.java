@@ -0,0 +1,229 @@
+package com.example.order_consumer.flow;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.example.order_consumer.scaling.ListenerConcurrencyController;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pauses the orders listener while the database is slow, instead of letting
+ * polls pile up behind slow writes until {@code max.poll.interval.ms} expires
+ * and the consumer is removed from the group. The listeners report how long
+ * each write took and how many rows it covered (a whole poll on the batch
+ * path, one on the record path and the retry tiers), and the controller keeps
+ * an exponentially weighted moving average of the time per row, so both paths
+ * are held to the same thresholds:
+ * <ul>
+ * <li>RUNNING: once the average reaches {@code pause-latency} the orders
+ * listener and the containers {@link #register(MessageListenerContainer)
+ * registered} with it, the retry tiers, are paused. A paused container keeps
+ * polling without fetching, so it keeps its group membership and partitions.</li>
+ * <li>PAUSED: after {@code min-pause} the containers resume and the average
+ * starts over from the next write. The pause doubles each time the database is
+ * still slow, up to {@code max-pause}.</li>
+ * <li>PROBING: running again, but only back to RUNNING, and to the shortest
+ * pause, once the average is down to {@code resume-latency}. Between the two
+ * thresholds it stays probing, so a database hovering near the limit does not
+ * flap the listener.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class WriteLatencyFlowControl implements SmartLifecycle {
+
+    public enum State {
+        RUNNING, PROBING, PAUSED
+    }
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final boolean enabled;
+    private final double smoothing;
+    private final long pauseNanos;
+    private final long resumeNanos;
+    private final Duration minPause;
+    private final Duration maxPause;
+    private final List<MessageListenerContainer> registered = new CopyOnWriteArrayList<>();
+
+    private final Timer writeLatency;
+    private final Counter pauses;
+
+    private State state = State.RUNNING;
+    private double averageNanos = Double.NaN;
+    private Duration nextPause;
+    private ScheduledExecutorService scheduler;
+
+    public WriteLatencyFlowControl(KafkaListenerEndpointRegistry registry,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${order-consumer.flow.enabled:true}") boolean enabled,
+                                   @Value("${order-consumer.flow.smoothing:0.2}") double smoothing,
+                                   @Value("${order-consumer.flow.pause-latency:20ms}") Duration pauseLatency,
+                                   @Value("${order-consumer.flow.resume-latency:5ms}") Duration resumeLatency,
+                                   @Value("${order-consumer.flow.min-pause:2s}") Duration minPause,
+                                   @Value("${order-consumer.flow.max-pause:30s}") Duration maxPause) {
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("order-consumer.flow.smoothing must be in (0, 1], got " + smoothing);
+        }
+        if (resumeLatency.compareTo(pauseLatency) >= 0) {
+            throw new IllegalArgumentException("order-consumer.flow.resume-latency must be below pause-latency, got "
+                    + resumeLatency + " and " + pauseLatency);
+        }
+        this.registry = registry;
+        this.enabled = enabled;
+        this.smoothing = smoothing;
+        this.pauseNanos = pauseLatency.toNanos();
+        this.resumeNanos = resumeLatency.toNanos();
+        this.minPause = minPause;
+        this.maxPause = maxPause;
+        this.nextPause = minPause;
+
+        this.writeLatency = Timer.builder("orders.flow.write.latency")
+                .description("Time per row of the listeners' database writes")
+                .register(meterRegistry);
+        Gauge.builder("orders.flow.write.latency.average", this, WriteLatencyFlowControl::averageMillis)
+                .description("Moving average of the write latency per row, in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        for (State gaugeState : State.values()) {
+            Gauge.builder("orders.flow.state", this, control -> control.state() == gaugeState ? 1 : 0)
+                    .description("1 for the flow controller's current state")
+                    .tag("state", gaugeState.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        this.pauses = Counter.builder("orders.flow.pauses")
+                .description("Times the listeners were paused for slow writes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reports a write of {@code rows} rows that started at {@code startNanos},
+     * from {@link System#nanoTime()}.
+     */
+    public void recordWrite(long startNanos, int rows) {
+        if (enabled && rows > 0) {
+            record((System.nanoTime() - startNanos) / rows);
+        }
+    }
+
+    /** Pauses and resumes {@code container} along with the orders listener. */
+    public void register(MessageListenerContainer container) {
+        registered.add(container);
+    }
+
+    public void unregister(MessageListenerContainer container) {
+        registered.remove(container);
+    }
+
+    synchronized void record(long nanos) {
+        writeLatency.record(nanos, TimeUnit.NANOSECONDS);
+        averageNanos = Double.isNaN(averageNanos) ? nanos : smoothing * nanos + (1 - smoothing) * averageNanos;
+        if (state == State.PAUSED) {
+            // Writes of polls fetched before the pause
+            return;
+        }
+        if (averageNanos >= pauseNanos) {
+            pause();
+        } else if (state == State.PROBING && averageNanos <= resumeNanos) {
+            log.info("Write latency back to {} ms per row, listeners recovered", Math.round(averageMillis()));
+            state = State.RUNNING;
+            nextPause = minPause;
+        }
+    }
+
+    private void pause() {
+        List<MessageListenerContainer> containers = containers();
+        if (containers.isEmpty()) {
+            return;
+        }
+        Duration pause = nextPause;
+        log.warn("Write latency averaging {} ms per row, pausing {} listener containers for {}",
+                Math.round(averageMillis()), containers.size(), pause);
+        containers.forEach(MessageListenerContainer::pause);
+        state = State.PAUSED;
+        pauses.increment();
+        nextPause = maxPause.compareTo(pause.multipliedBy(2)) < 0 ? maxPause : pause.multipliedBy(2);
+        if (scheduler != null) {
+            scheduler.schedule(this::resume, pause.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void resume() {
+        if (state != State.PAUSED) {
+            return;
+        }
+        containers().forEach(MessageListenerContainer::resume);
+        log.info("Resuming listener containers to probe write latency");
+        state = State.PROBING;
+        averageNanos = Double.NaN;
+    }
+
+    private List<MessageListenerContainer> containers() {
+        List<MessageListenerContainer> containers = new ArrayList<>(registered);
+        MessageListenerContainer orders = registry.getListenerContainer(ListenerConcurrencyController.LISTENER_ID);
+        if (orders != null) {
+            containers.add(0, orders);
+        }
+        return containers;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized Duration nextPause() {
+        return nextPause;
+    }
+
+    private synchronized double averageMillis() {
+        return Double.isNaN(averageNanos) ? 0 : averageNanos / 1e6;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "listener-flow-control");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /** Starts after and stops before the listener container it pauses. */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE + 1;
+    }
+}
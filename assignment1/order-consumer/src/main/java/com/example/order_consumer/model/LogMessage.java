@@ -14,4 +14,10 @@ public class LogMessage {
     private String service_name;
     private String status;
     private String error_message;
-}
\ No newline at end of file
+    /** Events this message stands for; above 1 for SUCCESS counts aggregated per interval. */
+    private long count = 1;
+
+    public LogMessage(Instant timestamp, String service_name, String status, String error_message) {
+        this(timestamp, service_name, status, error_message, 1);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.order_consumer.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The next offset to consume per partition, kept in {@code consumer_offsets}
+ * next to the rows they produced. Writes join the caller's transaction.
+ */
+@Repository
+public class ConsumerOffsetRepository {
+
+    private static final String UPSERT = "INSERT INTO consumer_offsets (group_id, topic, partition_id, next_offset)"
+            + " VALUES ";
+    private static final String ROW = "(?, ?, ?, ?)";
+    private static final String ON_DUPLICATE = " ON DUPLICATE KEY UPDATE next_offset = VALUES(next_offset)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Map<Integer, Long> findNextOffsets(String groupId, String topic) {
+        Map<Integer, Long> offsets = new HashMap<>();
+        jdbcTemplate.query("SELECT partition_id, next_offset FROM consumer_offsets WHERE group_id = ? AND topic = ?",
+                rs -> {
+                    offsets.put(rs.getInt("partition_id"), rs.getLong("next_offset"));
+                }, groupId, topic);
+        return offsets;
+    }
+
+    /** Stores the next offset of each partition, in one statement. */
+    public void saveNextOffsets(String groupId, String topic, Map<Integer, Long> nextOffsets) {
+        if (nextOffsets.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(nextOffsets.size() * 4);
+        for (Map.Entry<Integer, Long> entry : nextOffsets.entrySet()) {
+            args.add(groupId);
+            args.add(topic);
+            args.add(entry.getKey());
+            args.add(entry.getValue());
+        }
+        jdbcTemplate.update(UPSERT + String.join(", ", Collections.nCopies(nextOffsets.size(), ROW)) + ON_DUPLICATE,
+                args.toArray());
+    }
+}
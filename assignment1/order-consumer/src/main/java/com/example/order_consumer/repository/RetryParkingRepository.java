@@ -0,0 +1,60 @@
+package com.example.order_consumer.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Order ids with records in the retry tiers, kept in {@code retry_parked} so
+ * that every instance sees them: the retry tiers are consumed by their own group
+ * and a partition of a tier may belong to another instance than the same
+ * partition of {@code orders-topic}.
+ */
+@Repository
+public class RetryParkingRepository {
+
+    private static final String PARK = "INSERT INTO retry_parked (order_id, tier, records) VALUES (?, ?, 1)"
+            + " ON DUPLICATE KEY UPDATE tier = GREATEST(tier, VALUES(tier)), records = records + ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** The furthest tier reached by each of {@code orderIds} that is parked, in one query. */
+    public Map<String, Integer> findTiers(Collection<String> orderIds) {
+        Map<String, Integer> tiers = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return tiers;
+        }
+        jdbcTemplate.query("SELECT order_id, tier FROM retry_parked WHERE order_id IN ("
+                        + String.join(", ", Collections.nCopies(orderIds.size(), "?")) + ")",
+                rs -> {
+                    tiers.put(rs.getString("order_id"), rs.getInt("tier"));
+                }, orderIds.toArray());
+        return tiers;
+    }
+
+    /**
+     * Records that a record of {@code orderId} is in {@code tier}.
+     *
+     * @param added whether the record is new to the tiers, rather than moved on from an earlier one
+     */
+    public void park(String orderId, int tier, boolean added) {
+        jdbcTemplate.update(PARK, orderId, tier, added ? 1 : 0);
+    }
+
+    /** Records that a record of {@code orderId} has left the tiers, and unparks the id after its last one. */
+    public void release(String orderId) {
+        jdbcTemplate.update("UPDATE retry_parked SET records = records - 1 WHERE order_id = ?", orderId);
+        jdbcTemplate.update("DELETE FROM retry_parked WHERE order_id = ? AND records <= 0", orderId);
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM retry_parked", Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.order_consumer.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.order_consumer.model.Transaction;
+
+/**
+ * Writes a batch of transactions with two statements: one {@code IN} query for
+ * the order ids that are already stored, and one multi-row {@code INSERT} for
+ * the rest. Uses plain JDBC because the {@code IDENTITY} id of
+ * {@link Transaction} stops Hibernate from batching inserts.
+ */
+@Repository
+public class TransactionBatchRepository {
+
+    private static final String INSERT = "INSERT INTO transactions"
+            + " (order_id, customer_id, product_id, quantity, price, order_time, status) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 7;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the transactions whose order id is not stored yet, in one database
+     * transaction, and returns them. When several share an order id, the first
+     * one counts.
+     */
+    @Transactional
+    public List<Transaction> insertNew(List<Transaction> transactions) {
+        return insertNew(transactions, orderId -> true);
+    }
+
+    /**
+     * Like {@link #insertNew(List)}, but only order ids accepted by
+     * {@code mayBeStored} are looked up; the rest are taken to be new. If one of
+     * them is stored after all, the insert fails with a
+     * {@link org.springframework.dao.DuplicateKeyException} and nothing is written.
+     */
+    @Transactional
+    public List<Transaction> insertNew(List<Transaction> transactions, Predicate<String> mayBeStored) {
+        Map<String, Transaction> byOrderId = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            byOrderId.putIfAbsent(transaction.getOrderId(), transaction);
+        }
+        byOrderId.keySet().removeAll(existingOrderIds(byOrderId.keySet().stream().filter(mayBeStored).toList()));
+
+        List<Transaction> inserted = new ArrayList<>(byOrderId.values());
+        if (!inserted.isEmpty()) {
+            insert(inserted);
+        }
+        return inserted;
+    }
+
+    private Set<String> existingOrderIds(Collection<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(orderIds.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT order_id FROM transactions WHERE order_id IN (" + placeholders + ")",
+                String.class, orderIds.toArray()));
+    }
+
+    private void insert(List<Transaction> rows) {
+        Object[] args = new Object[rows.size() * COLUMNS];
+        int i = 0;
+        for (Transaction row : rows) {
+            args[i++] = row.getOrderId();
+            args[i++] = row.getCustomerId();
+            args[i++] = row.getProductId();
+            args[i++] = row.getQuantity();
+            args[i++] = row.getPrice();
+            args[i++] = row.getOrderTime();
+            args[i++] = row.getStatus();
+        }
+        jdbcTemplate.update(INSERT + String.join(", ", Collections.nCopies(rows.size(), ROW)), args);
+    }
+}
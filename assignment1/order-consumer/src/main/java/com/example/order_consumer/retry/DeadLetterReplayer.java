@@ -0,0 +1,133 @@
+package com.example.order_consumer.retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends dead-lettered orders back to {@code orders-topic}, keyed by order id as
+ * before, once whatever made them fail has been fixed. Replays read
+ * {@code orders-topic-dlt} in their own consumer group and commit after the
+ * orders have been sent, so each replay picks up where the last one stopped
+ * and an order is replayed again only if a replay fails halfway. Orders that
+ * are already stored are reported as duplicates by the listener.
+ */
+@Component
+@Slf4j
+public class DeadLetterReplayer {
+
+    static final String REPLAY_GROUP_ID = "order-consumer-dlt-replay";
+    static final String ORDERS_TOPIC = "orders-topic";
+    public static final String REPLAYED_FROM_HEADER = "order-replayed-from";
+
+    /** Orders sent back to {@code orders-topic}, and dead letters still left after them. */
+    public record Replay(int replayed, long remaining) {
+    }
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final KafkaTemplate<String, Object> template;
+    private final Duration timeout;
+
+    public DeadLetterReplayer(ConsumerFactory<Object, Object> consumerFactory,
+                              KafkaTemplate<String, Object> template,
+                              @Value("${order-consumer.retry.replay-timeout:30s}") Duration timeout) {
+        this.consumerFactory = consumerFactory;
+        this.template = template;
+        this.timeout = timeout;
+    }
+
+    /** Replays up to {@code limit} dead letters, oldest first per partition. */
+    public synchronized Replay replay(int limit) {
+        Properties overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (Consumer<Object, Object> consumer = consumerFactory.createConsumer(REPLAY_GROUP_ID, null, "-replay",
+                overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(OrderRetryRouter.DEAD_LETTER_TOPIC).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            long deadline = System.nanoTime() + timeout.toNanos();
+
+            int replayed = 0;
+            while (replayed < limit && unread(consumer, end) > 0 && System.nanoTime() < deadline) {
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+                for (ConsumerRecord<Object, Object> record : consumer.poll(Duration.ofMillis(500))) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (replayed == limit || record.offset() >= end.get(partition)) {
+                        continue;
+                    }
+                    ProducerRecord<String, Object> replay = new ProducerRecord<>(ORDERS_TOPIC,
+                            (String) record.key(), record.value());
+                    replay.headers().add(REPLAYED_FROM_HEADER,
+                            (partition + "@" + record.offset()).getBytes(StandardCharsets.UTF_8));
+                    sends.add(template.send(replay));
+                    commits.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                await(sends);
+                // Records polled past the limit are not committed, so the next replay reads them again
+                consumer.commitSync(commits);
+            }
+            long remaining = unreplayed(consumer, end);
+            log.info("Replayed {} dead-lettered orders to {}, {} left", replayed, ORDERS_TOPIC, remaining);
+            return new Replay(replayed, remaining);
+        }
+    }
+
+    private static long unread(Consumer<?, ?> consumer, Map<TopicPartition, Long> end) {
+        long remaining = 0;
+        for (Map.Entry<TopicPartition, Long> entry : end.entrySet()) {
+            remaining += Math.max(0, entry.getValue() - consumer.position(entry.getKey()));
+        }
+        return remaining;
+    }
+
+    private static long unreplayed(Consumer<?, ?> consumer, Map<TopicPartition, Long> end) {
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(end.keySet());
+        Map<TopicPartition, Long> beginning = consumer.beginningOffsets(end.keySet());
+        long remaining = 0;
+        for (Map.Entry<TopicPartition, Long> entry : end.entrySet()) {
+            OffsetAndMetadata commit = committed.get(entry.getKey());
+            long from = commit == null ? beginning.get(entry.getKey()) : commit.offset();
+            remaining += Math.max(0, entry.getValue() - from);
+        }
+        return remaining;
+    }
+
+    private void await(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while replaying dead letters", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Could not replay dead letters to " + ORDERS_TOPIC, e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.order_consumer.retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.repository.RetryParkingRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves orders that could not be stored through the retry tiers
+ * {@code orders-topic-retry-0 .. n-1}, each consumed after its delay from
+ * {@code order-consumer.retry.delays}, and finally to {@code orders-topic-dlt}.
+ * Records keep their order id key, and the retry topics have as many partitions
+ * as {@code orders-topic}, so each key stays on one partition per topic.
+ *
+ * <p>An order id with records in the retry tiers is <em>parked</em>: later
+ * records for it are sent behind the parked ones, into the furthest tier the
+ * id has reached, instead of being stored ahead of them. The id is released
+ * once all of its records are stored or dead-lettered. Parking is kept in
+ * {@link RetryParkingRepository}, not in memory: the tiers are consumed by their
+ * own group, so the instance that stores or dead-letters a retried record need
+ * not be the one that parked it, and a restart does not forget it.
+ *
+ * <p>Only failures of the order itself belong here. While the database is
+ * unavailable (see {@link #isUnavailable(Exception)}) every order would fail, and
+ * an outage longer than the delays would dead-letter all of them, so listeners
+ * throw instead and the container backs off and redelivers.
+ *
+ * <p>Sends wait for the broker; if one fails the caller must not commit the
+ * source record.
+ */
+@Component
+@Slf4j
+public class OrderRetryRouter {
+
+    public static final String RETRY_TOPIC_PREFIX = "orders-topic-retry-";
+    public static final String DEAD_LETTER_TOPIC = "orders-topic-dlt";
+    /** Tier of records read from {@code orders-topic} itself. */
+    public static final int MAIN_TIER = -1;
+    public static final String ATTEMPTS_HEADER = "order-retry-attempts";
+    public static final String DUE_HEADER = "order-retry-due";
+    public static final String ERROR_HEADER = "order-retry-error";
+
+    private final KafkaTemplate<String, Object> template;
+    private final RetryParkingRepository parking;
+    private final boolean enabled;
+    private final List<Duration> delays;
+    private final Duration sendTimeout;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter deadLettered;
+
+    public OrderRetryRouter(KafkaTemplate<String, Object> template,
+                            RetryParkingRepository parking,
+                            MeterRegistry meterRegistry,
+                            @Value("${order-consumer.retry.enabled:true}") boolean enabled,
+                            @Value("${order-consumer.retry.delays:5s,30s,5m}") List<Duration> delays,
+                            @Value("${order-consumer.retry.send-timeout:10s}") Duration sendTimeout) {
+        if (enabled && delays.isEmpty()) {
+            throw new IllegalArgumentException("order-consumer.retry.delays needs at least one delay");
+        }
+        this.template = template;
+        this.parking = parking;
+        this.enabled = enabled;
+        this.delays = List.copyOf(delays);
+        this.sendTimeout = sendTimeout;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("orders.retry.parked.keys", parking, RetryParkingRepository::count)
+                .description("Order ids with records waiting in the retry tiers")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("orders.retry.dead-lettered")
+                .description("Orders sent to orders-topic-dlt after the last retry tier")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int tiers() {
+        return delays.size();
+    }
+
+    public static String topic(int tier) {
+        return RETRY_TOPIC_PREFIX + tier;
+    }
+
+    /** Whether {@code e} says the database cannot be reached, rather than that one order cannot be stored. */
+    public static boolean isUnavailable(Exception e) {
+        return e instanceof TransientDataAccessException || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    public boolean isParked(String orderId) {
+        return !parking.findTiers(List.of(orderId)).isEmpty();
+    }
+
+    /** Which of {@code orderIds} are parked, in one lookup. */
+    public Set<String> parkedAmong(List<String> orderIds) {
+        return parking.findTiers(orderIds).keySet();
+    }
+
+    /**
+     * Sends orders that failed in {@code tier} to the next tier, or to the
+     * dead-letter topic after the last one.
+     *
+     * @param attempts how often each order has failed, this time included
+     * @return the orders that were dead-lettered
+     */
+    public List<Order> retry(List<Order> orders, int tier, int attempts, Exception cause) {
+        int next = tier + 1;
+        boolean dead = next >= delays.size();
+        String topic = dead ? DEAD_LETTER_TOPIC : topic(next);
+        long due = dead ? 0 : System.currentTimeMillis() + delays.get(next).toMillis();
+        String error = String.valueOf(cause.getMessage());
+
+        send(orders, topic, due, attempts, error);
+        for (Order order : orders) {
+            if (dead) {
+                parking.release(order.getOrderId());
+            } else {
+                parking.park(order.getOrderId(), next, tier == MAIN_TIER);
+            }
+        }
+        if (dead) {
+            deadLettered.increment(orders.size());
+            orders.forEach(order -> log.error("Order {} failed {} times, sent to {}: {}", order.getOrderId(),
+                    attempts, DEAD_LETTER_TOPIC, error));
+            return orders;
+        }
+        return List.of();
+    }
+
+    /** Sends orders read from {@code orders-topic} behind the parked records of their order id. */
+    public void follow(List<Order> orders) {
+        Map<String, Integer> tiers = parking.findTiers(orders.stream().map(Order::getOrderId).toList());
+        Map<Integer, List<Order>> byTier = new HashMap<>();
+        for (Order order : orders) {
+            byTier.computeIfAbsent(tiers.getOrDefault(order.getOrderId(), 0), tier -> new ArrayList<>()).add(order);
+        }
+        for (Map.Entry<Integer, List<Order>> entry : byTier.entrySet()) {
+            send(entry.getValue(), topic(entry.getKey()), 0, 0, null);
+            entry.getValue().forEach(order -> parking.park(order.getOrderId(), entry.getKey(), true));
+        }
+    }
+
+    /**
+     * Moves a record of {@code tier} on to the tier its order id has reached, if
+     * that is further, so it stays behind the records ahead of it.
+     *
+     * @return whether the record was moved
+     */
+    public boolean forward(Order order, int tier, int attempts) {
+        Integer parkedTier = parking.findTiers(List.of(order.getOrderId())).get(order.getOrderId());
+        if (parkedTier == null || parkedTier <= tier) {
+            return false;
+        }
+        send(List.of(order), topic(parkedTier), 0, attempts, null);
+        return true;
+    }
+
+    /** Called once a record of the order id has left the retry tiers. */
+    public void release(String orderId) {
+        parking.release(orderId);
+    }
+
+    private void send(List<Order> orders, String topic, long due, int attempts, String error) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            ProducerRecord<String, Object> record = new ProducerRecord<>(topic, order.getOrderId(), order);
+            Headers headers = record.headers();
+            headers.add(ATTEMPTS_HEADER, Integer.toString(attempts).getBytes(StandardCharsets.UTF_8));
+            headers.add(DUE_HEADER, Long.toString(due).getBytes(StandardCharsets.UTF_8));
+            if (error != null) {
+                headers.add(ERROR_HEADER, error.getBytes(StandardCharsets.UTF_8));
+            }
+            sends.add(template.send(record));
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while sending to " + topic, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Could not send " + orders.size() + " orders to " + topic, e);
+        }
+        meterRegistry.counter("orders.retry.routed", "topic", topic).increment(orders.size());
+    }
+
+    static long longHeader(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null ? 0 : Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.order_consumer.retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import com.example.order_consumer.dedup.OrderIdFilter;
+import com.example.order_consumer.flow.WriteLatencyFlowControl;
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.model.Transaction;
+import com.example.order_consumer.repository.TransactionBatchRepository;
+import com.example.order_consumer.service.LogEventPublisher;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Consumes the retry tiers of {@link OrderRetryRouter}, one listener container
+ * per tier. A record that is not due yet is negatively acknowledged for the time
+ * left, which pauses the container, but keeps it polling, so the group does not
+ * rebalance while it waits. Records of a tier share one delay, so the first
+ * record of a partition is always the next one due and nothing behind it is
+ * held up longer than its own delay.
+ *
+ * <p>Each due record is looked up and stored on its own. If that fails it moves
+ * on to the next tier, or to the dead-letter topic after the last one. While the
+ * database is unavailable the record stays where it is and is redelivered after
+ * the error handler's back-off instead.
+ *
+ * <p>The containers use their own consumer group, so starting or scaling them
+ * does not rebalance the orders listener. A partition of a tier may therefore be
+ * read by another instance than the same partition of {@code orders-topic}, which
+ * is why parking is kept in the database rather than by the instance.
+ *
+ * <p>The tiers write to the same database as the orders listener, so their
+ * writes feed {@link WriteLatencyFlowControl} too and it pauses them with it.
+ */
+@Component
+@Slf4j
+public class RetryOrderConsumer implements SmartLifecycle {
+
+    static final String GROUP_ID = "order-consumer-retry-group";
+
+    private final OrderRetryRouter router;
+    private final ConcurrentKafkaListenerContainerFactory<Object, Object> containerFactory;
+    private final TransactionBatchRepository transactionBatchRepo;
+    private final OrderIdFilter orderIdFilter;
+    private final LogEventPublisher logEventPublisher;
+    private final WriteLatencyFlowControl writeLatencyFlowControl;
+    private final List<ConcurrentMessageListenerContainer<Object, Object>> containers = new ArrayList<>();
+
+    public RetryOrderConsumer(OrderRetryRouter router,
+                              @Qualifier("retryListenerContainerFactory")
+                              ConcurrentKafkaListenerContainerFactory<Object, Object> containerFactory,
+                              TransactionBatchRepository transactionBatchRepo,
+                              OrderIdFilter orderIdFilter,
+                              LogEventPublisher logEventPublisher,
+                              WriteLatencyFlowControl writeLatencyFlowControl) {
+        this.router = router;
+        this.containerFactory = containerFactory;
+        this.transactionBatchRepo = transactionBatchRepo;
+        this.orderIdFilter = orderIdFilter;
+        this.logEventPublisher = logEventPublisher;
+        this.writeLatencyFlowControl = writeLatencyFlowControl;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!router.isEnabled() || !containers.isEmpty()) {
+            return;
+        }
+        for (int tier = 0; tier < router.tiers(); tier++) {
+            int listenerTier = tier;
+            ConcurrentMessageListenerContainer<Object, Object> container =
+                    containerFactory.createContainer(OrderRetryRouter.topic(tier));
+            container.setBeanName("orders-retry-" + tier);
+            container.getContainerProperties().setGroupId(GROUP_ID);
+            container.setupMessageListener((AcknowledgingMessageListener<Object, Object>)
+                    (record, ack) -> consume(listenerTier, record, ack));
+            container.start();
+            writeLatencyFlowControl.register(container);
+            containers.add(container);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        containers.forEach(writeLatencyFlowControl::unregister);
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return !containers.isEmpty();
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE;
+    }
+
+    void consume(int tier, ConsumerRecord<Object, Object> record, Acknowledgment ack) {
+        Order order = (Order) record.value();
+        long wait = OrderRetryRouter.longHeader(record.headers(), OrderRetryRouter.DUE_HEADER)
+                - System.currentTimeMillis();
+        if (wait > 0) {
+            ack.nack(Duration.ofMillis(wait));
+            return;
+        }
+        int attempts = (int) OrderRetryRouter.longHeader(record.headers(), OrderRetryRouter.ATTEMPTS_HEADER);
+        if (router.forward(order, tier, attempts)) {
+            ack.acknowledge();
+            return;
+        }
+
+        List<Transaction> inserted;
+        long start = System.nanoTime();
+        try {
+            inserted = transactionBatchRepo.insertNew(List.of(new Transaction(order)));
+        } catch (RuntimeException e) {
+            if (OrderRetryRouter.isUnavailable(e)) {
+                // Redelivered by the container's error handler, without using up an attempt
+                throw e;
+            }
+            log.warn("Retry {} of order {} failed: {}", attempts + 1, order.getOrderId(), e.getMessage());
+            if (!router.retry(List.of(order), tier, attempts + 1, e).isEmpty()) {
+                logEventPublisher.error(order.getOrderId(), "Dead-lettered after " + (attempts + 1)
+                        + " attempts: " + e.getMessage());
+            }
+            ack.acknowledge();
+            return;
+        } finally {
+            writeLatencyFlowControl.recordWrite(start, 1);
+        }
+
+        router.release(order.getOrderId());
+        orderIdFilter.recordStored(order.getOrderId());
+        if (inserted.isEmpty()) {
+            log.warn("Order {} already exists, skipping", order.getOrderId());
+            logEventPublisher.duplicate(order.getOrderId());
+        } else {
+            log.info("Stored order {} from retry tier {}", order.getOrderId(), tier);
+            logEventPublisher.success(record.partition(), order.getOrderId());
+        }
+        ack.acknowledge();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.order_consumer.scaling;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reads a consumer group's committed offsets and the topic's end offsets with
+ * one {@link Admin} client, created on first use.
+ */
+@Component
+public class ConsumerLagSampler {
+
+    /**
+     * @param lag       records between the committed offsets and the end of each partition, summed
+     * @param committed committed offsets summed over the partitions; grows by the records processed
+     */
+    public record Sample(long lag, long committed, int partitions) {
+    }
+
+    private final KafkaAdmin kafkaAdmin;
+    private final Duration timeout;
+    private Admin admin;
+
+    public ConsumerLagSampler(KafkaAdmin kafkaAdmin,
+                              @Value("${order-consumer.scaling.sample-timeout:5s}") Duration timeout) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.timeout = timeout;
+    }
+
+    public synchronized Sample sample(String groupId, String topic)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (admin == null) {
+            admin = Admin.create(kafkaAdmin.getConfigurationProperties());
+        }
+        TopicDescription description = admin.describeTopics(List.of(topic)).allTopicNames()
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS).get(topic);
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        description.partitions().forEach(p -> latest.put(new TopicPartition(topic, p.partition()), OffsetSpec.latest()));
+
+        Map<TopicPartition, ListOffsetsResultInfo> ends = admin.listOffsets(latest).all()
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        long lag = 0;
+        long committedTotal = 0;
+        for (Map.Entry<TopicPartition, ListOffsetsResultInfo> end : ends.entrySet()) {
+            OffsetAndMetadata offset = committed.get(end.getKey());
+            long position = offset == null ? 0 : offset.offset();
+            lag += Math.max(0, end.getValue().offset() - position);
+            committedTotal += position;
+        }
+        return new Sample(lag, committedTotal, latest.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (admin != null) {
+            admin.close(timeout);
+            admin = null;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.order_consumer.scaling;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resizes the orders listener container from its consumer lag. Every
+ * {@code interval} the lag and the processing rate (growth of the committed
+ * offsets) are sampled:
+ * <ul>
+ * <li>if the lag would take longer than {@code drain-target} to work off at the
+ * current rate, concurrency grows in proportion, at least by one;</li>
+ * <li>once the lag has stayed at or below {@code idle-lag} for
+ * {@code scale-down-samples} samples in a row, concurrency shrinks by one.</li>
+ * </ul>
+ * Concurrency stays within {@code min-concurrency} and {@code max-concurrency}
+ * and never exceeds the partition count or the Hikari {@code maximumPoolSize},
+ * since every listener thread holds a connection while it stores. The pool's
+ * {@code minimumIdle} follows the concurrency, so idle connections are retired
+ * when the listener shrinks.
+ *
+ * <p>A resize restarts the container, which rebalances the group, so after
+ * one the controller waits {@code cooldown} before the next. A stalled listener
+ * (lag but no progress, e.g. during a database outage) is not scaled up, as more
+ * consumers would not help.
+ */
+@Component
+@Slf4j
+public class ListenerConcurrencyController implements SmartLifecycle {
+
+    public static final String LISTENER_ID = "orders-listener";
+    static final String GROUP_ID = "order-consumer-group";
+    static final String TOPIC = "orders-topic";
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ConsumerLagSampler sampler;
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final Duration interval;
+    private final long cooldownNanos;
+    private final double drainTargetSeconds;
+    private final long idleLag;
+    private final int scaleDownSamples;
+
+    private final AtomicInteger allowedConcurrency = new AtomicInteger();
+    private final AtomicLong lag = new AtomicLong();
+    private volatile double processingRate;
+    private final Counter scaledUp;
+    private final Counter scaledDown;
+
+    private LongSupplier nanoTime = System::nanoTime;
+    private ScheduledExecutorService scheduler;
+    private ConsumerLagSampler.Sample previous;
+    private long previousNanos;
+    private long lastResizeNanos;
+    private int idleSamples;
+
+    public ListenerConcurrencyController(KafkaListenerEndpointRegistry registry,
+                                         ConsumerLagSampler sampler,
+                                         DataSource dataSource,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${order-consumer.scaling.enabled:true}") boolean enabled,
+                                         @Value("${order-consumer.scaling.min-concurrency:1}") int minConcurrency,
+                                         @Value("${order-consumer.scaling.max-concurrency:6}") int maxConcurrency,
+                                         @Value("${order-consumer.scaling.interval:15s}") Duration interval,
+                                         @Value("${order-consumer.scaling.cooldown:60s}") Duration cooldown,
+                                         @Value("${order-consumer.scaling.drain-target:60s}") Duration drainTarget,
+                                         @Value("${order-consumer.scaling.idle-lag:100}") long idleLag,
+                                         @Value("${order-consumer.scaling.scale-down-samples:4}") int scaleDownSamples) {
+        if (minConcurrency < 1 || maxConcurrency < minConcurrency) {
+            throw new IllegalArgumentException("Need 1 <= min-concurrency <= max-concurrency, got "
+                    + minConcurrency + " and " + maxConcurrency);
+        }
+        this.registry = registry;
+        this.sampler = sampler;
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.interval = interval;
+        this.cooldownNanos = cooldown.toNanos();
+        this.drainTargetSeconds = drainTarget.toMillis() / 1000.0;
+        this.idleLag = idleLag;
+        this.scaleDownSamples = scaleDownSamples;
+
+        Gauge.builder("orders.listener.concurrency", this, ListenerConcurrencyController::currentConcurrency)
+                .description("Consumer threads of the orders listener")
+                .register(meterRegistry);
+        Gauge.builder("orders.listener.concurrency.allowed", allowedConcurrency, AtomicInteger::get)
+                .description("Upper bound from max-concurrency, the partition count and the connection pool")
+                .register(meterRegistry);
+        Gauge.builder("orders.listener.lag", lag, AtomicLong::get)
+                .description("Records behind the end of orders-topic at the last sample")
+                .register(meterRegistry);
+        Gauge.builder("orders.listener.processing.rate", this, controller -> controller.processingRate)
+                .description("Records committed per second between the last two samples")
+                .register(meterRegistry);
+        this.scaledUp = Counter.builder("orders.listener.scaling")
+                .description("Concurrency changes made by the controller")
+                .tag("direction", "up")
+                .register(meterRegistry);
+        this.scaledDown = Counter.builder("orders.listener.scaling")
+                .description("Concurrency changes made by the controller")
+                .tag("direction", "down")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        ConcurrentMessageListenerContainer<?, ?> container = container();
+        if (container != null) {
+            alignPool(container.getConcurrency());
+        }
+        lastResizeNanos = nanoTime.getAsLong();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "listener-scaling");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::adjustSafely, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(interval.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /** Starts after and stops before the listener containers it resizes. */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE + 1;
+    }
+
+    private void adjustSafely() {
+        try {
+            adjust();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Skipping listener scaling, could not sample consumer lag: {}", e.getMessage());
+        }
+    }
+
+    void adjust() throws Exception {
+        ConcurrentMessageListenerContainer<?, ?> container = container();
+        if (container == null || !container.isRunning()) {
+            return;
+        }
+        ConsumerLagSampler.Sample sample = sampler.sample(GROUP_ID, TOPIC);
+        long now = nanoTime.getAsLong();
+        double rate = -1;
+        if (previous != null && now > previousNanos) {
+            rate = Math.max(0, sample.committed() - previous.committed()) * 1e9 / (now - previousNanos);
+            processingRate = rate;
+        }
+        previous = sample;
+        previousNanos = now;
+        lag.set(sample.lag());
+
+        int upper = upperBound(sample.partitions());
+        allowedConcurrency.set(upper);
+        int current = container.getConcurrency();
+        int target = decide(current, sample.lag(), rate, upper);
+        if (target != current && now - lastResizeNanos >= cooldownNanos) {
+            resize(container, current, target, sample.lag(), rate);
+            lastResizeNanos = nanoTime.getAsLong();
+        }
+    }
+
+    /**
+     * @param rate records per second, negative before the second sample
+     * @return the concurrency the listener should run at
+     */
+    int decide(int current, long lag, double rate, int upper) {
+        int lower = Math.min(minConcurrency, upper);
+        if (current > upper) {
+            return upper;
+        }
+        if (current < lower) {
+            return lower;
+        }
+        if (lag <= idleLag) {
+            if (++idleSamples >= scaleDownSamples && current > lower) {
+                idleSamples = 0;
+                return current - 1;
+            }
+            return current;
+        }
+        idleSamples = 0;
+        if (rate <= 0 || current >= upper) {
+            return current;
+        }
+        double drainSeconds = lag / rate;
+        if (drainSeconds <= drainTargetSeconds) {
+            return current;
+        }
+        int needed = (int) Math.ceil(current * drainSeconds / drainTargetSeconds);
+        return Math.min(upper, Math.max(current + 1, needed));
+    }
+
+    private int upperBound(int partitions) {
+        int upper = Math.min(maxConcurrency, Math.max(1, partitions));
+        if (dataSource instanceof HikariDataSource hikari) {
+            upper = Math.min(upper, hikari.getMaximumPoolSize());
+        }
+        return upper;
+    }
+
+    private void resize(ConcurrentMessageListenerContainer<?, ?> container, int from, int to, long lag,
+                        double rate) {
+        log.info("Scaling orders listener from {} to {} consumers (lag {}, {} records/s)", from, to, lag,
+                String.format("%.1f", rate));
+        container.stop();
+        container.setConcurrency(to);
+        alignPool(to);
+        container.start();
+        (to > from ? scaledUp : scaledDown).increment();
+    }
+
+    /** One idle connection per consumer; the rest are retired after the pool's idle timeout. */
+    private void alignPool(int concurrency) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            hikari.getHikariConfigMXBean().setMinimumIdle(Math.min(concurrency, hikari.getMaximumPoolSize()));
+        }
+    }
+
+    private ConcurrentMessageListenerContainer<?, ?> container() {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        return container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent ? concurrent : null;
+    }
+
+    private double currentConcurrency() {
+        ConcurrentMessageListenerContainer<?, ?> container = container();
+        return container == null ? 0 : container.getConcurrency();
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.order_consumer.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Service;
+
+import com.example.order_consumer.dedup.OrderIdFilter;
+import com.example.order_consumer.flow.WriteLatencyFlowControl;
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.model.Transaction;
+import com.example.order_consumer.repository.TransactionBatchRepository;
+import com.example.order_consumer.retry.OrderRetryRouter;
+import com.example.order_consumer.scaling.ListenerConcurrencyController;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores a whole poll of orders at once: one duplicate lookup and one multi-row
+ * insert in a single database transaction, instead of two round trips per
+ * order. The listener returns only after that transaction has committed, so the
+ * container commits the batch's offsets only for rows that are durable.
+ *
+ * <p>If the batch fails, its orders are stored one by one and those that still
+ * fail go to the retry tiers of {@link OrderRetryRouter}, so the partition
+ * keeps moving; orders whose id is already being retried are sent after it.
+ * While the database is unavailable, and with
+ * {@code order-consumer.retry.enabled=false}, the exception reaches the
+ * container's error handler instead, which backs off and redelivers the batch;
+ * rows that were already stored are then skipped as duplicates.
+ *
+ * <p>The time each poll takes to store, per order, feeds
+ * {@link WriteLatencyFlowControl}, which pauses the listener while the database
+ * is slow.
+ *
+ * <p>Only orders the {@link OrderIdFilter} cannot place are looked up; a poll of
+ * new orders goes straight to the insert. With
+ * {@code order-consumer.offset-store.enabled=true} the consumed offsets are
+ * stored in the same transaction instead (see {@link OffsetStoreWriter}) and
+ * there is no lookup at all; once orders were sent to the retry tiers, the
+ * offsets are moved past the whole poll after the sends.
+ *
+ * <p>Active unless {@code order-consumer.batch.enabled=false}, which switches
+ * back to the per-record {@link OrderConsumer}.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "order-consumer.batch.enabled", havingValue = "true", matchIfMissing = true)
+public class BatchOrderConsumer {
+    @Autowired
+    private TransactionBatchRepository transactionBatchRepo;
+
+    @Autowired
+    private OrderIdFilter orderIdFilter;
+
+    @Autowired
+    private OffsetStoreWriter offsetStoreWriter;
+
+    @Autowired
+    private LogEventPublisher logEventPublisher;
+
+    @Autowired
+    private OrderRetryRouter orderRetryRouter;
+
+    @Autowired
+    private WriteLatencyFlowControl writeLatencyFlowControl;
+
+    @Value("${order-consumer.offset-store.enabled:false}")
+    private boolean offsetStore;
+
+    @KafkaListener(id = ListenerConcurrencyController.LISTENER_ID, idIsGroup = false, topics = "orders-topic",
+            groupId = "order-consumer-group", containerFactory = "batchListenerContainerFactory")
+    public void consume(List<Order> orders, @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
+                        @Header(KafkaHeaders.OFFSET) List<Long> offsets) {
+        Map<Integer, Long> pollOffsets = offsetStore ? nextOffsets(partitions, offsets) : Map.of();
+        List<Order> parked = List.of();
+        if (orderRetryRouter.isEnabled()) {
+            parked = new ArrayList<>();
+            List<Order> ready = new ArrayList<>(orders.size());
+            List<Integer> readyPartitions = new ArrayList<>(orders.size());
+            List<Long> readyOffsets = new ArrayList<>(orders.size());
+            Set<String> parkedIds = orderRetryRouter.parkedAmong(orders.stream().map(Order::getOrderId).toList());
+            for (int i = 0; i < orders.size(); i++) {
+                if (parkedIds.contains(orders.get(i).getOrderId())) {
+                    parked.add(orders.get(i));
+                } else {
+                    ready.add(orders.get(i));
+                    readyPartitions.add(partitions.get(i));
+                    readyOffsets.add(offsets.get(i));
+                }
+            }
+            if (!parked.isEmpty()) {
+                orders = ready;
+                partitions = readyPartitions;
+                offsets = readyOffsets;
+            }
+        }
+
+        List<Transaction> transactions = orders.stream().map(Transaction::new).toList();
+        Set<Transaction> inserted = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Transaction> retried = Collections.newSetFromMap(new IdentityHashMap<>());
+        long start = System.nanoTime();
+        try {
+            inserted.addAll(offsetStore ? storeWithOffsets(transactions, partitions, offsets) : store(transactions));
+        } catch (RuntimeException e) {
+            log.error("Error storing batch of {} orders: {}", orders.size(), e.getMessage(), e);
+            if (OrderRetryRouter.isUnavailable(e)) {
+                // Redelivered by the container's error handler once the database is back
+                throw e;
+            }
+            if (!orderRetryRouter.isEnabled()) {
+                for (Order order : orders) {
+                    logEventPublisher.error(order.getOrderId(), e.getMessage());
+                }
+                throw e;
+            }
+            storeEach(orders, transactions, partitions, offsets, e, inserted, retried);
+        } finally {
+            writeLatencyFlowControl.recordWrite(start, transactions.size());
+        }
+        if (!parked.isEmpty()) {
+            log.info("Sending {} orders behind earlier ones still being retried", parked.size());
+            orderRetryRouter.follow(parked);
+        }
+        if (offsetStore && (!parked.isEmpty() || !retried.isEmpty())) {
+            // The retry tiers have them now; without this a restart would route them again
+            offsetStoreWriter.skip(pollOffsets);
+        }
+
+        log.info("Stored {} of {} orders, {} duplicates, {} sent for retry", inserted.size(), orders.size(),
+                orders.size() - inserted.size() - retried.size(), retried.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            if (inserted.contains(transaction)) {
+                logEventPublisher.success(partitions.get(i), transaction.getOrderId());
+            } else if (!retried.contains(transaction)) {
+                log.warn("Order {} already exists, skipping", transaction.getOrderId());
+                logEventPublisher.duplicate(transaction.getOrderId());
+            }
+        }
+    }
+
+    /**
+     * Stores the orders of a failed batch one at a time, so one bad order does not
+     * hold back the rest, and sends those that fail to the first retry tier, along
+     * with any later order of the same id. If the database turns out to be
+     * unavailable nothing is sent and the failure is thrown, so the batch is
+     * redelivered; the orders stored so far are then skipped as duplicates.
+     *
+     * <p>With the offset store, a partition's offset is not moved past an order
+     * that failed until that order has been sent; the rows after it are stored
+     * without their offsets, which the caller writes once the sends are done.
+     * Otherwise a crash before the sends would skip the failed order for good.
+     */
+    private void storeEach(List<Order> orders, List<Transaction> transactions, List<Integer> partitions,
+                           List<Long> offsets, RuntimeException batchFailure, Set<Transaction> inserted,
+                           Set<Transaction> retried) {
+        Map<RuntimeException, List<Order>> failed = new LinkedHashMap<>();
+        Set<String> failedIds = new HashSet<>();
+        Set<Integer> unsentPartitions = new HashSet<>();
+        RuntimeException failure = batchFailure;
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            if (!failedIds.contains(transaction.getOrderId())) {
+                try {
+                    inserted.addAll(offsetStore
+                            ? offsetStoreWriter.insertBatch(List.of(transaction), orderId -> true,
+                                    unsentPartitions.contains(partitions.get(i))
+                                            ? Map.of() : Map.of(partitions.get(i), offsets.get(i) + 1))
+                            : transactionBatchRepo.insertNew(List.of(transaction)));
+                    orderIdFilter.recordStored(transaction.getOrderId());
+                    continue;
+                } catch (RuntimeException e) {
+                    if (OrderRetryRouter.isUnavailable(e)) {
+                        throw e;
+                    }
+                    log.warn("Could not store order {}: {}", transaction.getOrderId(), e.getMessage());
+                    failure = e;
+                }
+            }
+            retried.add(transaction);
+            failedIds.add(transaction.getOrderId());
+            unsentPartitions.add(partitions.get(i));
+            failed.computeIfAbsent(failure, e -> new ArrayList<>()).add(orders.get(i));
+        }
+        failed.forEach((cause, retry) -> {
+            for (Order order : retry) {
+                logEventPublisher.error(order.getOrderId(), cause.getMessage());
+            }
+            orderRetryRouter.retry(retry, OrderRetryRouter.MAIN_TIER, 1, cause);
+        });
+    }
+
+    /**
+     * Stores the batch and the offsets after it in one transaction. Redelivered
+     * records never reach the listener, so nothing is looked up; an order sent
+     * twice under different offsets is caught by the unique key and the batch is
+     * retried with a full lookup.
+     */
+    private List<Transaction> storeWithOffsets(List<Transaction> transactions, List<Integer> partitions,
+                                               List<Long> offsets) {
+        Map<Integer, Long> nextOffsets = nextOffsets(partitions, offsets);
+        try {
+            return offsetStoreWriter.insertBatch(transactions, orderId -> false, nextOffsets);
+        } catch (DuplicateKeyException e) {
+            log.warn("Batch contains an order stored under another offset, retrying with a full lookup");
+            return offsetStoreWriter.insertBatch(transactions, orderId -> true, nextOffsets);
+        }
+    }
+
+    private static Map<Integer, Long> nextOffsets(List<Integer> partitions, List<Long> offsets) {
+        Map<Integer, Long> nextOffsets = new HashMap<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            nextOffsets.merge(partitions.get(i), offsets.get(i) + 1, Math::max);
+        }
+        return nextOffsets;
+    }
+
+    private List<Transaction> store(List<Transaction> transactions) {
+        List<Transaction> candidates = new ArrayList<>(transactions.size());
+        Set<String> uncertain = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            switch (orderIdFilter.check(transaction.getOrderId())) {
+                case NEW -> candidates.add(transaction);
+                case UNKNOWN -> {
+                    candidates.add(transaction);
+                    uncertain.add(transaction.getOrderId());
+                }
+                case DUPLICATE -> { }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        List<Transaction> inserted;
+        try {
+            inserted = transactionBatchRepo.insertNew(candidates, uncertain::contains);
+        } catch (DuplicateKeyException e) {
+            // The filter only remembers recent orders; the unique key caught an older one
+            log.warn("Batch contains an order the duplicate filter passed as new, retrying with a full lookup");
+            orderIdFilter.recordMissed();
+            inserted = transactionBatchRepo.insertNew(candidates);
+        }
+
+        // Whatever was not inserted was found stored, so every candidate is stored now
+        int notStored = 0;
+        for (Transaction transaction : inserted) {
+            if (uncertain.contains(transaction.getOrderId())) {
+                notStored++;
+            }
+        }
+        orderIdFilter.recordLookups(notStored);
+        for (Transaction transaction : candidates) {
+            orderIdFilter.recordStored(transaction.getOrderId());
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.order_consumer.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import com.example.order_consumer.model.LogMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the consumer's events to {@code logs-topic} off the listener
+ * thread. ERROR and DUPLICATE events go out one by one, keyed by order id.
+ * SUCCESS events only carry a count: they are added up per source partition and
+ * published once per {@code success-interval} as one message whose
+ * {@link LogMessage#getCount() count} is the number of orders stored, keyed by
+ * partition and interval start so compaction keeps every interval.
+ *
+ * <p>Messages wait in a bounded queue for a single sender thread. When the queue
+ * is full the message is dropped and counted in {@code orders.logs.dropped};
+ * the listener never waits on {@code logs-topic}.
+ *
+ * <p>With {@code order-consumer.logs.pipeline.enabled=false} every event,
+ * SUCCESS included, is sent from the listener thread as before.
+ */
+@Service
+@Slf4j
+public class LogEventPublisher implements SmartLifecycle {
+
+    static final String TOPIC = "logs-topic";
+    static final String SERVICE_NAME = "order-consumer";
+    private static final String SOURCE_TOPIC = "orders-topic";
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private record Event(String key, LogMessage message) {
+    }
+
+    private final KafkaTemplate<String, Object> logTemplate;
+    private final boolean enabled;
+    private final long successIntervalNanos;
+    private final Duration shutdownTimeout;
+    private final BlockingQueue<Event> queue;
+    private final Map<Integer, AtomicLong> successes = new ConcurrentHashMap<>();
+
+    private final Counter dropped;
+    private final Counter published;
+
+    private Thread sender;
+    private volatile boolean running;
+    private Instant intervalStart = Instant.now();
+    private long nextFlushNanos;
+
+    public LogEventPublisher(KafkaTemplate<String, Object> logTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${order-consumer.logs.pipeline.enabled:true}") boolean enabled,
+                             @Value("${order-consumer.logs.success-interval:10s}") Duration successInterval,
+                             @Value("${order-consumer.logs.queue-capacity:10000}") int queueCapacity,
+                             @Value("${order-consumer.logs.shutdown-timeout:5s}") Duration shutdownTimeout) {
+        this.logTemplate = logTemplate;
+        this.enabled = enabled;
+        this.successIntervalNanos = successInterval.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("orders.logs.queue.size", queue, BlockingQueue::size)
+                .description("Log messages waiting for the sender")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("orders.logs.dropped")
+                .description("Log messages dropped because the queue was full")
+                .register(meterRegistry);
+        this.published = Counter.builder("orders.logs.published")
+                .description("Log messages handed to the producer")
+                .register(meterRegistry);
+    }
+
+    public void success(int partition, String orderId) {
+        if (!enabled) {
+            send(new Event(orderId, new LogMessage(Instant.now(), SERVICE_NAME, "SUCCESS", null)));
+            return;
+        }
+        successes.computeIfAbsent(partition, p -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void duplicate(String orderId) {
+        publish(new Event(orderId, new LogMessage(Instant.now(), SERVICE_NAME, "DUPLICATE",
+                "Order already exists: " + orderId)));
+    }
+
+    public void error(String orderId, String errorMessage) {
+        publish(new Event(orderId, new LogMessage(Instant.now(), SERVICE_NAME, "ERROR", errorMessage)));
+    }
+
+    private void publish(Event event) {
+        if (!enabled) {
+            send(event);
+        } else if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /** Queues one SUCCESS message per partition with orders stored since the last flush. */
+    void flushSuccesses() {
+        Instant now = Instant.now();
+        for (Map.Entry<Integer, AtomicLong> entry : successes.entrySet()) {
+            long count = entry.getValue().getAndSet(0);
+            if (count > 0) {
+                String key = SOURCE_TOPIC + "-" + entry.getKey() + "@" + intervalStart;
+                publish(new Event(key, new LogMessage(now, SERVICE_NAME, "SUCCESS", null, count)));
+            }
+        }
+        intervalStart = now;
+    }
+
+    private void send(Event event) {
+        try {
+            logTemplate.send(TOPIC, event.key(), event.message());
+            published.increment();
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish {} log message for {}: {}", event.message().getStatus(), event.key(),
+                    e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || sender != null) {
+            return;
+        }
+        running = true;
+        intervalStart = Instant.now();
+        nextFlushNanos = System.nanoTime() + successIntervalNanos;
+        sender = new Thread(this::run, "order-consumer-logs");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /** Publishes the last interval's counts and whatever is queued, for up to {@code shutdown-timeout}. */
+    @Override
+    public synchronized void stop() {
+        if (sender == null) {
+            return;
+        }
+        running = false;
+        try {
+            sender.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (sender.isAlive()) {
+            log.warn("Dropping {} log messages still queued on shutdown", queue.size());
+            sender.interrupt();
+        }
+        sender = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return sender != null;
+    }
+
+    /** Starts before and stops after the listener containers, so their last events get out. */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 1;
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                long untilFlush = nextFlushNanos - System.nanoTime();
+                if (untilFlush <= 0) {
+                    flushSuccesses();
+                    nextFlushNanos = System.nanoTime() + successIntervalNanos;
+                    continue;
+                }
+                Event event = queue.poll(Math.min(untilFlush, MAX_POLL_NANOS), TimeUnit.NANOSECONDS);
+                if (event != null) {
+                    send(event);
+                }
+            }
+            flushSuccesses();
+            for (Event event = queue.poll(); event != null; event = queue.poll()) {
+                send(event);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
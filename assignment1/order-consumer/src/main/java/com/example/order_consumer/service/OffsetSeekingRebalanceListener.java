@@ -0,0 +1,50 @@
+package com.example.order_consumer.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Positions newly assigned {@code orders-topic} partitions at the offsets stored
+ * in MySQL by {@link OffsetStoreWriter}, rather than at Kafka's committed
+ * offsets, which can lag behind the database after a crash. Spring Boot applies
+ * it to every listener container factory built with its configurer.
+ *
+ * <p>If the offsets cannot be read the partitions start from Kafka's committed
+ * offsets; rows already stored are then rejected by the unique key on
+ * {@code order_id} and reported as duplicates.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "order-consumer.offset-store.enabled", havingValue = "true")
+public class OffsetSeekingRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    @Autowired
+    private OffsetStoreWriter offsetStoreWriter;
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Map<Integer, Long> nextOffsets;
+        try {
+            nextOffsets = offsetStoreWriter.nextOffsets();
+        } catch (RuntimeException e) {
+            log.error("Could not read stored offsets, resuming from Kafka's committed offsets: {}", e.getMessage(), e);
+            return;
+        }
+        for (TopicPartition partition : partitions) {
+            Long next = OffsetStoreWriter.TOPIC.equals(partition.topic()) ? nextOffsets.get(partition.partition()) : null;
+            if (next != null) {
+                log.info("Seeking {} to stored offset {}", partition, next);
+                consumer.seek(partition, next);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.order_consumer.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.order_consumer.model.Transaction;
+import com.example.order_consumer.repository.ConsumerOffsetRepository;
+import com.example.order_consumer.repository.TransactionBatchRepository;
+import com.example.order_consumer.repository.TransactionRepository;
+
+/**
+ * Writes orders together with the offsets they were consumed from, in one
+ * database transaction, for {@code order-consumer.offset-store.enabled=true}.
+ * Either both the rows and the advanced offsets are durable or neither is, so
+ * after seeking to the stored offsets (see {@link OffsetSeekingRebalanceListener})
+ * every record is stored exactly once.
+ */
+@Service
+public class OffsetStoreWriter {
+
+    static final String GROUP_ID = "order-consumer-group";
+    static final String TOPIC = "orders-topic";
+
+    @Autowired
+    private TransactionBatchRepository transactionBatchRepo;
+
+    @Autowired
+    private TransactionRepository transactionRepo;
+
+    @Autowired
+    private ConsumerOffsetRepository offsetRepo;
+
+    /**
+     * Inserts the batch as {@link TransactionBatchRepository#insertNew(List, Predicate)}
+     * does and moves each partition to its next offset.
+     */
+    @Transactional
+    public List<Transaction> insertBatch(List<Transaction> transactions, Predicate<String> mayBeStored,
+                                         Map<Integer, Long> nextOffsets) {
+        List<Transaction> inserted = transactionBatchRepo.insertNew(transactions, mayBeStored);
+        offsetRepo.saveNextOffsets(GROUP_ID, TOPIC, nextOffsets);
+        return inserted;
+    }
+
+    @Transactional
+    public void save(Transaction transaction, int partition, long nextOffset) {
+        transactionRepo.saveAndFlush(transaction);
+        offsetRepo.saveNextOffsets(GROUP_ID, TOPIC, Map.of(partition, nextOffset));
+    }
+
+    /** Moves past records that stored nothing, such as duplicates. */
+    @Transactional
+    public void skip(int partition, long nextOffset) {
+        skip(Map.of(partition, nextOffset));
+    }
+
+    /** Moves past records handed to a retry tier, which are no longer this partition's to store. */
+    @Transactional
+    public void skip(Map<Integer, Long> nextOffsets) {
+        offsetRepo.saveNextOffsets(GROUP_ID, TOPIC, nextOffsets);
+    }
+
+    public Map<Integer, Long> nextOffsets() {
+        return offsetRepo.findNextOffsets(GROUP_ID, TOPIC);
+    }
+}
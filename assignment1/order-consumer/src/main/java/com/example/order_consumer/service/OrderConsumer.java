@@ -1,71 +1,155 @@
 package com.example.order_consumer.service;
 
-import java.time.Instant;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
-import com.example.order_consumer.model.LogMessage;
+import com.example.order_consumer.dedup.OrderIdFilter;
+import com.example.order_consumer.dedup.OrderIdFilter.Verdict;
+import com.example.order_consumer.flow.WriteLatencyFlowControl;
 import com.example.order_consumer.model.Order;
 import com.example.order_consumer.model.Transaction;
 import com.example.order_consumer.repository.TransactionRepository;
+import com.example.order_consumer.retry.OrderRetryRouter;
+import com.example.order_consumer.scaling.ListenerConcurrencyController;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Stores orders one record at a time. Only active with
+ * {@code order-consumer.batch.enabled=false}; {@link BatchOrderConsumer} is the default.
+ * The {@code existsByOrderId} lookup is skipped for orders the {@link OrderIdFilter}
+ * proves new. With {@code order-consumer.offset-store.enabled=true} each row is
+ * stored together with its offset through {@link OffsetStoreWriter} and not
+ * looked up at all. Orders that cannot be stored go to the retry tiers of
+ * {@link OrderRetryRouter}; later orders with the same id follow them there.
+ * While the database is unavailable the record is redelivered instead, after
+ * the error handler's back-off.
+ * The time each save takes feeds {@link WriteLatencyFlowControl}.
+ */
 @Service
 @Slf4j
+@ConditionalOnProperty(name = "order-consumer.batch.enabled", havingValue = "false")
 public class OrderConsumer {
     @Autowired
     private TransactionRepository transactionRepo;
     
     @Autowired
-    private KafkaTemplate<String, Object> logTemplate;
+    private OrderIdFilter orderIdFilter;
 
-    @KafkaListener(topics = "orders-topic", groupId = "order-consumer-group")
-    public void consume(Order order) {
-        LogMessage logMessage;
-        
+    @Autowired
+    private OffsetStoreWriter offsetStoreWriter;
+
+    @Autowired
+    private LogEventPublisher logEventPublisher;
+
+    @Autowired
+    private OrderRetryRouter orderRetryRouter;
+
+    @Autowired
+    private WriteLatencyFlowControl writeLatencyFlowControl;
+
+    @Value("${order-consumer.offset-store.enabled:false}")
+    private boolean offsetStore;
+
+    @KafkaListener(id = ListenerConcurrencyController.LISTENER_ID, idIsGroup = false, topics = "orders-topic",
+            groupId = "order-consumer-group")
+    public void consume(Order order, @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+                        @Header(KafkaHeaders.OFFSET) long offset) {
+        if (orderRetryRouter.isEnabled() && orderRetryRouter.isParked(order.getOrderId())) {
+            log.info("Sending order {} behind an earlier one still being retried", order.getOrderId());
+            orderRetryRouter.follow(List.of(order));
+            if (offsetStore) {
+                offsetStoreWriter.skip(partition, offset + 1);
+            }
+            return;
+        }
         try {
             log.info("Received order: {}", order);
             
+            if (offsetStore) {
+                storeWithOffset(order, partition, offset);
+                return;
+            }
+            
             // Check for duplicate orders
-            if (transactionRepo.existsByOrderId(order.getOrderId())) {
-                log.warn("Order {} already exists, skipping", order.getOrderId());
-                logMessage = new LogMessage(
-                    Instant.now(),
-                    "order-consumer",
-                    "DUPLICATE",
-                    "Order already exists: " + order.getOrderId()
-                );
-                logTemplate.send("logs-topic", order.getOrderId(), logMessage);
+            Verdict verdict = orderIdFilter.check(order.getOrderId());
+            boolean duplicate = verdict == Verdict.DUPLICATE;
+            if (verdict == Verdict.UNKNOWN) {
+                duplicate = transactionRepo.existsByOrderId(order.getOrderId());
+                orderIdFilter.recordLookups(duplicate ? 0 : 1);
+            }
+            if (duplicate) {
+                orderIdFilter.recordStored(order.getOrderId());
+                sendDuplicate(order);
                 return;
             }
             
             Transaction transaction = new Transaction(order);
-            transactionRepo.save(transaction);
+            long start = System.nanoTime();
+            try {
+                transactionRepo.save(transaction);
+            } catch (DataIntegrityViolationException e) {
+                // The filter only remembers recent orders; the unique key caught an older one
+                if (verdict != Verdict.NEW || !transactionRepo.existsByOrderId(order.getOrderId())) {
+                    throw e;
+                }
+                orderIdFilter.recordMissed();
+                orderIdFilter.recordStored(order.getOrderId());
+                sendDuplicate(order);
+                return;
+            } finally {
+                writeLatencyFlowControl.recordWrite(start, 1);
+            }
+            orderIdFilter.recordStored(order.getOrderId());
             
             log.info("Successfully saved order {} to database", order.getOrderId());
+            logEventPublisher.success(partition, order.getOrderId());
             
-            logMessage = new LogMessage(
-                Instant.now(),
-                "order-consumer",
-                "SUCCESS",
-                null
-            );
-            
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
+            if (OrderRetryRouter.isUnavailable(e)) {
+                // Redelivered by the container's error handler once the database is back
+                throw e;
+            }
             log.error("Error processing order {}: {}", order.getOrderId(), e.getMessage(), e);
-            
-            logMessage = new LogMessage(
-                Instant.now(),
-                "order-consumer",
-                "ERROR",
-                e.getMessage()
-            );
+            logEventPublisher.error(order.getOrderId(), e.getMessage());
+            if (orderRetryRouter.isEnabled()) {
+                orderRetryRouter.retry(List.of(order), OrderRetryRouter.MAIN_TIER, 1, e);
+                if (offsetStore) {
+                    offsetStoreWriter.skip(partition, offset + 1);
+                }
+            }
         }
-        
-        logTemplate.send("logs-topic", order.getOrderId(), logMessage);
+    }
+
+    /** Redelivered records never reach the listener; only the unique key can find a duplicate. */
+    private void storeWithOffset(Order order, int partition, long offset) {
+        long start = System.nanoTime();
+        try {
+            offsetStoreWriter.save(new Transaction(order), partition, offset + 1);
+        } catch (DataIntegrityViolationException e) {
+            if (!transactionRepo.existsByOrderId(order.getOrderId())) {
+                throw e;
+            }
+            offsetStoreWriter.skip(partition, offset + 1);
+            sendDuplicate(order);
+            return;
+        } finally {
+            writeLatencyFlowControl.recordWrite(start, 1);
+        }
+        log.info("Successfully saved order {} to database", order.getOrderId());
+        logEventPublisher.success(partition, order.getOrderId());
+    }
+
+    private void sendDuplicate(Order order) {
+        log.warn("Order {} already exists, skipping", order.getOrderId());
+        logEventPublisher.duplicate(order.getOrderId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.example.order_consumer.bench;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.model.Transaction;
+import com.example.order_consumer.repository.TransactionBatchRepository;
+
+/**
+ * Orders stored per second by the per-record path, a duplicate check and an
+ * insert per order, each committed on its own, against
+ * {@link TransactionBatchRepository}, one {@code IN} query and one multi-row
+ * insert per poll in one transaction. The per-record path is replayed over JDBC,
+ * which is cheaper than the JPA calls it stands for. Needs a MySQL instance with
+ * the {@code transactions} table, e.g. the one from docker-compose:
+ *
+ * <pre>
+ * mvn -pl order-consumer -Pbenchmarks test-compile exec:exec \
+ *     -Djmh.args="ConsumerWritePath -jvmArgs -Dbench.jdbc.url=jdbc:mysql://localhost:3306/shopstream"
+ * </pre>
+ *
+ * Rows written by the benchmark have order ids starting with {@code bench-} and
+ * are deleted afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ConsumerWritePathBenchmark {
+
+    private static final int POLL = 500;
+
+    @Param({ "RECORD", "BATCH" })
+    private String path;
+
+    /** Share of each poll that is already stored, as after a redelivery. */
+    @Param({ "0", "10" })
+    private int duplicatePercent;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private TransactionBatchRepository batchRepository;
+    private final List<Transaction> previousPoll = new ArrayList<>();
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("bench.jdbc.url", "jdbc:mysql://localhost:3306/shopstream"),
+                System.getProperty("bench.jdbc.user", "shopuser"),
+                System.getProperty("bench.jdbc.password", "shoppassword"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        batchRepository = new TransactionBatchRepository();
+        ReflectionTestUtils.setField(batchRepository, "jdbcTemplate", jdbcTemplate);
+        deleteBenchRows();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        deleteBenchRows();
+        dataSource.destroy();
+    }
+
+    private void deleteBenchRows() {
+        jdbcTemplate.update("DELETE FROM transactions WHERE order_id LIKE 'bench-%'");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL)
+    public void storePoll() {
+        List<Transaction> poll = nextPoll();
+        if ("BATCH".equals(path)) {
+            transactionTemplate.executeWithoutResult(status -> batchRepository.insertNew(poll));
+        } else {
+            for (Transaction transaction : poll) {
+                Boolean exists = jdbcTemplate.queryForObject(
+                        "SELECT EXISTS(SELECT 1 FROM transactions WHERE order_id = ?)", Boolean.class,
+                        transaction.getOrderId());
+                if (!Boolean.TRUE.equals(exists)) {
+                    jdbcTemplate.update("INSERT INTO transactions"
+                            + " (order_id, customer_id, product_id, quantity, price, order_time, status)"
+                            + " VALUES (?, ?, ?, ?, ?, ?, ?)",
+                            transaction.getOrderId(), transaction.getCustomerId(), transaction.getProductId(),
+                            transaction.getQuantity(), transaction.getPrice(), transaction.getOrderTime(),
+                            transaction.getStatus());
+                }
+            }
+        }
+    }
+
+    private List<Transaction> nextPoll() {
+        List<Transaction> poll = new ArrayList<>(POLL);
+        int duplicates = Math.min(previousPoll.size(), POLL * duplicatePercent / 100);
+        poll.addAll(previousPoll.subList(0, duplicates));
+        LocalDateTime now = LocalDateTime.now();
+        while (poll.size() < POLL) {
+            poll.add(new Transaction(new Order("bench-" + sequence++, "customer-1", "product-1", 1, BigDecimal.TEN,
+                    now, "PENDING")));
+        }
+        previousPoll.clear();
+        previousPoll.addAll(poll.subList(duplicates, POLL));
+        return poll;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.order_consumer.bench;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.order_consumer.dedup.OrderIdFilter;
+import com.example.order_consumer.flow.WriteLatencyFlowControl;
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.model.Transaction;
+import com.example.order_consumer.repository.H2RetryParking;
+import com.example.order_consumer.repository.TransactionBatchRepository;
+import com.example.order_consumer.retry.OrderRetryRouter;
+import com.example.order_consumer.service.BatchOrderConsumer;
+import com.example.order_consumer.service.LogEventPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Orders per second through {@link BatchOrderConsumer#consume} with the log event
+ * pipeline on, SUCCESS folded into per-partition counts and the rest queued for a
+ * background sender, and off, one {@code logs-topic} send per order on the
+ * listener thread. The database is stubbed out so the logging cost is not hidden
+ * behind MySQL round trips; {@code logs-topic} is on an embedded KRaft broker.
+ * After each trial the number of {@code logs-topic} messages per order is printed.
+ *
+ * <pre>
+ * mvn -pl order-consumer -Pbenchmarks test-compile exec:exec -Djmh.args="LogPublishing"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class LogPublishingBenchmark {
+
+    private static final int POLL = 500;
+    private static final int PARTITIONS = 3;
+
+    @Param({ "true", "false" })
+    private boolean pipeline;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private DefaultKafkaProducerFactory<String, Object> producerFactory;
+    private SimpleMeterRegistry meterRegistry;
+    private LogEventPublisher logEventPublisher;
+    private BatchOrderConsumer consumer;
+    private final List<Integer> partitions = new ArrayList<>(POLL);
+    private long sequence;
+    private long orders;
+
+    /** Stores every order, as MySQL would for a poll of new orders, without a database. */
+    private static final class InMemoryRepository extends TransactionBatchRepository {
+        @Override
+        public List<Transaction> insertNew(List<Transaction> transactions, Predicate<String> mayBeStored) {
+            return transactions;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, "logs-topic");
+        broker.afterPropertiesSet();
+        producerFactory = new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class));
+        KafkaTemplate<String, Object> logTemplate = new KafkaTemplate<>(producerFactory);
+
+        meterRegistry = new SimpleMeterRegistry();
+        logEventPublisher = new LogEventPublisher(logTemplate, meterRegistry, pipeline, Duration.ofSeconds(10),
+                10_000, Duration.ofSeconds(5));
+        logEventPublisher.start();
+        OrderIdFilter orderIdFilter = new OrderIdFilter(new JdbcTemplate(), meterRegistry, true, 1_000_000, 0.01,
+                10_000, 0);
+
+        consumer = new BatchOrderConsumer();
+        ReflectionTestUtils.setField(consumer, "transactionBatchRepo", new InMemoryRepository());
+        ReflectionTestUtils.setField(consumer, "orderIdFilter", orderIdFilter);
+        ReflectionTestUtils.setField(consumer, "logEventPublisher", logEventPublisher);
+        ReflectionTestUtils.setField(consumer, "orderRetryRouter", new OrderRetryRouter(logTemplate,
+                H2RetryParking.create(), meterRegistry, true, List.of(Duration.ofSeconds(5)),
+                Duration.ofSeconds(10)));
+        ReflectionTestUtils.setField(consumer, "writeLatencyFlowControl", new WriteLatencyFlowControl(
+                new KafkaListenerEndpointRegistry(), meterRegistry, false, 0.2, Duration.ofMillis(500),
+                Duration.ofMillis(200), Duration.ofSeconds(2), Duration.ofSeconds(30)));
+        for (int i = 0; i < POLL; i++) {
+            partitions.add(i % PARTITIONS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        logEventPublisher.stop();
+        producerFactory.destroy();
+        broker.destroy();
+        double published = meterRegistry.get("orders.logs.published").counter().count();
+        double dropped = meterRegistry.get("orders.logs.dropped").counter().count();
+        System.out.printf("%npipeline=%s: %d orders, %.0f logs-topic messages (%.6f per order), %.0f dropped%n",
+                pipeline, orders, published, published / orders, dropped);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL)
+    public void consumePoll() {
+        List<Order> poll = new ArrayList<>(POLL);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < POLL; i++) {
+            poll.add(new Order("bench-" + sequence++, "customer-1", "product-1", 1, BigDecimal.TEN, now, "PENDING"));
+        }
+        consumer.consume(poll, Collections.unmodifiableList(partitions), Collections.nCopies(POLL, 0L));
+        orders += POLL;
+    }
+}
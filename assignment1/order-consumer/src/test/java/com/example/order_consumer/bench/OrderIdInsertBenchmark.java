@@ -0,0 +1,111 @@
+package com.example.order_consumer.bench;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert throughput into a copy of the {@code transactions} table with random
+ * UUID order ids against time-ordered ones. Needs a MySQL instance, e.g. the one
+ * from docker-compose:
+ *
+ * <pre>
+ * mvn -pl order-consumer -Pbenchmarks test-compile exec:exec \
+ *     -Djmh.args="OrderIdInsert -jvmArgs -Dbench.jdbc.url=jdbc:mysql://localhost:3306/shopstream"
+ * </pre>
+ *
+ * The gap only opens up once the {@code order_id} index no longer fits in the
+ * buffer pool, so the table is kept across iterations and grows with each one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class OrderIdInsertBenchmark {
+
+    private static final int BATCH = 500;
+    private static final String TABLE = "bench_transactions";
+
+    @Param({ "random", "sequential" })
+    private String keys;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:mysql://localhost:3306/shopstream"),
+                System.getProperty("bench.jdbc.user", "shopuser"),
+                System.getProperty("bench.jdbc.password", "shoppassword"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " LIKE transactions");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("INSERT INTO " + TABLE
+                + " (order_id, customer_id, product_id, quantity, price, order_time, status) VALUES (?, ?, ?, ?, ?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertBatch() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < BATCH; i++) {
+            insert.setString(1, nextOrderId());
+            insert.setString(2, "customer-1");
+            insert.setString(3, "product-1");
+            insert.setInt(4, 1);
+            insert.setBigDecimal(5, BigDecimal.TEN);
+            insert.setTimestamp(6, now);
+            insert.setString(7, "PENDING");
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    /**
+     * Sequential ids mirror the producer's ULIDs: a millisecond prefix followed by
+     * a counter, of the same length as a ULID.
+     */
+    private String nextOrderId() {
+        if ("random".equals(keys)) {
+            return UUID.randomUUID().toString();
+        }
+        return String.format("%013x%013x", System.currentTimeMillis(), sequence++);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.order_consumer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+class KafkaListenerConfigTest {
+
+    private static final String TOPIC = "orders-topic";
+    private static final String GROUP = "order-consumer-test";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private EmbeddedKafkaKraftBroker broker;
+    private Admin admin;
+    private KafkaMessageListenerContainer<String, String> container;
+
+    @BeforeEach
+    void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 1, TOPIC);
+        broker.afterPropertiesSet();
+        admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()));
+    }
+
+    @AfterEach
+    void stopBroker() {
+        if (container != null) {
+            container.stop();
+        }
+        admin.close();
+        broker.destroy();
+    }
+
+    @Test
+    void redeliversAFailedBatchWithoutCommittingIt() throws Exception {
+        publish("order-1", "order-2", "order-3");
+        // More than the default handler's nine retries, after which it would commit
+        AtomicInteger failures = new AtomicInteger(12);
+        List<List<String>> deliveries = new CopyOnWriteArrayList<>();
+        List<OffsetAndMetadata> committedWhileFailing = new CopyOnWriteArrayList<>();
+
+        start((BatchMessageListener<String, String>) records -> {
+            deliveries.add(records.stream().map(ConsumerRecord::value).toList());
+            if (failures.getAndDecrement() > 0) {
+                committedWhileFailing.add(committed());
+                throw new DataAccessResourceFailureException("connection lost");
+            }
+        });
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> committed() != null);
+        assertThat(deliveries).hasSize(13).containsOnly(List.of("order-1", "order-2", "order-3"));
+        assertThat(committedWhileFailing).hasSize(12).containsOnlyNulls();
+        assertThat(committed().offset()).isEqualTo(3);
+    }
+
+    private void start(BatchMessageListener<String, String> listener) {
+        DefaultKafkaConsumerFactory<String, String> consumerFactory = new DefaultKafkaConsumerFactory<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ConsumerConfig.GROUP_ID_CONFIG, GROUP,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"),
+                new StringDeserializer(), new StringDeserializer());
+        ContainerProperties properties = new ContainerProperties(TOPIC);
+        properties.setAckMode(AckMode.BATCH);
+        properties.setMessageListener(listener);
+        container = new KafkaMessageListenerContainer<>(consumerFactory, properties);
+        container.setCommonErrorHandler(
+                KafkaListenerConfig.backOffErrorHandler(Duration.ofMillis(10), Duration.ofMillis(100)));
+        container.start();
+    }
+
+    private void publish(String... values) throws Exception {
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()),
+                new StringSerializer(), new StringSerializer())) {
+            for (String value : values) {
+                producer.send(new ProducerRecord<>(TOPIC, 0, value, value)).get();
+            }
+        }
+    }
+
+    private OffsetAndMetadata committed() {
+        try {
+            return admin.listConsumerGroupOffsets(GROUP).partitionsToOffsetAndMetadata().get().get(PARTITION);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
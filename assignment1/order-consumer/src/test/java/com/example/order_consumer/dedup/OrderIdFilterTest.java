@@ -0,0 +1,128 @@
+package com.example.order_consumer.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.order_consumer.dedup.OrderIdFilter.Verdict;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderIdFilterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndStaysNearItsFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("order-" + i);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(filter.mightContain("order-" + i)).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.015);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+
+    @Test
+    void answersNewDuplicateOrUnknown() {
+        OrderIdFilter filter = filter(1_000, 2);
+        filter.recordStored("order-1");
+        filter.recordStored("order-2");
+        filter.recordStored("order-3");
+
+        assertThat(filter.check("order-9")).isEqualTo(Verdict.NEW);
+        assertThat(filter.check("order-3")).isEqualTo(Verdict.DUPLICATE);
+        // Evicted from the LRU but still in the Bloom filter
+        assertThat(filter.check("order-1")).isEqualTo(Verdict.UNKNOWN);
+
+        filter.recordLookups(0);
+        assertThat(meterRegistry.get("orders.dedup.checks").tag("verdict", "new").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.dedup.hit.rate").gauge().value()).isEqualTo(2.0 / 3);
+        assertThat(meterRegistry.get("orders.dedup.false-positive.rate").gauge().value()).isZero();
+    }
+
+    @Test
+    void dropsTheOldestGenerationWhenTheCurrentOneIsFull() {
+        OrderIdFilter filter = filter(100, 1);
+        for (int i = 0; i < 300; i++) {
+            filter.recordStored("order-" + i);
+        }
+
+        // The previous generation holds orders 100-199, the current one 200-299
+        assertThat(filter.check("order-150")).isEqualTo(Verdict.UNKNOWN);
+        assertThat(filter.check("order-250")).isEqualTo(Verdict.UNKNOWN);
+        long forgotten = java.util.stream.IntStream.range(0, 100)
+                .filter(i -> filter.check("order-" + i) == Verdict.NEW)
+                .count();
+        assertThat(forgotten).isGreaterThan(90);
+    }
+
+    @Test
+    void keepsTheFalsePositiveRateAcrossBothGenerations() {
+        OrderIdFilter filter = filter(10_000, 1);
+        for (int i = 0; i < 20_000; i++) {
+            filter.recordStored("order-" + i);
+        }
+
+        long unknown = java.util.stream.IntStream.range(0, 100_000)
+                .filter(i -> filter.check("other-" + i) == Verdict.UNKNOWN)
+                .count();
+        // Two generations at the full rate each would be close to 0.02
+        assertThat(unknown / 100_000.0).isLessThan(0.012);
+    }
+
+    @Test
+    void warmsUpFromTheNewestRows() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(10)))
+                .thenReturn(List.of("order-3", "order-2", "order-1"));
+        OrderIdFilter filter = new OrderIdFilter(jdbcTemplate, meterRegistry, true, 1_000, 0.01, 1, 10);
+
+        filter.warmUp();
+
+        assertThat(filter.check("order-3")).isEqualTo(Verdict.DUPLICATE);
+        assertThat(filter.check("order-1")).isEqualTo(Verdict.UNKNOWN);
+        assertThat(filter.check("order-4")).isEqualTo(Verdict.NEW);
+    }
+
+    @Test
+    void startsEmptyWhenTheDatabaseIsUnavailable() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(10)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        OrderIdFilter filter = new OrderIdFilter(jdbcTemplate, meterRegistry, true, 1_000, 0.01, 1, 10);
+
+        filter.warmUp();
+
+        assertThat(filter.check("order-1")).isEqualTo(Verdict.NEW);
+    }
+
+    @Test
+    void asksTheDatabaseForEveryOrderWhenDisabled() {
+        OrderIdFilter filter = new OrderIdFilter(jdbcTemplate, meterRegistry, false, 1_000, 0.01, 10, 10);
+        filter.recordStored("order-1");
+
+        assertThat(filter.check("order-1")).isEqualTo(Verdict.UNKNOWN);
+        assertThat(filter.check("order-2")).isEqualTo(Verdict.UNKNOWN);
+    }
+
+    private OrderIdFilter filter(long expectedOrders, int recentOrders) {
+        return new OrderIdFilter(jdbcTemplate, meterRegistry, true, expectedOrders, 0.01, recentOrders, 0);
+    }
+}
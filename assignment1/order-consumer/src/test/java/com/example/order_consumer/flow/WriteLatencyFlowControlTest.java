@@ -0,0 +1,117 @@
+package com.example.order_consumer.flow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import com.example.order_consumer.flow.WriteLatencyFlowControl.State;
+import com.example.order_consumer.scaling.ListenerConcurrencyController;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WriteLatencyFlowControlTest {
+
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WriteLatencyFlowControl control = new WriteLatencyFlowControl(registry, meterRegistry, true, 0.5,
+            Duration.ofMillis(500), Duration.ofMillis(200), Duration.ofSeconds(2), Duration.ofSeconds(5));
+
+    @BeforeEach
+    void setUp() {
+        when(registry.getListenerContainer(ListenerConcurrencyController.LISTENER_ID)).thenReturn(container);
+    }
+
+    @Test
+    void pausesOnlyOnceTheAverageReachesThePauseLatency() {
+        write(100);
+        write(900);
+        // (100 + 900) / 2 = 500
+        verify(container).pause();
+        assertThat(control.state()).isEqualTo(State.PAUSED);
+        assertThat(meterRegistry.get("orders.flow.pauses").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.flow.state").tag("state", "paused").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.flow.write.latency.average").gauge().value()).isEqualTo(500);
+    }
+
+    @Test
+    void ignoresASingleSlowWriteAmongFastOnes() {
+        write(50);
+        write(50);
+        write(800);
+        write(50);
+
+        verify(container, never()).pause();
+        assertThat(control.state()).isEqualTo(State.RUNNING);
+    }
+
+    @Test
+    void recoversOnlyBelowTheResumeLatencyAfterAPause() {
+        write(1_000);
+        control.resume();
+        verify(container).resume();
+        assertThat(control.state()).isEqualTo(State.PROBING);
+
+        // Between the thresholds: running, but not recovered
+        write(300);
+        assertThat(control.state()).isEqualTo(State.PROBING);
+        write(150);
+        assertThat(control.state()).isEqualTo(State.PROBING);
+        write(150);
+        // 300 -> 225 -> 187.5
+        assertThat(control.state()).isEqualTo(State.RUNNING);
+        assertThat(control.nextPause()).isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void doublesThePauseWhileWritesStaySlow() {
+        write(1_000);
+        assertThat(control.nextPause()).isEqualTo(Duration.ofSeconds(4));
+        control.resume();
+        // The average starts over after a pause, so one slow write is enough
+        write(600);
+        assertThat(control.state()).isEqualTo(State.PAUSED);
+        assertThat(control.nextPause()).isEqualTo(Duration.ofSeconds(5));
+        verify(container, times(2)).pause();
+
+        // Writes of the poll in hand do not pause it again
+        write(2_000);
+        verify(container, times(2)).pause();
+    }
+
+    @Test
+    void judgesABatchByItsTimePerRow() {
+        // 10 s for 500 rows is 20 ms per row
+        control.recordWrite(System.nanoTime() - Duration.ofSeconds(10).toNanos(), 500);
+
+        verify(container, never()).pause();
+        assertThat(meterRegistry.get("orders.flow.write.latency.average").gauge().value()).isBetween(20.0, 21.0);
+    }
+
+    @Test
+    void pausesAndResumesTheRegisteredContainersWithTheOrdersListener() {
+        MessageListenerContainer retryContainer = mock(MessageListenerContainer.class);
+        control.register(retryContainer);
+
+        write(1_000);
+        control.resume();
+
+        verify(retryContainer).pause();
+        verify(retryContainer).resume();
+        verify(container).pause();
+    }
+
+    private void write(long millis) {
+        control.record(Duration.ofMillis(millis).toNanos());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.order_consumer.repository;
+
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** {@link RetryParkingRepository} on its own H2 database in MySQL mode, for tests of the retry path. */
+public final class H2RetryParking {
+
+    private H2RetryParking() {
+    }
+
+    public static RetryParkingRepository create() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:retry-parked-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE retry_parked (order_id VARCHAR(255) NOT NULL PRIMARY KEY,"
+                + " tier INT NOT NULL, records INT NOT NULL)");
+        RetryParkingRepository parking = new RetryParkingRepository();
+        ReflectionTestUtils.setField(parking, "jdbcTemplate", jdbcTemplate);
+        return parking;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.order_consumer.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.model.Transaction;
+
+class TransactionBatchRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionBatchRepository repository = new TransactionBatchRepository();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void looksUpDuplicatesOnceAndInsertsTheRestInOneStatement() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of("order-2"));
+        Transaction first = transaction("order-1");
+        Transaction third = transaction("order-3");
+
+        List<Transaction> inserted = repository.insertNew(
+                List.of(first, transaction("order-2"), third, transaction("order-1")));
+
+        assertThat(inserted).containsExactly(first, third);
+        ArgumentCaptor<Object[]> lookup = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(String.class), lookup.capture());
+        assertThat(lookup.getValue()).containsExactly("order-1", "order-2", "order-3");
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(sql.capture(), args.capture());
+        assertThat(sql.getValue()).endsWith("VALUES (?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?)");
+        assertThat(args.getValue()).hasSize(14).contains("order-1", "order-3").doesNotContain("order-2");
+    }
+
+    @Test
+    void looksUpOnlyTheOrdersThatMayBeStored() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of());
+
+        repository.insertNew(List.of(transaction("order-1"), transaction("order-2")), "order-2"::equals);
+
+        ArgumentCaptor<Object[]> lookup = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(anyString(), eq(String.class), lookup.capture());
+        assertThat(lookup.getValue()).containsExactly("order-2");
+    }
+
+    @Test
+    void skipsTheLookupWhenNoOrderMayBeStored() {
+        List<Transaction> inserted = repository.insertNew(List.of(transaction("order-1")), orderId -> false);
+
+        assertThat(inserted).extracting(Transaction::getOrderId).containsExactly("order-1");
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any(Object[].class));
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void skipsTheInsertWhenEveryOrderIsStored() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of("order-1"));
+
+        assertThat(repository.insertNew(List.of(transaction("order-1")))).isEmpty();
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    private static Transaction transaction(String orderId) {
+        return new Transaction(new Order(orderId, "customer-1", "product-1", 1, new BigDecimal("10.00"),
+                LocalDateTime.now(), "PENDING"));
+    }
+}
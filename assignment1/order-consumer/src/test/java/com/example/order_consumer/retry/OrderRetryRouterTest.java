@@ -0,0 +1,132 @@
+package com.example.order_consumer.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.repository.H2RetryParking;
+import com.example.order_consumer.repository.RetryParkingRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderRetryRouterTest {
+
+    private static final Exception FAILURE = new DataAccessResourceFailureException("connection lost");
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> template = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetryParkingRepository parking = H2RetryParking.create();
+    private final OrderRetryRouter router = new OrderRetryRouter(template, parking, meterRegistry, true,
+            List.of(Duration.ofSeconds(5), Duration.ofSeconds(30)), Duration.ofSeconds(1));
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void movesAFailingOrderThroughTheTiersToTheDeadLetterTopic() {
+        long before = System.currentTimeMillis();
+        router.retry(List.of(order("order-1")), OrderRetryRouter.MAIN_TIER, 1, FAILURE);
+        router.retry(List.of(order("order-1")), 0, 2, FAILURE);
+        List<Order> dead = router.retry(List.of(order("order-1")), 1, 3, FAILURE);
+
+        List<ProducerRecord<String, Object>> sent = sent();
+        assertThat(sent).extracting(ProducerRecord::topic)
+                .containsExactly("orders-topic-retry-0", "orders-topic-retry-1", "orders-topic-dlt");
+        assertThat(sent).extracting(ProducerRecord::key).containsOnly("order-1");
+        assertThat(OrderRetryRouter.longHeader(sent.get(0).headers(), OrderRetryRouter.DUE_HEADER))
+                .isBetween(before + 5_000, System.currentTimeMillis() + 5_000);
+        assertThat(OrderRetryRouter.longHeader(sent.get(2).headers(), OrderRetryRouter.ATTEMPTS_HEADER))
+                .isEqualTo(3);
+        assertThat(dead).extracting(Order::getOrderId).containsExactly("order-1");
+        assertThat(router.isParked("order-1")).isFalse();
+        assertThat(meterRegistry.get("orders.retry.dead-lettered").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.retry.routed").tag("topic", "orders-topic-retry-0").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void keepsAnIdParkedUntilEveryRecordOfItHasLeftTheTiers() {
+        router.retry(List.of(order("order-1")), OrderRetryRouter.MAIN_TIER, 1, FAILURE);
+        router.follow(List.of(order("order-1")));
+        assertThat(meterRegistry.get("orders.retry.parked.keys").gauge().value()).isEqualTo(1);
+
+        router.release("order-1");
+        assertThat(router.isParked("order-1")).isTrue();
+        router.release("order-1");
+        assertThat(router.isParked("order-1")).isFalse();
+    }
+
+    @Test
+    void forwardsRecordsLeftBehindToTheTierTheirIdHasReached() {
+        router.retry(List.of(order("order-1")), OrderRetryRouter.MAIN_TIER, 1, FAILURE);
+        router.follow(List.of(order("order-1")));
+        // The first record fails again and moves on; the follower must not be stored before it
+        router.retry(List.of(order("order-1")), 0, 2, FAILURE);
+
+        assertThat(router.forward(order("order-1"), 0, 0)).isTrue();
+        assertThat(router.forward(order("order-1"), 1, 0)).isFalse();
+        assertThat(router.forward(order("order-2"), 0, 0)).isFalse();
+        assertThat(sent()).extracting(ProducerRecord::topic).containsExactly("orders-topic-retry-0",
+                "orders-topic-retry-0", "orders-topic-retry-1", "orders-topic-retry-1");
+    }
+
+    @Test
+    void releasesAnIdParkedByAnotherInstance() {
+        // The instance reading retry-0's partition need not own the same partition of orders-topic
+        OrderRetryRouter retryInstance = new OrderRetryRouter(template, parking, new SimpleMeterRegistry(), true,
+                List.of(Duration.ofSeconds(5), Duration.ofSeconds(30)), Duration.ofSeconds(1));
+        router.retry(List.of(order("order-1")), OrderRetryRouter.MAIN_TIER, 1, FAILURE);
+        assertThat(retryInstance.isParked("order-1")).isTrue();
+
+        retryInstance.release("order-1");
+
+        assertThat(router.isParked("order-1")).isFalse();
+        assertThat(router.parkedAmong(List.of("order-1", "order-2"))).isEmpty();
+        assertThat(meterRegistry.get("orders.retry.parked.keys").gauge().value()).isZero();
+    }
+
+    @Test
+    void leavesTheIdUnparkedWhenTheRetryTopicCannotBeReached() {
+        when(template.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThatThrownBy(() -> router.retry(List.of(order("order-1")), OrderRetryRouter.MAIN_TIER, 1, FAILURE))
+                .isInstanceOf(KafkaException.class);
+        assertThat(router.isParked("order-1")).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProducerRecord<String, Object>> sent() {
+        ArgumentCaptor<ProducerRecord<String, Object>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template, atLeastOnce()).send(records.capture());
+        return records.getAllValues();
+    }
+
+    static Order order(String orderId) {
+        return new Order(orderId, "customer-1", "product-1", 1, new BigDecimal("10.00"), LocalDateTime.now(),
+                "PENDING");
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.order_consumer.retry;
+
+import static com.example.order_consumer.retry.OrderRetryRouterTest.order;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+
+import com.example.order_consumer.dedup.OrderIdFilter;
+import com.example.order_consumer.flow.WriteLatencyFlowControl;
+import com.example.order_consumer.model.LogMessage;
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.repository.H2RetryParking;
+import com.example.order_consumer.repository.TransactionBatchRepository;
+import com.example.order_consumer.service.LogEventPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetryOrderConsumerTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> template = mock(KafkaTemplate.class);
+    private final TransactionBatchRepository transactionBatchRepo = mock(TransactionBatchRepository.class);
+    private final Acknowledgment ack = mock(Acknowledgment.class);
+    private final OrderRetryRouter router = new OrderRetryRouter(template, H2RetryParking.create(),
+            new SimpleMeterRegistry(), true, List.of(Duration.ofSeconds(5), Duration.ofSeconds(30)), Duration.ofSeconds(1));
+    private final OrderIdFilter orderIdFilter = new OrderIdFilter(mock(JdbcTemplate.class), new SimpleMeterRegistry(),
+            true, 1_000, 0.01, 100, 0);
+    private final RetryOrderConsumer consumer = new RetryOrderConsumer(router,
+            new ConcurrentKafkaListenerContainerFactory<>(), transactionBatchRepo, orderIdFilter,
+            new LogEventPublisher(template, new SimpleMeterRegistry(), false, Duration.ofSeconds(10), 100,
+                    Duration.ofSeconds(5)),
+            new WriteLatencyFlowControl(mock(KafkaListenerEndpointRegistry.class), new SimpleMeterRegistry(), false,
+                    0.2, Duration.ofMillis(20), Duration.ofMillis(5), Duration.ofSeconds(2), Duration.ofSeconds(30)));
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void waitsForTheRecordToBecomeDueWithoutStoringIt() {
+        consumer.consume(0, record("order-1", System.currentTimeMillis() + 4_000, 1), ack);
+
+        ArgumentCaptor<Duration> sleep = ArgumentCaptor.forClass(Duration.class);
+        verify(ack).nack(sleep.capture());
+        assertThat(sleep.getValue()).isBetween(Duration.ofSeconds(3), Duration.ofSeconds(4));
+        verify(ack, never()).acknowledge();
+        verify(transactionBatchRepo, never()).insertNew(anyList());
+    }
+
+    @Test
+    void storesADueRecordAndReleasesItsId() {
+        router.retry(List.of(order("order-1")), OrderRetryRouter.MAIN_TIER, 1,
+                new DataAccessResourceFailureException("connection lost"));
+        when(transactionBatchRepo.insertNew(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        consumer.consume(0, record("order-1", 0, 1), ack);
+
+        verify(ack).acknowledge();
+        assertThat(router.isParked("order-1")).isFalse();
+        assertThat(orderIdFilter.check("order-1")).isEqualTo(OrderIdFilter.Verdict.DUPLICATE);
+        assertThat(logStatus("order-1")).isEqualTo("SUCCESS");
+    }
+
+    @Test
+    void deadLettersARecordThatFailsInTheLastTier() {
+        when(transactionBatchRepo.insertNew(anyList()))
+                .thenThrow(new DataIntegrityViolationException("price out of range"));
+
+        consumer.consume(1, record("order-1", 0, 2), ack);
+
+        verify(ack).acknowledge();
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template).send(sent.capture());
+        assertThat(sent.getValue().topic()).isEqualTo(OrderRetryRouter.DEAD_LETTER_TOPIC);
+        assertThat(OrderRetryRouter.longHeader(sent.getValue().headers(), OrderRetryRouter.ATTEMPTS_HEADER))
+                .isEqualTo(3);
+        assertThat(logStatus("order-1")).isEqualTo("ERROR");
+    }
+
+    @Test
+    void leavesTheRecordInItsTierWhileTheDatabaseIsUnavailable() {
+        when(transactionBatchRepo.insertNew(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThatThrownBy(() -> consumer.consume(1, record("order-1", 0, 2), ack))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        verify(ack, never()).acknowledge();
+        verify(template, never()).send(any(ProducerRecord.class));
+    }
+
+    private String logStatus(String orderId) {
+        ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        verify(template).send(eq("logs-topic"), eq(orderId), message.capture());
+        return ((LogMessage) message.getValue()).getStatus();
+    }
+
+    private static ConsumerRecord<Object, Object> record(String orderId, long due, int attempts) {
+        Order order = order(orderId);
+        ConsumerRecord<Object, Object> record = new ConsumerRecord<>("orders-topic-retry-0", 0, 0L, orderId, order);
+        record.headers().add(OrderRetryRouter.DUE_HEADER, Long.toString(due).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(OrderRetryRouter.ATTEMPTS_HEADER,
+                Integer.toString(attempts).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
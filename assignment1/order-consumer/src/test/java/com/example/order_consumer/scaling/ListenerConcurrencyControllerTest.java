@@ -0,0 +1,101 @@
+package com.example.order_consumer.scaling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ListenerConcurrencyControllerTest {
+
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final ConsumerLagSampler sampler = mock(ConsumerLagSampler.class);
+    private final ConcurrentMessageListenerContainer<?, ?> container = mock(ConcurrentMessageListenerContainer.class);
+    private final HikariDataSource dataSource = new HikariDataSource();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final ListenerConcurrencyController controller = new ListenerConcurrencyController(registry, sampler,
+            dataSource, meterRegistry, true, 1, 6, Duration.ofSeconds(15), Duration.ZERO, Duration.ofSeconds(60),
+            100, 2);
+
+    @BeforeEach
+    void setUp() {
+        when(registry.getListenerContainer(ListenerConcurrencyController.LISTENER_ID)).thenReturn(container);
+        when(container.isRunning()).thenReturn(true);
+        when(container.getConcurrency()).thenReturn(1);
+        dataSource.setMaximumPoolSize(10);
+        ReflectionTestUtils.setField(controller, "nanoTime", (LongSupplier) clock::get);
+    }
+
+    @Test
+    void scalesUpInProportionToTheDrainTimeCappedAtThePartitionCount() throws Exception {
+        // 100 records/s against a lag of 24,000: 240 s to drain, four times the target
+        sample(0, 24_000, 0, 3);
+        sample(10, 24_000, 1_000, 3);
+
+        InOrder inOrder = Mockito.inOrder(container);
+        inOrder.verify(container).stop();
+        inOrder.verify(container).setConcurrency(3);
+        inOrder.verify(container).start();
+        assertThat(dataSource.getMinimumIdle()).isEqualTo(3);
+        assertThat(meterRegistry.get("orders.listener.scaling").tag("direction", "up").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.listener.concurrency.allowed").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("orders.listener.processing.rate").gauge().value()).isEqualTo(100);
+        assertThat(meterRegistry.get("orders.listener.lag").gauge().value()).isEqualTo(24_000);
+    }
+
+    @Test
+    void leavesTheContainerAloneWhileTheLagDrainsInTime() throws Exception {
+        sample(0, 1_000, 0, 3);
+        sample(10, 1_000, 1_000, 3);
+
+        verify(container, never()).stop();
+    }
+
+    @Test
+    void scalesDownOnlyAfterConsecutiveIdleSamples() {
+        assertThat(controller.decide(3, 10, 50, 3)).isEqualTo(3);
+        assertThat(controller.decide(3, 5_000, 500, 3)).isEqualTo(3);
+        assertThat(controller.decide(3, 10, 50, 3)).isEqualTo(3);
+        assertThat(controller.decide(3, 10, 50, 3)).isEqualTo(2);
+        assertThat(controller.decide(1, 0, 0, 3)).isEqualTo(1);
+        assertThat(controller.decide(1, 0, 0, 3)).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotScaleUpAStalledListenerOrBeyondTheConnectionPool() throws Exception {
+        assertThat(controller.decide(1, 50_000, 0, 3)).isEqualTo(1);
+        assertThat(controller.decide(1, 50_000, -1, 3)).isEqualTo(1);
+        assertThat(controller.decide(4, 50_000, 10, 2)).isEqualTo(2);
+
+        dataSource.setMaximumPoolSize(2);
+        sample(0, 24_000, 0, 3);
+        sample(10, 24_000, 1_000, 3);
+
+        verify(container).setConcurrency(2);
+        assertThat(meterRegistry.get("orders.listener.concurrency.allowed").gauge().value()).isEqualTo(2);
+    }
+
+    private void sample(long seconds, long lag, long committed, int partitions) throws Exception {
+        clock.set(Duration.ofSeconds(seconds).toNanos());
+        when(sampler.sample("order-consumer-group", "orders-topic"))
+                .thenReturn(new ConsumerLagSampler.Sample(lag, committed, partitions));
+        controller.adjust();
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.order_consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.order_consumer.dedup.OrderIdFilter;
+import com.example.order_consumer.flow.WriteLatencyFlowControl;
+import com.example.order_consumer.model.LogMessage;
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.model.Transaction;
+import com.example.order_consumer.repository.H2RetryParking;
+import com.example.order_consumer.repository.TransactionBatchRepository;
+import com.example.order_consumer.retry.OrderRetryRouter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BatchOrderConsumerTest {
+
+    private final TransactionBatchRepository transactionBatchRepo = mock(TransactionBatchRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> logTemplate = mock(KafkaTemplate.class);
+    private final OrderIdFilter orderIdFilter = new OrderIdFilter(mock(JdbcTemplate.class), new SimpleMeterRegistry(),
+            true, 1_000, 0.01, 100, 0);
+    // Disabled pipeline: every event, SUCCESS included, is sent on the calling thread
+    private final LogEventPublisher logEventPublisher = new LogEventPublisher(logTemplate, new SimpleMeterRegistry(),
+            false, Duration.ofSeconds(10), 100, Duration.ofSeconds(5));
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> retryTemplate = mock(KafkaTemplate.class);
+    private final OrderRetryRouter orderRetryRouter = new OrderRetryRouter(retryTemplate,
+            H2RetryParking.create(), new SimpleMeterRegistry(), true,
+            List.of(Duration.ofSeconds(5), Duration.ofSeconds(30)), Duration.ofSeconds(1));
+    private final BatchOrderConsumer consumer = new BatchOrderConsumer();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(consumer, "transactionBatchRepo", transactionBatchRepo);
+        ReflectionTestUtils.setField(consumer, "orderIdFilter", orderIdFilter);
+        ReflectionTestUtils.setField(consumer, "logEventPublisher", logEventPublisher);
+        ReflectionTestUtils.setField(consumer, "orderRetryRouter", orderRetryRouter);
+        ReflectionTestUtils.setField(consumer, "writeLatencyFlowControl", new WriteLatencyFlowControl(
+                mock(KafkaListenerEndpointRegistry.class), new SimpleMeterRegistry(), false, 0.2,
+                Duration.ofMillis(500), Duration.ofMillis(200), Duration.ofSeconds(2), Duration.ofSeconds(30)));
+        when(retryTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void storesTheBatchInOneCallAndReportsWhatWasSkipped() {
+        when(transactionBatchRepo.insertNew(anyList(), any())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            return List.of(transactions.get(0), transactions.get(2));
+        });
+
+        consume(order("order-1"), order("order-2"), order("order-3"));
+
+        ArgumentCaptor<List<Transaction>> batch = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchRepo, times(1)).insertNew(batch.capture(), any());
+        assertThat(batch.getValue()).extracting(Transaction::getOrderId)
+                .containsExactly("order-1", "order-2", "order-3");
+        assertThat(status("order-1")).isEqualTo("SUCCESS");
+        assertThat(status("order-2")).isEqualTo("DUPLICATE");
+        assertThat(status("order-3")).isEqualTo("SUCCESS");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void looksUpOnlyTheOrdersTheFilterCannotRuleOutAndRemembersWhatWasStored() {
+        orderIdFilter.recordStored("order-1");
+        when(transactionBatchRepo.insertNew(anyList(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        consume(order("order-1"), order("order-2"));
+
+        assertThat(status("order-1")).isEqualTo("DUPLICATE");
+        assertThat(status("order-2")).isEqualTo("SUCCESS");
+        ArgumentCaptor<List<Transaction>> batch = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Predicate<String>> mayBeStored = ArgumentCaptor.forClass(Predicate.class);
+        verify(transactionBatchRepo).insertNew(batch.capture(), mayBeStored.capture());
+        assertThat(batch.getValue()).extracting(Transaction::getOrderId).containsExactly("order-2");
+        assertThat(mayBeStored.getValue().test("order-2")).isFalse();
+        assertThat(orderIdFilter.check("order-2")).isEqualTo(OrderIdFilter.Verdict.DUPLICATE);
+    }
+
+    @Test
+    void retriesWithAFullLookupWhenTheUniqueKeyRejectsAnOrderPassedAsNew() {
+        when(transactionBatchRepo.insertNew(anyList(), any())).thenThrow(new DuplicateKeyException("order-1"));
+        when(transactionBatchRepo.insertNew(anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            return List.of(transactions.get(1));
+        });
+
+        consume(order("order-1"), order("order-2"));
+
+        assertThat(status("order-1")).isEqualTo("DUPLICATE");
+        assertThat(status("order-2")).isEqualTo("SUCCESS");
+        assertThat(orderIdFilter.check("order-1")).isEqualTo(OrderIdFilter.Verdict.DUPLICATE);
+    }
+
+    @Test
+    void failsTheBatchSoItsOffsetsAreNotCommittedWhenRetriesAreDisabled() {
+        ReflectionTestUtils.setField(consumer, "orderRetryRouter", new OrderRetryRouter(retryTemplate,
+                H2RetryParking.create(), new SimpleMeterRegistry(), false, List.of(), Duration.ofSeconds(1)));
+        when(transactionBatchRepo.insertNew(anyList(), any()))
+                .thenThrow(new DataIntegrityViolationException("price out of range"));
+
+        assertThatThrownBy(() -> consume(order("order-1"), order("order-2")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(status("order-1")).isEqualTo("ERROR");
+        assertThat(status("order-2")).isEqualTo("ERROR");
+    }
+
+    @Test
+    void storesAFailedBatchOneByOneAndSendsOnlyThePoisonOrderToRetry() {
+        when(transactionBatchRepo.insertNew(anyList(), any()))
+                .thenThrow(new DataIntegrityViolationException("price out of range"));
+        when(transactionBatchRepo.insertNew(anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            if (transactions.get(0).getOrderId().equals("order-2")) {
+                throw new DataIntegrityViolationException("price out of range");
+            }
+            return transactions;
+        });
+
+        consume(order("order-1"), order("order-2"), order("order-3"));
+
+        assertThat(status("order-1")).isEqualTo("SUCCESS");
+        assertThat(status("order-2")).isEqualTo("ERROR");
+        assertThat(status("order-3")).isEqualTo("SUCCESS");
+        assertThat(retried()).extracting(ProducerRecord::topic, ProducerRecord::key)
+                .containsExactly(tuple("orders-topic-retry-0", "order-2"));
+        assertThat(orderRetryRouter.isParked("order-2")).isTrue();
+    }
+
+    @Test
+    void failsThePollForRedeliveryInsteadOfRoutingItWhileTheDatabaseIsUnavailable() {
+        when(transactionBatchRepo.insertNew(anyList(), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThatThrownBy(() -> consume(order("order-1"), order("order-2")))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        verify(transactionBatchRepo, never()).insertNew(anyList());
+        verify(retryTemplate, never()).send(any(ProducerRecord.class));
+        verify(logTemplate, never()).send(anyString(), anyString(), any());
+    }
+
+    @Test
+    void routesNothingWhenTheDatabaseGoesAwayWhileStoringOneByOne() {
+        when(transactionBatchRepo.insertNew(anyList(), any()))
+                .thenThrow(new DataIntegrityViolationException("price out of range"));
+        when(transactionBatchRepo.insertNew(anyList()))
+                .thenThrow(new DataIntegrityViolationException("price out of range"))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThatThrownBy(() -> consume(order("order-1"), order("order-2"), order("order-3")))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        verify(transactionBatchRepo, times(2)).insertNew(anyList());
+        verify(retryTemplate, never()).send(any(ProducerRecord.class));
+        assertThat(orderRetryRouter.isParked("order-1")).isFalse();
+    }
+
+    @Test
+    void sendsOrdersOfAnIdBeingRetriedBehindItInsteadOfStoringThem() {
+        orderRetryRouter.retry(List.of(order("order-1")), OrderRetryRouter.MAIN_TIER, 1,
+                new DataAccessResourceFailureException("connection lost"));
+        when(transactionBatchRepo.insertNew(anyList(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        consume(order("order-1"), order("order-2"));
+
+        ArgumentCaptor<List<Transaction>> batch = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchRepo).insertNew(batch.capture(), any());
+        assertThat(batch.getValue()).extracting(Transaction::getOrderId).containsExactly("order-2");
+        assertThat(retried()).extracting(ProducerRecord::topic, ProducerRecord::key).containsExactly(
+                tuple("orders-topic-retry-0", "order-1"), tuple("orders-topic-retry-0", "order-1"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProducerRecord<String, Object>> retried() {
+        ArgumentCaptor<ProducerRecord<String, Object>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(retryTemplate, atLeastOnce()).send(records.capture());
+        return records.getAllValues();
+    }
+
+    private void consume(Order... orders) {
+        consumer.consume(List.of(orders), Collections.nCopies(orders.length, 0), Collections.nCopies(orders.length, 0L));
+    }
+
+    private String status(String orderId) {
+        ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        verify(logTemplate).send(eq("logs-topic"), eq(orderId), message.capture());
+        return ((LogMessage) message.getValue()).getStatus();
+    }
+
+    private static Order order(String orderId) {
+        return new Order(orderId, "customer-1", "product-1", 1, new BigDecimal("10.00"), LocalDateTime.now(), "PENDING");
+    }
+}
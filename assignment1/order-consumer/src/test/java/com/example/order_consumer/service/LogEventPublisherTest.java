@@ -0,0 +1,103 @@
+package com.example.order_consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.example.order_consumer.model.LogMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LogEventPublisherTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> logTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void foldsSuccessesIntoOneCountPerPartition() {
+        LogEventPublisher publisher = publisher(true, 10);
+        publisher.success(0, "order-1");
+        publisher.success(0, "order-2");
+        publisher.success(3, "order-3");
+
+        publisher.start();
+        publisher.stop();
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> messages = ArgumentCaptor.forClass(Object.class);
+        verify(logTemplate, timeout(1_000).times(2)).send(eq("logs-topic"), keys.capture(), messages.capture());
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < keys.getAllValues().size(); i++) {
+            LogMessage message = (LogMessage) messages.getAllValues().get(i);
+            assertThat(message.getStatus()).isEqualTo("SUCCESS");
+            counts.put(keys.getAllValues().get(i).substring(0, keys.getAllValues().get(i).indexOf('@')),
+                    message.getCount());
+        }
+        assertThat(counts).containsOnly(Map.entry("orders-topic-0", 2L), Map.entry("orders-topic-3", 1L));
+    }
+
+    @Test
+    void sendsDuplicatesAndErrorsOneByOneOffTheCallingThread() {
+        LogEventPublisher publisher = publisher(true, 10);
+        publisher.start();
+        try {
+            publisher.duplicate("order-1");
+            publisher.error("order-2", "connection lost");
+
+            assertThat(status("order-1")).isEqualTo("DUPLICATE");
+            assertThat(status("order-2")).isEqualTo("ERROR");
+        } finally {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void dropsWhenTheQueueIsFull() {
+        LogEventPublisher publisher = publisher(true, 2);
+        for (int i = 0; i < 5; i++) {
+            publisher.duplicate("order-" + i);
+        }
+
+        assertThat(meterRegistry.get("orders.logs.dropped").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("orders.logs.queue.size").gauge().value()).isEqualTo(2);
+        verify(logTemplate, never()).send(anyString(), anyString(), any());
+    }
+
+    @Test
+    void sendsEveryEventDirectlyWhenDisabled() {
+        LogEventPublisher publisher = publisher(false, 10);
+        publisher.success(0, "order-1");
+        publisher.duplicate("order-2");
+
+        assertThat(status("order-1")).isEqualTo("SUCCESS");
+        assertThat(status("order-2")).isEqualTo("DUPLICATE");
+        assertThat(publisher.isRunning()).isFalse();
+    }
+
+    private LogEventPublisher publisher(boolean enabled, int queueCapacity) {
+        return new LogEventPublisher(logTemplate, meterRegistry, enabled, Duration.ofMinutes(1), queueCapacity,
+                Duration.ofSeconds(5));
+    }
+
+    private String status(String key) {
+        ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        verify(logTemplate, timeout(1_000)).send(eq("logs-topic"), eq(key), message.capture());
+        List<Object> values = message.getAllValues();
+        return ((LogMessage) values.get(values.size() - 1)).getStatus();
+    }
+}
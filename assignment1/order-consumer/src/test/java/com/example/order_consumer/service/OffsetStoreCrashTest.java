@@ -0,0 +1,291 @@
+package com.example.order_consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import javax.sql.DataSource;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import com.example.order_consumer.dedup.OrderIdFilter;
+import com.example.order_consumer.flow.WriteLatencyFlowControl;
+import com.example.order_consumer.model.Order;
+import com.example.order_consumer.repository.ConsumerOffsetRepository;
+import com.example.order_consumer.repository.RetryParkingRepository;
+import com.example.order_consumer.repository.TransactionBatchRepository;
+import com.example.order_consumer.repository.TransactionRepository;
+import com.example.order_consumer.retry.OrderRetryRouter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Crashes the batch listener at the points where at-least-once delivery would
+ * store an order twice, against H2 in MySQL mode, and replays the partition the
+ * way Kafka would after a restart.
+ */
+@SpringJUnitConfig(OffsetStoreCrashTest.Config.class)
+class OffsetStoreCrashTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition(OffsetStoreWriter.TOPIC, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CrashingOffsetRepository offsetRepo;
+
+    @Autowired
+    private OffsetStoreWriter offsetStoreWriter;
+
+    @Autowired
+    private RetryParkingRepository parking;
+
+    private final List<Order> partitionLog = new ArrayList<>();
+    private final BatchOrderConsumer consumer = new BatchOrderConsumer();
+    private final OffsetSeekingRebalanceListener rebalanceListener = new OffsetSeekingRebalanceListener();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS transactions");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS consumer_offsets");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS retry_parked");
+        jdbcTemplate.execute("CREATE TABLE transactions (id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " order_id VARCHAR(255) NOT NULL UNIQUE, customer_id VARCHAR(255) NOT NULL,"
+                + " product_id VARCHAR(255) NOT NULL, quantity INT NOT NULL, price DECIMAL(10,2) NOT NULL,"
+                + " order_time TIMESTAMP NOT NULL, status VARCHAR(50) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE consumer_offsets (group_id VARCHAR(255) NOT NULL,"
+                + " topic VARCHAR(255) NOT NULL, partition_id INT NOT NULL, next_offset BIGINT NOT NULL,"
+                + " PRIMARY KEY (group_id, topic, partition_id))");
+        jdbcTemplate.execute("CREATE TABLE retry_parked (order_id VARCHAR(255) NOT NULL PRIMARY KEY,"
+                + " tier INT NOT NULL, records INT NOT NULL)");
+        offsetRepo.crash = false;
+
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, Object> logTemplate = mock(KafkaTemplate.class);
+        ReflectionTestUtils.setField(consumer, "offsetStoreWriter", offsetStoreWriter);
+        ReflectionTestUtils.setField(consumer, "orderIdFilter", new OrderIdFilter(mock(JdbcTemplate.class),
+                new SimpleMeterRegistry(), true, 1_000, 0.01, 100, 0));
+        ReflectionTestUtils.setField(consumer, "logEventPublisher", new LogEventPublisher(logTemplate,
+                new SimpleMeterRegistry(), false, Duration.ofSeconds(10), 100, Duration.ofSeconds(5)));
+        ReflectionTestUtils.setField(consumer, "orderRetryRouter", new OrderRetryRouter(logTemplate, parking,
+                new SimpleMeterRegistry(), false, List.of(), Duration.ofSeconds(1)));
+        ReflectionTestUtils.setField(consumer, "offsetStore", true);
+        ReflectionTestUtils.setField(consumer, "writeLatencyFlowControl", new WriteLatencyFlowControl(
+                mock(KafkaListenerEndpointRegistry.class), new SimpleMeterRegistry(), false, 0.2,
+                Duration.ofMillis(500), Duration.ofMillis(200), Duration.ofSeconds(2), Duration.ofSeconds(30)));
+        ReflectionTestUtils.setField(rebalanceListener, "offsetStoreWriter", offsetStoreWriter);
+    }
+
+    @Test
+    void crashBeforeTheDatabaseCommitStoresNothingAndTheRedeliveryStoresEverything() {
+        publish("order-1", "order-2", "order-3");
+
+        offsetRepo.crash = true;
+        assertThatThrownBy(() -> poll(0)).isInstanceOf(IllegalStateException.class);
+        assertThat(storedOrderIds()).isEmpty();
+        assertThat(offsetStoreWriter.nextOffsets()).isEmpty();
+
+        offsetRepo.crash = false;
+        poll(restartPosition(0));
+
+        assertThat(storedOrderIds()).containsExactly("order-1", "order-2", "order-3");
+        assertThat(offsetStoreWriter.nextOffsets()).isEqualTo(Map.of(0, 3L));
+    }
+
+    @Test
+    void crashAfterTheDatabaseCommitResumesFromTheStoredOffsetNotKafkas() {
+        publish("order-1", "order-2", "order-3");
+        poll(0);
+        // The process dies here, before the container commits offset 3 to Kafka
+        publish("order-4");
+
+        long position = restartPosition(0);
+        poll(position);
+
+        assertThat(position).isEqualTo(3);
+        assertThat(storedOrderIds()).containsExactly("order-1", "order-2", "order-3", "order-4");
+        assertThat(offsetStoreWriter.nextOffsets()).isEqualTo(Map.of(0, 4L));
+    }
+
+    @Test
+    void orderPublishedTwiceIsCaughtByTheUniqueKeyAndStillAdvancesTheOffset() {
+        publish("order-1", "order-2");
+        poll(0);
+        publish("order-2", "order-3");
+
+        poll(restartPosition(0));
+
+        assertThat(storedOrderIds()).containsExactly("order-1", "order-2", "order-3");
+        assertThat(offsetStoreWriter.nextOffsets()).isEqualTo(Map.of(0, 4L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ordersSentToTheRetryTiersAreNotRoutedAgainAfterARestart() {
+        KafkaTemplate<String, Object> retryTemplate = mock(KafkaTemplate.class);
+        when(retryTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        ReflectionTestUtils.setField(consumer, "orderRetryRouter", new OrderRetryRouter(retryTemplate, parking,
+                new SimpleMeterRegistry(), true, List.of(Duration.ofSeconds(5)), Duration.ofSeconds(1)));
+        publish("order-1");
+        // Out of range for DECIMAL(10,2)
+        partitionLog.add(order("order-2", new BigDecimal("1000000000000.00")));
+        poll(0);
+        publish("order-2");
+        poll(restartPosition(0));
+
+        assertThat(storedOrderIds()).containsExactly("order-1");
+        assertThat(offsetStoreWriter.nextOffsets()).isEqualTo(Map.of(0, 3L));
+        verify(retryTemplate, times(2)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void crashBeforeAFailedOrderIsSentForRetryRedeliversIt() {
+        KafkaTemplate<String, Object> retryTemplate = mock(KafkaTemplate.class);
+        when(retryTemplate.send(any(ProducerRecord.class)))
+                .thenThrow(new IllegalStateException("Simulated crash before the retry send"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        ReflectionTestUtils.setField(consumer, "orderRetryRouter", new OrderRetryRouter(retryTemplate, parking,
+                new SimpleMeterRegistry(), true, List.of(Duration.ofSeconds(5)), Duration.ofSeconds(1)));
+        // Fails, then the order after it is stored, then the process dies
+        partitionLog.add(order("order-1", new BigDecimal("1000000000000.00")));
+        publish("order-2");
+
+        assertThatThrownBy(() -> poll(0)).isInstanceOf(IllegalStateException.class);
+        assertThat(storedOrderIds()).containsExactly("order-2");
+        long position = restartPosition(0);
+        poll(position);
+
+        assertThat(position).isZero();
+        assertThat(storedOrderIds()).containsExactly("order-2");
+        assertThat(offsetStoreWriter.nextOffsets()).isEqualTo(Map.of(0, 2L));
+        verify(retryTemplate, times(2)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void unreadableOffsetsLeaveThePartitionAtKafkasCommittedOffset() {
+        Consumer<?, ?> kafkaConsumer = mock(Consumer.class);
+        jdbcTemplate.execute("DROP TABLE consumer_offsets");
+
+        rebalanceListener.onPartitionsAssigned(kafkaConsumer, List.of(PARTITION));
+
+        verify(kafkaConsumer, never()).seek(any(TopicPartition.class), anyLong());
+    }
+
+    private void publish(String... orderIds) {
+        for (String orderId : orderIds) {
+            partitionLog.add(order(orderId, new BigDecimal("9.99")));
+        }
+    }
+
+    private static Order order(String orderId, BigDecimal price) {
+        return new Order(orderId, "customer-1", "product-1", 1, price, LocalDateTime.of(2024, 1, 1, 12, 0),
+                "PENDING");
+    }
+
+    /** Delivers everything from {@code position} to the end of the partition as one poll. */
+    private void poll(long position) {
+        List<Order> orders = partitionLog.subList((int) position, partitionLog.size());
+        List<Integer> partitions = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        for (long offset = position; offset < partitionLog.size(); offset++) {
+            partitions.add(PARTITION.partition());
+            offsets.add(offset);
+        }
+        consumer.consume(List.copyOf(orders), partitions, offsets);
+    }
+
+    /** Where a restarted consumer whose Kafka commit is {@code committed} starts reading. */
+    private long restartPosition(long committed) {
+        long[] position = {committed};
+        Consumer<?, ?> kafkaConsumer = mock(Consumer.class);
+        doAnswer(invocation -> {
+            position[0] = invocation.getArgument(1);
+            return null;
+        }).when(kafkaConsumer).seek(any(TopicPartition.class), anyLong());
+        rebalanceListener.onPartitionsAssigned(kafkaConsumer, List.of(PARTITION));
+        return position[0];
+    }
+
+    private List<String> storedOrderIds() {
+        return jdbcTemplate.queryForList("SELECT order_id FROM transactions ORDER BY id", String.class);
+    }
+
+    static class CrashingOffsetRepository extends ConsumerOffsetRepository {
+
+        volatile boolean crash;
+
+        @Override
+        public void saveNextOffsets(String groupId, String topic, Map<Integer, Long> nextOffsets) {
+            if (crash) {
+                throw new IllegalStateException("Simulated crash before commit");
+            }
+            super.saveNextOffsets(groupId, topic, nextOffsets);
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @Import({TransactionBatchRepository.class, OffsetStoreWriter.class, RetryParkingRepository.class})
+    static class Config {
+
+        @Bean
+        DataSource dataSource() {
+            return new DriverManagerDataSource("jdbc:h2:mem:offset-store;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        CrashingOffsetRepository offsetRepository() {
+            return new CrashingOffsetRepository();
+        }
+
+        // Only the record path saves through JPA
+        @Bean
+        TransactionRepository transactionRepository() {
+            return mock(TransactionRepository.class);
+        }
+    }
+}
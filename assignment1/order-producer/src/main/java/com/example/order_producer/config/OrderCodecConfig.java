@@ -0,0 +1,32 @@
+package com.example.order_producer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.example.order_codec.BinaryOrderCodec;
+import com.example.order_codec.OrderSerializer;
+import com.example.order_codec.OrderWireFormat;
+import com.example.order_producer.model.Order;
+import com.example.order_producer.model.OrderCodecAdapter;
+
+@Configuration
+public class OrderCodecConfig {
+
+    /**
+     * Serializes order values with the shared codec. Records stay JSON until
+     * {@code order.codec.format=binary} is set, which is only safe once every reader
+     * of orders-topic runs the shared order-codec.
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaProducerFactoryCustomizer orderSerializerCustomizer(
+            @Value("${order.codec.format:json}") OrderWireFormat format) {
+        BinaryOrderCodec<Order> codec = new BinaryOrderCodec<>(OrderCodecAdapter.INSTANCE);
+        return factory -> ((DefaultKafkaProducerFactory<String, Order>) factory)
+                .setValueSerializerSupplier(() -> new OrderSerializer<>(codec, new JsonSerializer<>(), format));
+    }
+}
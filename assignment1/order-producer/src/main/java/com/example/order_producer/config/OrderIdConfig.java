@@ -0,0 +1,23 @@
+package com.example.order_producer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.order_producer.id.OrderIdGenerator;
+import com.example.order_producer.id.OrderIdStrategy;
+
+@Configuration
+public class OrderIdConfig {
+
+    /**
+     * Generator for orders posted without an id. Every producer instance that
+     * shares a topic needs its own {@code order.id.node-id}.
+     */
+    @Bean
+    public OrderIdGenerator orderIdGenerator(
+            @Value("${order.id.generator:ulid}") OrderIdStrategy strategy,
+            @Value("${order.id.node-id:0}") int nodeId) {
+        return strategy.create(nodeId);
+    }
+}
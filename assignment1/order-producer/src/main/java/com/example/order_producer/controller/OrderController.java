@@ -1,38 +1,219 @@
 package com.example.order_producer.controller;
 
+import com.example.order_producer.id.OrderIdGenerator;
+import com.example.order_producer.model.BatchOrderResponse;
+import com.example.order_producer.model.DeliveryStatus;
 import com.example.order_producer.model.Order;
-import com.example.order_producer.service.KafkaProducerService;
+import com.example.order_producer.service.DeliveryTracker;
+import com.example.order_producer.service.OrderAdmissionControl;
+import com.example.order_producer.service.OrderSpoolService;
+import com.example.order_producer.service.ProducerOverloadedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class OrderController {
 
+    static final String NDJSON_VALUE = "application/x-ndjson";
+
+    @Autowired
+    private OrderAdmissionControl orderAdmissionControl;
+
+    @Autowired
+    private DeliveryTracker deliveryTracker;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
-    private KafkaProducerService kafkaProducerService;
+    private OrderIdGenerator orderIdGenerator;
 
     @PostMapping("/order")
     public String sendOrder(@RequestBody Order order) {
         processOrder(order);
-        kafkaProducerService.sendOrder(order);
+        orderAdmissionControl.submit(order);
         return "Order received!";
     }
 
     @PostMapping("/api/orders")
     public ResponseEntity<String> createOrder(@RequestBody Order order) {
         processOrder(order);
-        kafkaProducerService.sendOrder(order);
+        orderAdmissionControl.submit(order);
         return ResponseEntity.ok("Order sent successfully with ID: " + order.getOrderId());
     }
 
+    /**
+     * Responds only after the broker has acknowledged the record. The servlet
+     * thread is released while waiting; the response is completed from the
+     * producer callback.
+     */
+    @PostMapping(value = "/api/orders", params = "ack=wait")
+    public CompletableFuture<ResponseEntity<String>> createOrderAndWait(@RequestBody Order order) {
+        processOrder(order);
+        return orderAdmissionControl.submit(order).handle((result, ex) -> {
+            if (ex != null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Order " + order.getOrderId() + " was not delivered: " + ex.getMessage());
+            }
+            if (OrderSpoolService.isSpooled(result)) {
+                return ResponseEntity.accepted()
+                    .body("Order spooled locally with ID: " + order.getOrderId() + ", Kafka is unreachable");
+            }
+            return ResponseEntity.ok("Order acknowledged with ID: " + order.getOrderId()
+                + " (partition " + result.getRecordMetadata().partition()
+                + ", offset " + result.getRecordMetadata().offset() + ")");
+        });
+    }
+
+    /**
+     * Answers 202 as soon as the order is handed to the producer. The final broker
+     * acknowledgement can be fetched from the returned location.
+     */
+    @PostMapping(value = "/api/orders", params = "ack=async")
+    public ResponseEntity<String> createOrderAsync(@RequestBody Order order) {
+        processOrder(order);
+        deliveryTracker.track(order.getOrderId(), orderAdmissionControl.submit(order));
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/orders/" + order.getOrderId() + "/ack"))
+            .body("Order accepted with ID: " + order.getOrderId());
+    }
+
+    @GetMapping("/api/orders/{orderId}/ack")
+    public ResponseEntity<DeliveryStatus> getDeliveryStatus(@PathVariable("orderId") String orderId) {
+        DeliveryStatus status = deliveryTracker.get(orderId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (DeliveryStatus.PENDING.equals(status.getState())) {
+            return ResponseEntity.accepted().body(status);
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Accepts either a JSON array of orders or newline-delimited JSON. The body is
+     * read element by element straight from the request stream and each order is
+     * handed to the producer as soon as it is parsed, so the parsed orders are not
+     * held and sends are pipelined by the producer. The response still keeps one
+     * result per element until it is written, so heap use grows linearly with
+     * the size of the batch, if much more slowly than with the orders themselves.
+     */
+    @PostMapping(value = "/api/orders/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, NDJSON_VALUE })
+    public ResponseEntity<BatchOrderResponse> createOrders(InputStream body) throws IOException {
+        BatchOrderResponse response = ingestBatch(body, null);
+        if (response.getAccepted() == 0 && response.getRejected() > 0) {
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Same as {@link #createOrders(InputStream)}, but the aggregated ack is sent
+     * once every accepted order has been acknowledged (or has failed) at the broker.
+     * Sends are still pipelined; only the response waits.
+     */
+    @PostMapping(value = "/api/orders/batch", params = "ack=wait", consumes = { MediaType.APPLICATION_JSON_VALUE, NDJSON_VALUE })
+    public CompletableFuture<ResponseEntity<BatchOrderResponse>> createOrdersAndWait(InputStream body) throws IOException {
+        List<CompletableFuture<SendResult<String, Order>>> sends = new ArrayList<>();
+        BatchOrderResponse response = ingestBatch(body, sends);
+
+        CompletableFuture<?>[] outcomes = new CompletableFuture<?>[sends.size()];
+        for (int position = 0; position < sends.size(); position++) {
+            int resultPosition = position;
+            CompletableFuture<SendResult<String, Order>> send = sends.get(position);
+            outcomes[position] = send == null ? CompletableFuture.completedFuture(null) : send.handle((result, ex) -> {
+                synchronized (response) {
+                    if (ex != null) {
+                        response.failed(resultPosition, ex.getMessage());
+                    } else if (OrderSpoolService.isSpooled(result)) {
+                        response.spooled(resultPosition);
+                    } else {
+                        response.acked(resultPosition);
+                    }
+                }
+                return null;
+            });
+        }
+
+        return CompletableFuture.allOf(outcomes).thenApply(done -> {
+            synchronized (response) {
+                if (response.getAccepted() == 0 && response.getRejected() > 0) {
+                    return ResponseEntity.badRequest().body(response);
+                }
+                if (response.getFailed() > 0) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+                }
+                return ResponseEntity.ok(response);
+            }
+        });
+    }
+
+    /**
+     * Streams the batch into the producer. When {@code sends} is given, the send
+     * future of every result is collected at the same position as the result
+     * ({@code null} for rejected elements).
+     */
+    private BatchOrderResponse ingestBatch(InputStream body, List<CompletableFuture<SendResult<String, Order>>> sends)
+            throws IOException {
+        BatchOrderResponse response = new BatchOrderResponse();
+        int index = 0;
+
+        try (MappingIterator<Order> orders = objectMapper.readerFor(Order.class).readValues(body)) {
+            while (orders.hasNextValue()) {
+                Order order = orders.nextValue();
+                CompletableFuture<SendResult<String, Order>> send = null;
+                try {
+                    processOrder(order);
+                    send = orderAdmissionControl.submit(order);
+                    response.accepted(index, order.getOrderId());
+                } catch (ProducerOverloadedException e) {
+                    // Shed the rest of the batch; the client resubmits from this index.
+                    if (response.getAccepted() == 0) {
+                        throw e;
+                    }
+                    response.rejected(index, order.getOrderId(), e.getMessage());
+                    if (sends != null) {
+                        sends.add(null);
+                    }
+                    break;
+                } catch (RuntimeException e) {
+                    response.rejected(index, order.getOrderId(), e.getMessage());
+                }
+                if (sends != null) {
+                    sends.add(send);
+                }
+                index++;
+            }
+        } catch (JsonProcessingException e) {
+            // A malformed element leaves the parser without a safe resync point,
+            // so everything after it is rejected as a whole.
+            response.rejected(index, null, "Malformed order at index " + index + ": " + e.getOriginalMessage());
+            if (sends != null) {
+                sends.add(null);
+            }
+        }
+        return response;
+    }
+
     private void processOrder(Order order) {
         if (order.getOrderId() == null) {
-            order.setOrderId(UUID.randomUUID().toString());
+            order.setOrderId(orderIdGenerator.nextId());
         }
         if (order.getOrderTime() == null) {
             order.setOrderTime(LocalDateTime.now());
@@ -55,7 +236,7 @@ public class OrderController {
         );
 
         processOrder(order);
-        kafkaProducerService.sendOrder(order);
+        orderAdmissionControl.submit(order);
         return ResponseEntity.ok("Sample order created with ID: " + order.getOrderId());
     }
-}
\ No newline at end of file
+}
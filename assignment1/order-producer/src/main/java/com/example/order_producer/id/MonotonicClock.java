@@ -0,0 +1,34 @@
+package com.example.order_producer.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out strictly increasing {@code millis << sequenceBits | sequence} ticks
+ * from a single CAS on an {@link AtomicLong}. Within one millisecond the sequence
+ * counts up; when it overflows, or the wall clock steps backwards, the tick simply
+ * keeps counting into the next millisecond instead of spinning or failing, and
+ * the wall clock catches up with it again.
+ */
+final class MonotonicClock {
+
+    private final AtomicLong last = new AtomicLong();
+    private final int sequenceBits;
+    private final LongSupplier millis;
+
+    MonotonicClock(int sequenceBits, LongSupplier millis) {
+        this.sequenceBits = sequenceBits;
+        this.millis = millis;
+    }
+
+    long next() {
+        long now = millis.getAsLong() << sequenceBits;
+        while (true) {
+            long previous = last.get();
+            long next = now > previous ? now : previous + 1;
+            if (last.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+}
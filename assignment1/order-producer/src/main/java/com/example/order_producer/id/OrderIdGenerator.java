@@ -0,0 +1,10 @@
+package com.example.order_producer.id;
+
+/**
+ * Assigns ids to orders that arrive without one. Implementations must be safe
+ * to call from any number of request threads without locking.
+ */
+public interface OrderIdGenerator {
+
+    String nextId();
+}
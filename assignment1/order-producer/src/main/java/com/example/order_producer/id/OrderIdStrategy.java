@@ -0,0 +1,18 @@
+package com.example.order_producer.id;
+
+/**
+ * Values of {@code order.id.generator}.
+ */
+public enum OrderIdStrategy {
+    UUID,
+    ULID,
+    SNOWFLAKE;
+
+    public OrderIdGenerator create(int nodeId) {
+        return switch (this) {
+            case UUID -> new UuidOrderIdGenerator();
+            case ULID -> new UlidOrderIdGenerator(nodeId);
+            case SNOWFLAKE -> new SnowflakeOrderIdGenerator(nodeId);
+        };
+    }
+}
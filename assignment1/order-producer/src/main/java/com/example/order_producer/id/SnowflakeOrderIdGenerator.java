@@ -0,0 +1,55 @@
+package com.example.order_producer.id;
+
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake style 64 bit ids, laid out as
+ *
+ * <pre>
+ * | 0 | 41 bit millis since 2024-01-01 | 10 bit node id | 12 bit sequence |
+ * </pre>
+ *
+ * and rendered as a zero-padded 19 digit decimal so string order matches
+ * numeric order in the {@code order_id} column.
+ */
+public class SnowflakeOrderIdGenerator implements OrderIdGenerator {
+
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+    public static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int DIGITS = 19;
+
+    private final MonotonicClock clock;
+    private final long node;
+
+    public SnowflakeOrderIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeOrderIdGenerator(int nodeId, LongSupplier millis) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Snowflake node id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.clock = new MonotonicClock(SEQUENCE_BITS, () -> millis.getAsLong() - EPOCH_MILLIS);
+        this.node = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    public long nextLong() {
+        long tick = clock.next();
+        return (tick & ~SEQUENCE_MASK) << 10 | node | (tick & SEQUENCE_MASK);
+    }
+
+    @Override
+    public String nextId() {
+        long id = nextLong();
+        char[] digits = new char[DIGITS];
+        for (int i = DIGITS - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        return new String(digits);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.order_producer.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * 26 character Crockford base32 ULIDs. The 128 bits are laid out as
+ *
+ * <pre>
+ * | 48 bit unix millis | 16 bit sequence | 16 bit node id | 48 bit random |
+ * </pre>
+ *
+ * Time and sequence come from a {@link MonotonicClock}, so ids from one node
+ * sort in creation order both as strings and as bytes, and inserts land at the
+ * right-hand edge of the {@code order_id} index. The random tail is drawn from
+ * {@link ThreadLocalRandom}; order ids are not secrets.
+ */
+public class UlidOrderIdGenerator implements OrderIdGenerator {
+
+    public static final int MAX_NODE_ID = 0xFFFF;
+
+    private static final int SEQUENCE_BITS = 16;
+    private static final long RANDOM_MASK = (1L << 48) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final MonotonicClock clock;
+    private final long node;
+
+    public UlidOrderIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    UlidOrderIdGenerator(int nodeId, LongSupplier millis) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("ULID node id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.clock = new MonotonicClock(SEQUENCE_BITS, millis);
+        this.node = (long) nodeId << 48;
+    }
+
+    @Override
+    public String nextId() {
+        long hi = clock.next();
+        long lo = node | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+
+        char[] id = new char[26];
+        for (int i = 25; i >= 0; i--) {
+            id[i] = ALPHABET[(int) (lo & 31)];
+            lo = (lo >>> 5) | (hi << 59);
+            hi >>>= 5;
+        }
+        return new String(id);
+    }
+}
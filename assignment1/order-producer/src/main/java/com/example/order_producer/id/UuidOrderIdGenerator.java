@@ -0,0 +1,15 @@
+package com.example.order_producer.id;
+
+import java.util.UUID;
+
+/**
+ * Random version 4 UUIDs, the ids the producer assigned originally. Kept so the
+ * time-ordered generators can be switched off without a release.
+ */
+public class UuidOrderIdGenerator implements OrderIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
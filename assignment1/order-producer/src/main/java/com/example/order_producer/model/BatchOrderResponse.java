@@ -0,0 +1,56 @@
+package com.example.order_producer.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Aggregated acknowledgement returned for a batch of orders, with one result
+ * per element of the request held until the response is written.
+ */
+@Data
+public class BatchOrderResponse {
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String REJECTED = "REJECTED";
+    public static final String ACKED = "ACKED";
+    public static final String SPOOLED = "SPOOLED";
+    public static final String FAILED = "FAILED";
+
+    private int received;
+    private int accepted;
+    private int rejected;
+    private int acked;
+    private int spooled;
+    private int failed;
+    private List<BatchOrderResult> results = new ArrayList<>();
+
+    public void accepted(int index, String orderId) {
+        received++;
+        accepted++;
+        results.add(new BatchOrderResult(index, orderId, ACCEPTED, null));
+    }
+
+    public void rejected(int index, String orderId, String error) {
+        received++;
+        rejected++;
+        results.add(new BatchOrderResult(index, orderId, REJECTED, error));
+    }
+
+    public void acked(int position) {
+        acked++;
+        results.get(position).setStatus(ACKED);
+    }
+
+    public void spooled(int position) {
+        spooled++;
+        results.get(position).setStatus(SPOOLED);
+    }
+
+    public void failed(int position, String error) {
+        failed++;
+        BatchOrderResult result = results.get(position);
+        result.setStatus(FAILED);
+        result.setError(error);
+    }
+}
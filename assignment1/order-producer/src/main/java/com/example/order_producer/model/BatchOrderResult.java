@@ -0,0 +1,18 @@
+package com.example.order_producer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single element of a batch submitted to {@code /api/orders/batch}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResult {
+    private int index;
+    private String orderId;
+    private String status;
+    private String error;
+}
@@ -0,0 +1,30 @@
+package com.example.order_producer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Broker acknowledgement state of an order submitted with {@code ack=async}.
+ * {@code SPOOLED} means Kafka was unreachable and the order is held in the local
+ * spool until it can be replayed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryStatus {
+    public static final String PENDING = "PENDING";
+    public static final String ACKED = "ACKED";
+    public static final String SPOOLED = "SPOOLED";
+    public static final String FAILED = "FAILED";
+
+    private String orderId;
+    private String state;
+    private Integer partition;
+    private Long offset;
+    private String error;
+
+    public static DeliveryStatus pending(String orderId) {
+        return new DeliveryStatus(orderId, PENDING, null, null, null);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.order_producer.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.order_codec.OrderAdapter;
+
+public class OrderCodecAdapter implements OrderAdapter<Order> {
+
+    public static final OrderCodecAdapter INSTANCE = new OrderCodecAdapter();
+
+    @Override
+    public String orderId(Order order) {
+        return order.getOrderId();
+    }
+
+    @Override
+    public String customerId(Order order) {
+        return order.getCustomerId();
+    }
+
+    @Override
+    public String productId(Order order) {
+        return order.getProductId();
+    }
+
+    @Override
+    public Integer quantity(Order order) {
+        return order.getQuantity();
+    }
+
+    @Override
+    public BigDecimal price(Order order) {
+        return order.getPrice();
+    }
+
+    @Override
+    public LocalDateTime orderTime(Order order) {
+        return order.getOrderTime();
+    }
+
+    @Override
+    public String status(Order order) {
+        return order.getStatus();
+    }
+
+    @Override
+    public Order newOrder(String orderId, String customerId, String productId, Integer quantity,
+                          BigDecimal price, LocalDateTime orderTime, String status) {
+        return new Order(orderId, customerId, productId, quantity, price, orderTime, status);
+    }
+}
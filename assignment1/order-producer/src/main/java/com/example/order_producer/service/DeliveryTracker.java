@@ -0,0 +1,54 @@
+package com.example.order_producer.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import com.example.order_producer.model.DeliveryStatus;
+import com.example.order_producer.model.Order;
+
+/**
+ * Remembers the outcome of recent asynchronous sends so clients that got a 202
+ * can poll for the final broker acknowledgement. Only the most recent
+ * {@code order.producer.delivery-tracker.capacity} orders are kept.
+ */
+@Service
+public class DeliveryTracker {
+
+    private final Map<String, DeliveryStatus> statuses;
+
+    public DeliveryTracker(@Value("${order.producer.delivery-tracker.capacity:100000}") int capacity) {
+        this.statuses = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DeliveryStatus> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public void track(String orderId, CompletableFuture<SendResult<String, Order>> future) {
+        put(DeliveryStatus.pending(orderId));
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                put(new DeliveryStatus(orderId, DeliveryStatus.FAILED, null, null, ex.getMessage()));
+            } else if (OrderSpoolService.isSpooled(result)) {
+                put(new DeliveryStatus(orderId, DeliveryStatus.SPOOLED, null, null, null));
+            } else {
+                put(new DeliveryStatus(orderId, DeliveryStatus.ACKED,
+                    result.getRecordMetadata().partition(), result.getRecordMetadata().offset(), null));
+            }
+        });
+    }
+
+    public synchronized DeliveryStatus get(String orderId) {
+        return statuses.get(orderId);
+    }
+
+    private synchronized void put(DeliveryStatus status) {
+        statuses.put(status.getOrderId(), status);
+    }
+}
@@ -1,16 +1,93 @@
 package com.example.order_producer.service;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import com.example.order_producer.model.Order;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
 @Service
+@Slf4j
 public class KafkaProducerService {
     @Autowired
     private KafkaTemplate<String, Order> kafkaTemplate;
 
-    public void sendOrder(Order order) {
-        kafkaTemplate.send("orders-topic", order.getOrderId(), order);
+    @Autowired
+    private OrderSpoolService orderSpoolService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer acked;
+    private Timer spooled;
+    private Timer failed;
+
+    @PostConstruct
+    void registerMeters() {
+        acked = sendTimer("acked");
+        spooled = sendTimer("spooled");
+        failed = sendTimer("failed");
+    }
+
+    private Timer sendTimer(String outcome) {
+        return Timer.builder("orders.send")
+            .description("Time from handing an order to the producer until it was acknowledged, spooled or failed")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Hands the order to the producer and returns immediately. The returned future
+     * completes once the broker has acknowledged the record under the configured
+     * {@code acks} setting, or exceptionally if delivery fails.
+     *
+     * <p>When the cluster is unreachable the order is written to the local spool
+     * instead and the future completes with a result for which
+     * {@link OrderSpoolService#isSpooled(SendResult)} is true.
+     */
+    public CompletableFuture<SendResult<String, Order>> sendOrder(Order order) {
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, Order>> future;
+        if (orderSpoolService.isActive()) {
+            future = orderSpoolService.spool(order);
+        } else {
+            try {
+                future = kafkaTemplate.send("orders-topic", order.getOrderId(), order);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            if (orderSpoolService.isEnabled()) {
+                future = future.exceptionallyCompose(ex -> OrderSpoolService.isBrokerUnavailable(ex)
+                    ? orderSpoolService.spool(order)
+                    : CompletableFuture.failedFuture(ex));
+            }
+        }
+        future.whenComplete((result, ex) -> {
+            long elapsed = System.nanoTime() - start;
+            if (ex != null) {
+                failed.record(elapsed, TimeUnit.NANOSECONDS);
+                log.error("Failed to deliver order {}: {}", order.getOrderId(), ex.getMessage());
+            } else if (OrderSpoolService.isSpooled(result)) {
+                spooled.record(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                acked.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        });
+        return future;
+    }
+
+    public Map<MetricName, ? extends Metric> metrics() {
+        return kafkaTemplate.metrics();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.example.order_producer.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import com.example.order_producer.model.Order;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission control in front of {@link KafkaProducerService}. When the brokers slow
+ * down the producer's record accumulator fills up and {@code send} starts blocking
+ * the calling thread for up to {@code max.block.ms}. Orders are shed with a
+ * {@link ProducerOverloadedException} before that happens, once either the number
+ * of unacknowledged sends or the buffer utilization crosses its watermark, so
+ * HTTP worker threads are never parked inside the producer.
+ */
+@Service
+@Slf4j
+public class OrderAdmissionControl {
+
+    static final String REASON_IN_FLIGHT = "in_flight";
+    static final String REASON_BUFFER = "buffer";
+
+    private final KafkaProducerService kafkaProducerService;
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final double bufferHighWatermark;
+    private final long sampleIntervalNanos;
+    private final Duration retryAfter;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long lastSampleNanos;
+    private volatile double bufferUtilization;
+
+    private final Counter admitted;
+    private final Counter rejectedInFlight;
+    private final Counter rejectedBuffer;
+
+    public OrderAdmissionControl(KafkaProducerService kafkaProducerService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${order.producer.admission.enabled:true}") boolean enabled,
+                                 @Value("${order.producer.admission.max-in-flight:20000}") int maxInFlight,
+                                 @Value("${order.producer.admission.buffer-high-watermark:0.8}") double bufferHighWatermark,
+                                 @Value("${order.producer.admission.sample-interval:100ms}") Duration sampleInterval,
+                                 @Value("${order.producer.admission.retry-after:1s}") Duration retryAfter) {
+        this.kafkaProducerService = kafkaProducerService;
+        this.enabled = enabled;
+        this.maxInFlight = maxInFlight;
+        this.bufferHighWatermark = bufferHighWatermark;
+        this.sampleIntervalNanos = sampleInterval.toNanos();
+        this.retryAfter = retryAfter;
+        this.lastSampleNanos = System.nanoTime() - sampleIntervalNanos;
+
+        Gauge.builder("orders.admission.inflight", inFlight, AtomicInteger::get)
+                .description("Sends handed to the producer and not yet acknowledged")
+                .register(meterRegistry);
+        Gauge.builder("orders.admission.buffer.utilization", this, OrderAdmissionControl::sampleBufferUtilization)
+                .description("Fraction of the producer buffer.memory in use")
+                .register(meterRegistry);
+        this.admitted = Counter.builder("orders.admission.admitted")
+                .description("Orders admitted to the producer")
+                .register(meterRegistry);
+        this.rejectedInFlight = Counter.builder("orders.admission.rejected")
+                .description("Orders shed by admission control")
+                .tag("reason", REASON_IN_FLIGHT)
+                .register(meterRegistry);
+        this.rejectedBuffer = Counter.builder("orders.admission.rejected")
+                .description("Orders shed by admission control")
+                .tag("reason", REASON_BUFFER)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends the order if the producer has headroom, otherwise fails fast.
+     *
+     * @throws ProducerOverloadedException if a watermark has been crossed
+     */
+    public CompletableFuture<SendResult<String, Order>> submit(Order order) {
+        if (!enabled) {
+            return kafkaProducerService.sendOrder(order);
+        }
+
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            rejectedInFlight.increment();
+            throw new ProducerOverloadedException(
+                    "Too many orders awaiting broker acknowledgement (limit " + maxInFlight + ")", retryAfter);
+        }
+        double utilization = sampleBufferUtilization();
+        if (utilization >= bufferHighWatermark) {
+            inFlight.decrementAndGet();
+            rejectedBuffer.increment();
+            throw new ProducerOverloadedException(
+                    String.format("Producer buffer %.0f%% full", utilization * 100), retryAfter);
+        }
+
+        CompletableFuture<SendResult<String, Order>> future;
+        try {
+            future = kafkaProducerService.sendOrder(order);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        admitted.increment();
+        future.whenComplete((result, ex) -> inFlight.decrementAndGet());
+        return future;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    double sampleBufferUtilization() {
+        long now = System.nanoTime();
+        if (now - lastSampleNanos >= sampleIntervalNanos) {
+            lastSampleNanos = now;
+            bufferUtilization = readBufferUtilization();
+        }
+        return bufferUtilization;
+    }
+
+    private double readBufferUtilization() {
+        double available = -1;
+        double total = -1;
+        try {
+            for (Map.Entry<MetricName, ? extends Metric> entry : kafkaProducerService.metrics().entrySet()) {
+                MetricName name = entry.getKey();
+                if (!"producer-metrics".equals(name.group())) {
+                    continue;
+                }
+                if ("buffer-available-bytes".equals(name.name())) {
+                    available = ((Number) entry.getValue().metricValue()).doubleValue();
+                } else if ("buffer-total-bytes".equals(name.name())) {
+                    total = ((Number) entry.getValue().metricValue()).doubleValue();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("Producer metrics unavailable: {}", e.getMessage());
+            return bufferUtilization;
+        }
+        if (available < 0 || total <= 0) {
+            return 0.0;
+        }
+        return 1.0 - available / total;
+    }
+}
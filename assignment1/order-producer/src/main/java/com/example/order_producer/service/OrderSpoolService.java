@@ -0,0 +1,269 @@
+package com.example.order_producer.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.example.order_codec.BinaryOrderCodec;
+import com.example.order_producer.model.Order;
+import com.example.order_producer.model.OrderCodecAdapter;
+import com.example.order_producer.spool.OrderSpool;
+import com.example.order_producer.spool.SpoolFullException;
+import com.example.order_producer.spool.SpoolRecord;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Takes over from the direct Kafka path when the cluster is unreachable. Once a
+ * send fails with a retriable error, that order and every order after it is
+ * appended to the local {@link OrderSpool} instead of waiting on the producer.
+ * A background replayer probes the cluster, re-sends spooled orders in order,
+ * checkpoints what has been acknowledged and switches back to the direct path
+ * once the spool is drained.
+ *
+ * <p>Replay sends at most {@code replay-rate} records/s, so a recovering
+ * cluster is not hit with the whole backlog at once. New orders keep arriving
+ * in the spool while it drains; it only drains while they arrive below that
+ * rate, and the space of replayed records is reclaimed as it goes.
+ *
+ * <p>Orders spooled complete with a {@link SendResult} without record metadata;
+ * see {@link #isSpooled(SendResult)}.
+ */
+@Service
+@Slf4j
+public class OrderSpoolService implements SmartLifecycle {
+
+    static final String TOPIC = "orders-topic";
+
+    private final KafkaTemplate<String, Order> kafkaTemplate;
+    private final BinaryOrderCodec<Order> codec = new BinaryOrderCodec<>(OrderCodecAdapter.INSTANCE);
+    private final boolean enabled;
+    private final Path directory;
+    private final int replayRate;
+    private final int replayBatchSize;
+    private final Duration probeInterval;
+    private final Duration ackTimeout;
+
+    private final OrderSpool spool;
+    private ScheduledExecutorService replayer;
+    private volatile boolean active;
+    private int replayPosition;
+    private boolean probing;
+
+    public OrderSpoolService(KafkaTemplate<String, Order> kafkaTemplate,
+                             @Value("${order.producer.spool.enabled:true}") boolean enabled,
+                             @Value("${order.producer.spool.dir:${java.io.tmpdir}/order-producer-spool}") Path directory,
+                             @Value("${order.producer.spool.capacity:256MB}") DataSize capacity,
+                             @Value("${order.producer.spool.replay-rate:500}") int replayRate,
+                             @Value("${order.producer.spool.replay-batch-size:100}") int replayBatchSize,
+                             @Value("${order.producer.spool.probe-interval:5s}") Duration probeInterval,
+                             @Value("${order.producer.spool.ack-timeout:30s}") Duration ackTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.replayRate = replayRate;
+        this.replayBatchSize = replayBatchSize;
+        this.probeInterval = probeInterval;
+        this.ackTimeout = ackTimeout;
+        // Opened here rather than in start() so orders can be spooled as soon as
+        // the producer is wired, before any lifecycle phase has run.
+        this.spool = enabled ? open(directory, (int) Math.min(capacity.toBytes(), Integer.MAX_VALUE)) : null;
+        this.replayPosition = enabled ? spool.getReadPosition() : 0;
+        this.active = enabled && !spool.isEmpty();
+        if (active) {
+            log.info("Found {} spooled orders from a previous run, replaying", spool.getPendingRecords());
+        }
+    }
+
+    private static OrderSpool open(Path directory, int capacityBytes) {
+        try {
+            return OrderSpool.open(directory, capacityBytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open order spool in " + directory, e);
+        }
+    }
+
+    public static boolean isSpooled(SendResult<?, ?> result) {
+        return result != null && result.getRecordMetadata() == null;
+    }
+
+    /**
+     * True for failures that mean "cluster unreachable right now" rather than a
+     * problem with the record itself.
+     */
+    public static boolean isBrokerUnavailable(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * While active, new orders must go to the spool to stay behind the ones
+     * already waiting there.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    public CompletableFuture<SendResult<String, Order>> spool(Order order) {
+        try {
+            synchronized (this) {
+                spool.append(codec.encode(order));
+                if (!active) {
+                    log.warn("Kafka unreachable, spooling orders to {}", directory);
+                    active = true;
+                }
+            }
+        } catch (SpoolFullException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.completedFuture(new SendResult<>(new ProducerRecord<>(TOPIC, order.getOrderId(), order), null));
+    }
+
+    public int getPendingRecords() {
+        return spool == null ? 0 : spool.getPendingRecords();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || replayer != null) {
+            return;
+        }
+        replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-spool-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replayer.scheduleWithFixedDelay(this::replay, probeInterval.toMillis(), probeInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (replayer == null) {
+            return;
+        }
+        replayer.shutdownNow();
+        try {
+            replayer.awaitTermination(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        replayer = null;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (spool == null) {
+            return;
+        }
+        try {
+            spool.close();
+        } catch (IOException e) {
+            log.warn("Failed to close order spool: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return replayer != null;
+    }
+
+    /**
+     * Replays spooled orders until the spool is empty or a send fails. Each batch is
+     * sent pipelined, then the checkpoint is moved past the acknowledged prefix.
+     */
+    void replay() {
+        try {
+            while (active && !Thread.currentThread().isInterrupted()) {
+                long batchStart = System.nanoTime();
+                // After a failed attempt, probe with a single record before sending a full batch.
+                List<SpoolRecord> batch = spool.read(replayPosition, probing ? 1 : replayBatchSize);
+                if (batch.isEmpty()) {
+                    synchronized (this) {
+                        if (spool.isEmpty()) {
+                            active = false;
+                            log.info("Order spool drained, back to direct sends");
+                        }
+                    }
+                    return;
+                }
+                int delivered = sendAndAwait(batch);
+                probing = delivered < batch.size();
+                if (delivered > 0) {
+                    int committed = batch.get(delivered - 1).nextPosition();
+                    spool.commit(committed);
+                    replayPosition = spool.getReadPosition();
+                }
+                if (delivered < batch.size()) {
+                    return;
+                }
+                pace(batch.size(), batchStart);
+            }
+        } catch (IOException e) {
+            log.error("Failed to checkpoint order spool: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the number of leading records in the batch acknowledged by the broker
+     */
+    private int sendAndAwait(List<SpoolRecord> batch) throws InterruptedException {
+        List<CompletableFuture<SendResult<String, Order>>> sends = new ArrayList<>(batch.size());
+        for (SpoolRecord record : batch) {
+            Order order = codec.decode(record.payload());
+            try {
+                sends.add(kafkaTemplate.send(TOPIC, order.getOrderId(), order));
+            } catch (RuntimeException e) {
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        int delivered = 0;
+        for (CompletableFuture<SendResult<String, Order>> send : sends) {
+            try {
+                send.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                delivered++;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.debug("Replay of spooled order failed, retrying in {}: {}", probeInterval, e.getMessage());
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    /** Sleeps so that replay sends no more than {@code replay-rate} records/s. */
+    private void pace(int sent, long batchStartNanos) throws InterruptedException {
+        long minimumNanos = TimeUnit.SECONDS.toNanos(sent) / Math.max(1, replayRate);
+        long remaining = minimumNanos - (System.nanoTime() - batchStartNanos);
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+}
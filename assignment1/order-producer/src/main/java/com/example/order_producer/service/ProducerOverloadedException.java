@@ -0,0 +1,21 @@
+package com.example.order_producer.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown by {@link OrderAdmissionControl} when an order is shed because the
+ * producer is already holding more than its configured watermark.
+ */
+public class ProducerOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ProducerOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
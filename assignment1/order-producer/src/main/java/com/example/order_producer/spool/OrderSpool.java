@@ -0,0 +1,234 @@
+package com.example.order_producer.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped log of encoded orders with a separate checkpoint of
+ * how far replay has been acknowledged.
+ *
+ * <p>Each record is {@code [int length][int crc32c][payload]}. The length is written
+ * last, so a record cut short by a crash reads as length 0 and ends recovery there.
+ * Writes go to the page cache through the mapping and survive a process crash;
+ * {@link #force()} is needed to also survive losing the host.
+ *
+ * <p>The checkpoint only moves forward once records are acknowledged, so after a
+ * crash during replay everything past it is delivered again (at least once).
+ * When replay catches up with the writer the file is zeroed and reused from the
+ * start. Replay that keeps up with the writer without catching it never gets
+ * there, so once the delivered prefix reaches half the file the remaining
+ * records are moved back to the start instead.
+ */
+public class OrderSpool implements Closeable {
+
+    static final String SPOOL_FILE = "orders.spool";
+    static final String CHECKPOINT_FILE = "orders.checkpoint";
+    private static final int HEADER_BYTES = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Path checkpointFile;
+    private final int capacity;
+
+    private int readPosition;
+    private int writePosition;
+    private int pendingRecords;
+
+    private OrderSpool(FileChannel channel, MappedByteBuffer buffer, Path checkpointFile, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.checkpointFile = checkpointFile;
+        this.capacity = capacity;
+    }
+
+    public static OrderSpool open(Path directory, int capacityBytes) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(SPOOL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int capacity = (int) Math.max(capacityBytes, Math.min(channel.size(), Integer.MAX_VALUE));
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        OrderSpool spool = new OrderSpool(channel, buffer, directory.resolve(CHECKPOINT_FILE), capacity);
+        spool.recover();
+        return spool;
+    }
+
+    /**
+     * @throws SpoolFullException if the record does not fit in the remaining space
+     */
+    public synchronized int append(byte[] payload) {
+        int position = writePosition;
+        if ((long) position + HEADER_BYTES + payload.length > capacity) {
+            throw new SpoolFullException("Order spool is full (" + capacity + " bytes)");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, payload.length);
+
+        writePosition = position + HEADER_BYTES + payload.length;
+        pendingRecords++;
+        return position;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} records starting at {@code position}, which is
+     * either {@link #getReadPosition()} or a {@link SpoolRecord#nextPosition()}.
+     */
+    public synchronized List<SpoolRecord> read(int position, int maxRecords) {
+        List<SpoolRecord> records = new ArrayList<>(Math.min(maxRecords, pendingRecords));
+        while (records.size() < maxRecords && position < writePosition) {
+            int length = buffer.getInt(position);
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            int next = position + HEADER_BYTES + length;
+            records.add(new SpoolRecord(position, next, payload));
+            position = next;
+        }
+        return records;
+    }
+
+    /**
+     * Durably records that everything before {@code position} has been delivered.
+     */
+    public synchronized void commit(int position) throws IOException {
+        if (position <= readPosition) {
+            return;
+        }
+        if (position > writePosition) {
+            throw new IllegalArgumentException("Commit position " + position + " is past the end of the spool");
+        }
+        pendingRecords -= countRecords(readPosition, position);
+        if (position == writePosition) {
+            reset();
+        } else {
+            writeCheckpoint(position);
+            readPosition = position;
+            if (readPosition >= capacity / 2) {
+                compact();
+            }
+        }
+    }
+
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    public synchronized int getReadPosition() {
+        return readPosition;
+    }
+
+    public synchronized int getPendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized double getUtilization() {
+        return (double) writePosition / capacity;
+    }
+
+    public synchronized boolean isEmpty() {
+        return pendingRecords == 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void recover() throws IOException {
+        readPosition = readCheckpoint();
+        if (readPosition < 0 || readPosition > capacity) {
+            readPosition = 0;
+        }
+        int position = readPosition;
+        int records = 0;
+        CRC32C crc = new CRC32C();
+        while ((long) position + HEADER_BYTES <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || (long) position + HEADER_BYTES + length > capacity) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            crc.reset();
+            crc.update(payload);
+            if (buffer.getInt(position + 4) != (int) crc.getValue()) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+            records++;
+        }
+        writePosition = position;
+        pendingRecords = records;
+    }
+
+    private int countRecords(int from, int to) {
+        int records = 0;
+        for (int position = from; position < to; position += HEADER_BYTES + buffer.getInt(position)) {
+            records++;
+        }
+        return records;
+    }
+
+    private void reset() throws IOException {
+        // Zero the used region before moving the checkpoint back to 0. A crash in
+        // between leaves the old checkpoint pointing at zeroes, which reads as empty.
+        zero(0, writePosition);
+        writeCheckpoint(0);
+        readPosition = 0;
+        writePosition = 0;
+        pendingRecords = 0;
+    }
+
+    /**
+     * Moves the undelivered records to the start of the file. Only called with at
+     * least half the file delivered, so the copy lands entirely below the
+     * checkpoint and a crash before the checkpoint moves still finds the originals.
+     * A crash after it but before the old copies are zeroed can replay some of
+     * them again, as after any crash during replay.
+     */
+    private void compact() throws IOException {
+        int remaining = writePosition - readPosition;
+        buffer.put(0, buffer, readPosition, remaining);
+        zero(remaining, readPosition);
+        writeCheckpoint(0);
+        zero(readPosition, writePosition);
+        readPosition = 0;
+        writePosition = remaining;
+    }
+
+    private void zero(int from, int to) {
+        byte[] zeroes = new byte[Math.min(Math.max(to - from, 0), 64 * 1024)];
+        for (int position = from; position < to; position += zeroes.length) {
+            buffer.put(position, zeroes, 0, Math.min(zeroes.length, to - position));
+        }
+    }
+
+    private int readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        String value = Files.readString(checkpointFile, StandardCharsets.UTF_8).trim();
+        return value.isEmpty() ? 0 : Integer.parseInt(value);
+    }
+
+    private void writeCheckpoint(int position) throws IOException {
+        Path temp = checkpointFile.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, Integer.toString(position), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE,
+                StandardOpenOption.SYNC);
+        Files.move(temp, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
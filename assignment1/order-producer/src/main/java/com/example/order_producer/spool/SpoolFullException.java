@@ -0,0 +1,8 @@
+package com.example.order_producer.spool;
+
+public class SpoolFullException extends RuntimeException {
+
+    public SpoolFullException(String message) {
+        super(message);
+    }
+}
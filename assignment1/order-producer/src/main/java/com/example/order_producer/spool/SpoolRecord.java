@@ -0,0 +1,8 @@
+package com.example.order_producer.spool;
+
+/**
+ * A record read back from the spool. {@code nextPosition} is what to pass to
+ * {@link OrderSpool#commit(int)} once this record has been delivered.
+ */
+public record SpoolRecord(int position, int nextPosition, byte[] payload) {
+}
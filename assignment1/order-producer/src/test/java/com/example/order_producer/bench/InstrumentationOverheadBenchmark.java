@@ -0,0 +1,130 @@
+package com.example.order_producer.bench;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import com.example.order_codec.BinaryOrderCodec;
+import com.example.order_codec.OrderSerializer;
+import com.example.order_codec.OrderWireFormat;
+import com.example.order_producer.controller.OrderController;
+import com.example.order_producer.id.OrderIdStrategy;
+import com.example.order_producer.model.Order;
+import com.example.order_producer.model.OrderCodecAdapter;
+import com.example.order_producer.service.KafkaProducerService;
+import com.example.order_producer.service.OrderAdmissionControl;
+import com.example.order_producer.service.OrderSpoolService;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Cost of the metrics added to the request path: the {@code http.server.requests}
+ * observation, the {@code orders.send} timer and the admission counters, all
+ * with Prometheus histograms, against a registry that drops everything. Both
+ * sides post {@code /api/orders} through MockMvc into a {@link MockProducer}, so
+ * the difference between the two scores is the per-request overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentationOverheadBenchmark {
+
+    private static final String ORDER = "{\"customerId\":\"customer-1\",\"productId\":\"product-1\",\"quantity\":2,\"price\":29.99}";
+
+    @Param({ "none", "prometheus" })
+    private String metrics;
+
+    private MockProducer<String, Order> producer;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setup() throws Exception {
+        producer = new MockProducer<>(true, new StringSerializer(), new OrderSerializer<>(
+                new BinaryOrderCodec<>(OrderCodecAdapter.INSTANCE), new JsonSerializer<>(), OrderWireFormat.BINARY));
+        KafkaTemplate<String, Order> kafkaTemplate = new KafkaTemplate<>(new MockProducerFactory<>(() -> producer));
+
+        MeterRegistry meterRegistry;
+        ObservationRegistry observationRegistry;
+        if ("prometheus".equals(metrics)) {
+            meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            meterRegistry.config().meterFilter(new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                    return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+                }
+            });
+            observationRegistry = ObservationRegistry.create();
+            observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        } else {
+            meterRegistry = new CompositeMeterRegistry();
+            observationRegistry = ObservationRegistry.NOOP;
+        }
+
+        OrderSpoolService orderSpoolService = new OrderSpoolService(kafkaTemplate, false,
+                Files.createTempDirectory("order-spool-bench"), DataSize.ofMegabytes(1), 500, 100,
+                Duration.ofSeconds(5), Duration.ofSeconds(30));
+        KafkaProducerService kafkaProducerService = new KafkaProducerService();
+        ReflectionTestUtils.setField(kafkaProducerService, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(kafkaProducerService, "orderSpoolService", orderSpoolService);
+        ReflectionTestUtils.setField(kafkaProducerService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(kafkaProducerService, "registerMeters");
+        OrderAdmissionControl orderAdmissionControl = new OrderAdmissionControl(kafkaProducerService, meterRegistry,
+                true, 20_000, 0.8, Duration.ofMillis(100), Duration.ofSeconds(1));
+
+        OrderController controller = new OrderController();
+        ReflectionTestUtils.setField(controller, "orderAdmissionControl", orderAdmissionControl);
+        ReflectionTestUtils.setField(controller, "orderIdGenerator", OrderIdStrategy.ULID.create(0));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addFilters(new ServerHttpObservationFilter(observationRegistry))
+                .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearProducerHistory() {
+        producer.clear();
+    }
+
+    @Benchmark
+    public Object createOrder() throws Exception {
+        return mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON).content(ORDER)).andReturn();
+    }
+}
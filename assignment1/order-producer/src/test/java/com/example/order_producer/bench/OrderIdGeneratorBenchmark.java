@@ -0,0 +1,47 @@
+package com.example.order_producer.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.order_producer.id.OrderIdGenerator;
+import com.example.order_producer.id.OrderIdStrategy;
+
+/**
+ * Id generation throughput with one generator shared by all benchmark threads,
+ * as in the controller. Run with {@code -Djmh.args="OrderIdGenerator -t 8"} to
+ * see contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderIdGeneratorBenchmark {
+
+    @Param({ "UUID", "ULID", "SNOWFLAKE" })
+    private OrderIdStrategy strategy;
+
+    private OrderIdGenerator generator;
+
+    @Setup
+    public void setup() {
+        generator = strategy.create(1);
+    }
+
+    @Benchmark
+    public String nextId() {
+        return generator.nextId();
+    }
+}
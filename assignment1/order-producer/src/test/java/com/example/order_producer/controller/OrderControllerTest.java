@@ -0,0 +1,177 @@
+package com.example.order_producer.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.order_producer.config.OrderIdConfig;
+import com.example.order_producer.model.Order;
+import com.example.order_producer.service.DeliveryTracker;
+import com.example.order_producer.service.OrderAdmissionControl;
+import com.example.order_producer.service.ProducerOverloadedException;
+
+@WebMvcTest(OrderController.class)
+@Import({ DeliveryTracker.class, OrderIdConfig.class })
+class OrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private OrderAdmissionControl orderAdmissionControl;
+
+    @Test
+    void batchAcceptsJsonArray() throws Exception {
+        String body = """
+            [{"orderId":"o-1","customerId":"c-1","productId":"p-1","quantity":1,"price":10.00},
+             {"customerId":"c-2","productId":"p-2","quantity":2,"price":5.50}]
+            """;
+
+        mockMvc.perform(post("/api/orders/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.accepted").value(2))
+            .andExpect(jsonPath("$.results[0].orderId").value("o-1"))
+            .andExpect(jsonPath("$.results[1].orderId").isNotEmpty())
+            .andExpect(jsonPath("$.results[1].status").value("ACCEPTED"));
+
+        verify(orderAdmissionControl, times(2)).submit(any(Order.class));
+    }
+
+    @Test
+    void batchAcceptsNdjson() throws Exception {
+        String body = """
+            {"orderId":"o-1","customerId":"c-1","productId":"p-1","quantity":1,"price":10.00}
+            {"orderId":"o-2","customerId":"c-2","productId":"p-2","quantity":2,"price":5.50}
+            {"orderId":"o-3","customerId":"c-3","productId":"p-3","quantity":3,"price":1.25}
+            """;
+
+        mockMvc.perform(post("/api/orders/batch").contentType(OrderController.NDJSON_VALUE).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.received").value(3))
+            .andExpect(jsonPath("$.results[2].orderId").value("o-3"));
+
+        verify(orderAdmissionControl, times(3)).submit(any(Order.class));
+    }
+
+    @Test
+    void batchStopsAtMalformedElement() throws Exception {
+        String body = """
+            {"orderId":"o-1","customerId":"c-1","productId":"p-1","quantity":1,"price":10.00}
+            {"orderId":"o-2","customerId":
+            """;
+
+        mockMvc.perform(post("/api/orders/batch").contentType(OrderController.NDJSON_VALUE).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.accepted").value(1))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.results[1].status").value("REJECTED"));
+
+        verify(orderAdmissionControl, times(1)).submit(any(Order.class));
+    }
+
+    @Test
+    void waitModeRespondsAfterBrokerAck() throws Exception {
+        CompletableFuture<SendResult<String, Order>> send = new CompletableFuture<>();
+        when(orderAdmissionControl.submit(any(Order.class))).thenReturn(send);
+
+        MvcResult pending = mockMvc.perform(post("/api/orders").param("ack", "wait")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"orderId\":\"o-1\",\"customerId\":\"c-1\",\"productId\":\"p-1\",\"quantity\":1,\"price\":10.00}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        send.complete(ackFor("o-1", 7L));
+
+        mockMvc.perform(asyncDispatch(pending))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void asyncModeAnswersAcceptedAndExposesFinalStatus() throws Exception {
+        CompletableFuture<SendResult<String, Order>> send = new CompletableFuture<>();
+        when(orderAdmissionControl.submit(any(Order.class))).thenReturn(send);
+
+        mockMvc.perform(post("/api/orders").param("ack", "async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"orderId\":\"o-2\",\"customerId\":\"c-1\",\"productId\":\"p-1\",\"quantity\":1,\"price\":10.00}"))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Location", "/api/orders/o-2/ack"));
+
+        mockMvc.perform(get("/api/orders/o-2/ack"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.state").value("PENDING"));
+
+        send.complete(ackFor("o-2", 42L));
+
+        mockMvc.perform(get("/api/orders/o-2/ack"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.state").value("ACKED"))
+            .andExpect(jsonPath("$.offset").value(42));
+    }
+
+    @Test
+    void batchWaitModeReportsFailedDeliveries() throws Exception {
+        CompletableFuture<SendResult<String, Order>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("broker unavailable"));
+        when(orderAdmissionControl.submit(any(Order.class)))
+            .thenReturn(CompletableFuture.completedFuture(ackFor("o-1", 1L)))
+            .thenReturn(failed);
+
+        String body = """
+            {"orderId":"o-1","customerId":"c-1","productId":"p-1","quantity":1,"price":10.00}
+            {"orderId":"o-2","customerId":"c-2","productId":"p-2","quantity":2,"price":5.50}
+            """;
+
+        MvcResult pending = mockMvc.perform(post("/api/orders/batch").param("ack", "wait")
+                .contentType(OrderController.NDJSON_VALUE).content(body))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(jsonPath("$.acked").value(1))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.results[1].status").value("FAILED"));
+    }
+
+    @Test
+    void overloadedProducerAnswersTooManyRequests() throws Exception {
+        when(orderAdmissionControl.submit(any(Order.class)))
+            .thenThrow(new ProducerOverloadedException("Producer buffer 85% full", Duration.ofSeconds(2)));
+
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"orderId\":\"o-3\",\"customerId\":\"c-1\",\"productId\":\"p-1\",\"quantity\":1,\"price\":10.00}"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "2"));
+    }
+
+    private static SendResult<String, Order> ackFor(String orderId, long offset) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("orders-topic", 0), offset, 0, 0L, 0, 0);
+        return new SendResult<>(new ProducerRecord<>("orders-topic", orderId, null), metadata);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.order_producer.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class OrderIdGeneratorTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Test
+    void ulidIsSortableCrockfordBase32() {
+        AtomicLong clock = new AtomicLong(NOW);
+        UlidOrderIdGenerator generator = new UlidOrderIdGenerator(7, clock::get);
+
+        String first = generator.nextId();
+        String second = generator.nextId();
+        clock.addAndGet(1);
+        String third = generator.nextId();
+
+        assertThat(first).hasSize(26).matches("[0-9A-HJKMNP-TV-Z]{26}");
+        assertThat(first).isLessThan(second);
+        assertThat(second).isLessThan(third);
+        assertThat(decodeUlidMillis(first)).isEqualTo(NOW);
+        assertThat(decodeUlidMillis(third)).isEqualTo(NOW + 1);
+    }
+
+    @Test
+    void snowflakePacksTimeNodeAndSequence() {
+        SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(513, () -> NOW);
+
+        long first = generator.nextLong();
+        long second = generator.nextLong();
+
+        assertThat(first >>> 22).isEqualTo(NOW - SnowflakeOrderIdGenerator.EPOCH_MILLIS);
+        assertThat((first >>> 12) & 0x3FF).isEqualTo(513);
+        assertThat(first & 0xFFF).isZero();
+        assertThat(second & 0xFFF).isEqualTo(1);
+        assertThat(generator.nextId()).hasSize(19).isEqualTo(String.format("%019d", first + 2));
+    }
+
+    @Test
+    void staysMonotonicWhenTheClockStepsBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(1, clock::get);
+
+        long beforeStep = generator.nextLong();
+        clock.set(NOW - 5_000);
+        long afterStep = generator.nextLong();
+
+        assertThat(afterStep).isGreaterThan(beforeStep);
+    }
+
+    @Test
+    void sequenceOverflowBorrowsTheNextMillisecond() {
+        SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(0, () -> NOW);
+
+        long last = 0;
+        for (int i = 0; i < 4096 + 1; i++) {
+            long id = generator.nextLong();
+            assertThat(id).isGreaterThan(last);
+            last = id;
+        }
+
+        assertThat(last >>> 22).isEqualTo(NOW + 1 - SnowflakeOrderIdGenerator.EPOCH_MILLIS);
+        assertThat(last & 0xFFF).isZero();
+    }
+
+    @Test
+    void concurrentCallersGetUniqueIncreasingIds() throws Exception {
+        for (OrderIdStrategy strategy : List.of(OrderIdStrategy.ULID, OrderIdStrategy.SNOWFLAKE)) {
+            OrderIdGenerator generator = strategy.create(3);
+            int threads = 8;
+            int perThread = 50_000;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<List<String>>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    results.add(executor.submit(() -> {
+                        List<String> ids = new ArrayList<>(perThread);
+                        for (int i = 0; i < perThread; i++) {
+                            ids.add(generator.nextId());
+                        }
+                        return ids;
+                    }));
+                }
+
+                Set<String> unique = new HashSet<>();
+                for (Future<List<String>> result : results) {
+                    List<String> ids = result.get();
+                    assertThat(ids).isSorted();
+                    unique.addAll(ids);
+                }
+                assertThat(unique).hasSize(threads * perThread);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThatThrownBy(() -> OrderIdStrategy.SNOWFLAKE.create(1024)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OrderIdStrategy.ULID.create(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long decodeUlidMillis(String ulid) {
+        String alphabet = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+        long millis = 0;
+        for (int i = 0; i < 10; i++) {
+            millis = millis << 5 | alphabet.indexOf(ulid.charAt(i));
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.order_producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.order_producer.model.Order;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KafkaProducerServiceTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Order> kafkaTemplate = mock(KafkaTemplate.class);
+    private final OrderSpoolService orderSpoolService = mock(OrderSpoolService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KafkaProducerService service = new KafkaProducerService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(service, "orderSpoolService", orderSpoolService);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        service.registerMeters();
+    }
+
+    @Test
+    void timesSendsUntilAcknowledged() {
+        CompletableFuture<SendResult<String, Order>> send = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq("orders-topic"), anyString(), any(Order.class))).thenReturn(send);
+
+        service.sendOrder(order("order-1"));
+        assertThat(count("acked")).isZero();
+
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("orders-topic", 0), 0, 0, 0L, 0, 0);
+        send.complete(new SendResult<>(new ProducerRecord<>("orders-topic", "order-1", order("order-1")), metadata));
+
+        assertThat(count("acked")).isEqualTo(1);
+        assertThat(count("failed")).isZero();
+    }
+
+    @Test
+    void timesFailedAndSpooledSendsSeparately() {
+        when(kafkaTemplate.send(eq("orders-topic"), anyString(), any(Order.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("record too large")));
+        service.sendOrder(order("order-1"));
+
+        when(orderSpoolService.isActive()).thenReturn(true);
+        when(orderSpoolService.spool(any(Order.class))).thenReturn(CompletableFuture.completedFuture(
+                new SendResult<>(new ProducerRecord<>("orders-topic", "order-2", order("order-2")), null)));
+        service.sendOrder(order("order-2"));
+
+        assertThat(count("failed")).isEqualTo(1);
+        assertThat(count("spooled")).isEqualTo(1);
+        assertThat(count("acked")).isZero();
+    }
+
+    private long count(String outcome) {
+        return meterRegistry.get("orders.send").tag("outcome", outcome).timer().count();
+    }
+
+    private static Order order(String orderId) {
+        return new Order(orderId, "customer-1", "product-1", 1, null, null, "PENDING");
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.order_producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.SendResult;
+
+import com.example.order_producer.model.Order;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderAdmissionControlTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KafkaProducerService producer = mock(KafkaProducerService.class);
+    private SlowBroker broker;
+
+    @AfterEach
+    void stopBroker() {
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test
+    void shedsOnceInFlightLimitIsReached() {
+        List<CompletableFuture<SendResult<String, Order>>> pending = new ArrayList<>();
+        when(producer.sendOrder(any(Order.class))).thenAnswer(invocation -> {
+            CompletableFuture<SendResult<String, Order>> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+        when(producer.metrics()).thenReturn(Collections.emptyMap());
+        OrderAdmissionControl admission = admissionControl(3, 0.8);
+
+        for (int i = 0; i < 3; i++) {
+            admission.submit(order(i));
+        }
+        assertThatThrownBy(() -> admission.submit(order(3)))
+                .isInstanceOf(ProducerOverloadedException.class);
+        assertThat(meterRegistry.counter("orders.admission.rejected", "reason", "in_flight").count()).isEqualTo(1.0);
+
+        pending.get(0).complete(null);
+        admission.submit(order(4));
+        assertThat(admission.getInFlight()).isEqualTo(3);
+    }
+
+    @Test
+    void acceptedLatencyStaysBoundedDuringBrokerSlowdown() throws Exception {
+        broker = new SlowBroker(1_000, 100, Duration.ofMillis(500), 2_000);
+        when(producer.sendOrder(any(Order.class))).thenAnswer(invocation -> broker.send());
+        when(producer.metrics()).thenAnswer(invocation -> broker.metrics());
+        OrderAdmissionControl admission = admissionControl(100_000, 0.8);
+
+        int threads = 8;
+        int ordersPerThread = 2_500;
+        ConcurrentLinkedQueue<Long> acceptedLatencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            clients.execute(() -> {
+                for (int i = 0; i < ordersPerThread; i++) {
+                    long start = System.nanoTime();
+                    try {
+                        admission.submit(order(i));
+                        acceptedLatencies.add(System.nanoTime() - start);
+                    } catch (ProducerOverloadedException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        clients.shutdown();
+
+        List<Long> sorted = new ArrayList<>(acceptedLatencies);
+        Collections.sort(sorted);
+        long p99 = sorted.get((int) (sorted.size() * 0.99) - 1);
+
+        assertThat(rejected.get()).isPositive();
+        assertThat(broker.blockedSends()).isZero();
+        assertThat(Duration.ofNanos(p99)).isLessThan(Duration.ofMillis(50));
+    }
+
+    private OrderAdmissionControl admissionControl(int maxInFlight, double bufferHighWatermark) {
+        return new OrderAdmissionControl(producer, meterRegistry, true, maxInFlight, bufferHighWatermark,
+                Duration.ZERO, Duration.ofSeconds(1));
+    }
+
+    private static Order order(int i) {
+        return new Order("order-" + i, "customer-1", "product-1", 1, null, null, null);
+    }
+
+    /**
+     * Stand-in for a producer talking to a degraded cluster: records occupy a fixed
+     * amount of buffer until a slow drainer acknowledges them, and a send into a
+     * full buffer parks the caller for {@code maxBlock} the way KafkaProducer does.
+     */
+    private static final class SlowBroker {
+        private final int capacityRecords;
+        private final int recordBytes;
+        private final Duration maxBlock;
+        private final ConcurrentLinkedQueue<CompletableFuture<SendResult<String, Order>>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger blocked = new AtomicInteger();
+        private final Thread drainer;
+
+        SlowBroker(int capacityRecords, int recordBytes, Duration maxBlock, int acksPerSecond) {
+            this.capacityRecords = capacityRecords;
+            this.recordBytes = recordBytes;
+            this.maxBlock = maxBlock;
+            this.drainer = new Thread(() -> {
+                long pauseNanos = TimeUnit.SECONDS.toNanos(1) / acksPerSecond;
+                while (!Thread.currentThread().isInterrupted()) {
+                    CompletableFuture<SendResult<String, Order>> next = queue.poll();
+                    if (next != null) {
+                        queued.decrementAndGet();
+                        next.complete(null);
+                    }
+                    LockSupport.parkNanos(pauseNanos);
+                }
+            });
+            this.drainer.setDaemon(true);
+            this.drainer.start();
+        }
+
+        CompletableFuture<SendResult<String, Order>> send() throws InterruptedException {
+            if (queued.incrementAndGet() > capacityRecords) {
+                queued.decrementAndGet();
+                blocked.incrementAndGet();
+                Thread.sleep(maxBlock.toMillis());
+                return CompletableFuture.failedFuture(new TimeoutException("buffer full"));
+            }
+            CompletableFuture<SendResult<String, Order>> future = new CompletableFuture<>();
+            queue.add(future);
+            return future;
+        }
+
+        Map<MetricName, Metric> metrics() {
+            long total = (long) capacityRecords * recordBytes;
+            long available = total - (long) queued.get() * recordBytes;
+            return Map.of(
+                    metricName("buffer-available-bytes"), metric(available),
+                    metricName("buffer-total-bytes"), metric(total));
+        }
+
+        int blockedSends() {
+            return blocked.get();
+        }
+
+        void stop() {
+            drainer.interrupt();
+        }
+
+        private static MetricName metricName(String name) {
+            return new MetricName(name, "producer-metrics", "", Map.of());
+        }
+
+        private static Metric metric(double value) {
+            return new Metric() {
+                @Override
+                public MetricName metricName() {
+                    return null;
+                }
+
+                @Override
+                public Object metricValue() {
+                    return value;
+                }
+            };
+        }
+    }
+}
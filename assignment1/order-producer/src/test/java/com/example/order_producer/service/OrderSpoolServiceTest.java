@@ -0,0 +1,170 @@
+package com.example.order_producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.unit.DataSize;
+
+import com.example.order_producer.model.Order;
+
+class OrderSpoolServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Order> kafkaTemplate = mock(KafkaTemplate.class);
+    private final List<String> delivered = new ArrayList<>();
+    private final List<OrderSpoolService> services = new ArrayList<>();
+
+    @AfterEach
+    void stopServices() {
+        services.forEach(OrderSpoolService::stop);
+        services.forEach(OrderSpoolService::close);
+    }
+
+    @Test
+    void spoolsWhileUnreachableAndReplaysInOrder() {
+        brokerDown();
+        OrderSpoolService service = startService();
+        for (int i = 0; i < 5; i++) {
+            SendResult<String, Order> result = service.spool(order(i)).join();
+            assertThat(OrderSpoolService.isSpooled(result)).isTrue();
+        }
+
+        service.replay();
+        assertThat(service.isActive()).isTrue();
+        assertThat(service.getPendingRecords()).isEqualTo(5);
+
+        brokerUp(Integer.MAX_VALUE);
+        service.replay();
+
+        assertThat(delivered).containsExactly("order-0", "order-1", "order-2", "order-3", "order-4");
+        assertThat(service.isActive()).isFalse();
+        assertThat(service.getPendingRecords()).isZero();
+    }
+
+    @Test
+    void crashDuringReplayResumesFromLastAcknowledgedOrder() {
+        brokerDown();
+        OrderSpoolService beforeCrash = startService();
+        for (int i = 0; i < 10; i++) {
+            beforeCrash.spool(order(i));
+        }
+        // The broker acknowledges three orders, then the connection drops again.
+        brokerUp(3);
+        beforeCrash.replay();
+        assertThat(delivered).containsExactly("order-0", "order-1", "order-2");
+
+        // Restart on the same spool directory without a clean shutdown.
+        delivered.clear();
+        brokerUp(Integer.MAX_VALUE);
+        OrderSpoolService afterRestart = startService();
+        assertThat(afterRestart.isActive()).isTrue();
+        afterRestart.replay();
+
+        assertThat(delivered).containsExactly(
+                "order-3", "order-4", "order-5", "order-6", "order-7", "order-8", "order-9");
+        assertThat(afterRestart.getPendingRecords()).isZero();
+    }
+
+    @Test
+    void spoolsBeforeTheReplayerHasStarted() {
+        OrderSpoolService service = service(1_000_000, 100);
+
+        assertThat(OrderSpoolService.isSpooled(service.spool(order(0)).join())).isTrue();
+        assertThat(service.getPendingRecords()).isEqualTo(1);
+    }
+
+    @Test
+    void capsTheReplayRateWhileNewOrdersKeepArriving() {
+        brokerDown();
+        OrderSpoolService service = startService(1_000, 100);
+        for (int i = 0; i < 10; i++) {
+            service.spool(order(i));
+        }
+        // Every acknowledged order brings in a new one, 300 in all
+        int[] next = { 10 };
+        when(kafkaTemplate.send(eq("orders-topic"), anyString(), any(Order.class))).thenAnswer(invocation -> {
+            if (next[0] < 310) {
+                service.spool(order(next[0]++));
+            }
+            delivered.add(invocation.getArgument(1));
+            return CompletableFuture.completedFuture(new SendResult<>(null,
+                    new RecordMetadata(new TopicPartition("orders-topic", 0), 0, 0, 0L, 0, 0)));
+        });
+
+        long start = System.nanoTime();
+        service.replay();
+
+        // 310 sends at 1,000/s
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(300));
+        assertThat(delivered).hasSize(310).startsWith("order-0").endsWith("order-309");
+        assertThat(service.isActive()).isFalse();
+    }
+
+    @Test
+    void classifiesRetriableFailuresAsBrokerUnavailable() {
+        assertThat(OrderSpoolService.isBrokerUnavailable(new RuntimeException(new TimeoutException("metadata")))).isTrue();
+        assertThat(OrderSpoolService.isBrokerUnavailable(new IllegalArgumentException("bad record"))).isFalse();
+    }
+
+    private OrderSpoolService startService() {
+        return startService(1_000_000, 100);
+    }
+
+    private OrderSpoolService startService(int replayRate, int replayBatchSize) {
+        OrderSpoolService service = service(replayRate, replayBatchSize);
+        service.start();
+        return service;
+    }
+
+    private OrderSpoolService service(int replayRate, int replayBatchSize) {
+        OrderSpoolService service = new OrderSpoolService(kafkaTemplate, true, directory, DataSize.ofKilobytes(64),
+                replayRate, replayBatchSize, Duration.ofHours(1), Duration.ofSeconds(1));
+        services.add(service);
+        return service;
+    }
+
+    private void brokerDown() {
+        when(kafkaTemplate.send(eq("orders-topic"), anyString(), any(Order.class)))
+                .thenAnswer(invocation -> CompletableFuture.failedFuture(new TimeoutException("broker down")));
+    }
+
+    private void brokerUp(int acknowledgements) {
+        int[] remaining = { acknowledgements };
+        when(kafkaTemplate.send(eq("orders-topic"), anyString(), any(Order.class))).thenAnswer(invocation -> {
+            if (remaining[0]-- <= 0) {
+                return CompletableFuture.failedFuture(new TimeoutException("broker down"));
+            }
+            String key = invocation.getArgument(1);
+            delivered.add(key);
+            RecordMetadata metadata = new RecordMetadata(new TopicPartition("orders-topic", 0), delivered.size(), 0, 0L, 0, 0);
+            return CompletableFuture.completedFuture(
+                    new SendResult<>(new ProducerRecord<>("orders-topic", key, (Order) invocation.getArgument(2)), metadata));
+        });
+    }
+
+    private static Order order(int i) {
+        return new Order("order-" + i, "customer-1", "product-1", 1, null, null, "PENDING");
+    }
+}
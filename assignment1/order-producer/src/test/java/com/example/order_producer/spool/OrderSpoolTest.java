@@ -0,0 +1,150 @@
+package com.example.order_producer.spool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OrderSpoolTest {
+
+    private static final int CAPACITY = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsSurviveReopenInOrder() throws IOException {
+        try (OrderSpool spool = OrderSpool.open(directory, CAPACITY)) {
+            for (int i = 0; i < 5; i++) {
+                spool.append(payload(i));
+            }
+        }
+
+        try (OrderSpool spool = OrderSpool.open(directory, CAPACITY)) {
+            assertThat(spool.getPendingRecords()).isEqualTo(5);
+            assertThat(payloads(spool.read(spool.getReadPosition(), 10)))
+                    .containsExactly("order-0", "order-1", "order-2", "order-3", "order-4");
+        }
+    }
+
+    @Test
+    void crashDuringReplayRedeliversFromCheckpoint() throws IOException {
+        OrderSpool beforeCrash = OrderSpool.open(directory, CAPACITY);
+        for (int i = 0; i < 10; i++) {
+            beforeCrash.append(payload(i));
+        }
+        List<SpoolRecord> inFlight = beforeCrash.read(beforeCrash.getReadPosition(), 10);
+        // Orders 0-3 were acknowledged and checkpointed, 4-9 were on the wire when
+        // the process died. Nothing is closed or flushed.
+        beforeCrash.commit(inFlight.get(3).nextPosition());
+
+        try (OrderSpool afterRestart = OrderSpool.open(directory, CAPACITY)) {
+            assertThat(afterRestart.getPendingRecords()).isEqualTo(6);
+            assertThat(payloads(afterRestart.read(afterRestart.getReadPosition(), 10)))
+                    .containsExactly("order-4", "order-5", "order-6", "order-7", "order-8", "order-9");
+        }
+    }
+
+    @Test
+    void tornAppendIsDiscardedOnRecovery() throws IOException {
+        int tornPosition;
+        try (OrderSpool spool = OrderSpool.open(directory, CAPACITY)) {
+            spool.append(payload(0));
+            spool.append(payload(1));
+            tornPosition = spool.append(payload(2));
+        }
+        // The length is the last field written, so a crash mid-append leaves it at 0.
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(OrderSpool.SPOOL_FILE).toFile(), "rw")) {
+            file.seek(tornPosition);
+            file.writeInt(0);
+        }
+
+        try (OrderSpool spool = OrderSpool.open(directory, CAPACITY)) {
+            assertThat(spool.getPendingRecords()).isEqualTo(2);
+            spool.append(payload(3));
+            assertThat(payloads(spool.read(spool.getReadPosition(), 10)))
+                    .containsExactly("order-0", "order-1", "order-3");
+        }
+    }
+
+    @Test
+    void corruptedRecordEndsRecovery() throws IOException {
+        int corruptPosition;
+        try (OrderSpool spool = OrderSpool.open(directory, CAPACITY)) {
+            spool.append(payload(0));
+            corruptPosition = spool.append(payload(1));
+            spool.append(payload(2));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(OrderSpool.SPOOL_FILE).toFile(), "rw")) {
+            file.seek(corruptPosition + 8);
+            file.write('X');
+        }
+
+        try (OrderSpool spool = OrderSpool.open(directory, CAPACITY)) {
+            assertThat(payloads(spool.read(spool.getReadPosition(), 10))).containsExactly("order-0");
+        }
+    }
+
+    @Test
+    void drainingResetsTheSpool() throws IOException {
+        try (OrderSpool spool = OrderSpool.open(directory, CAPACITY)) {
+            spool.append(payload(0));
+            spool.append(payload(1));
+            List<SpoolRecord> records = spool.read(spool.getReadPosition(), 10);
+            spool.commit(records.get(1).nextPosition());
+
+            assertThat(spool.isEmpty()).isTrue();
+            assertThat(spool.getReadPosition()).isZero();
+            assertThat(spool.getUtilization()).isZero();
+        }
+
+        try (OrderSpool spool = OrderSpool.open(directory, CAPACITY)) {
+            assertThat(spool.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void reclaimsTheDeliveredPrefixWhileRecordsAreStillPending() throws IOException {
+        try (OrderSpool spool = OrderSpool.open(directory, 256)) {
+            // 15-byte records; the spool never drains, so only reclaiming makes room
+            for (int i = 0; i < 20; i++) {
+                spool.append(payload(i));
+                List<SpoolRecord> records = spool.read(spool.getReadPosition(), 2);
+                if (records.size() == 2) {
+                    spool.commit(records.get(0).nextPosition());
+                }
+            }
+
+            assertThat(spool.getPendingRecords()).isEqualTo(1);
+            assertThat(spool.getUtilization()).isLessThan(0.5);
+        }
+
+        try (OrderSpool spool = OrderSpool.open(directory, 256)) {
+            assertThat(payloads(spool.read(spool.getReadPosition(), 10))).containsExactly("order-19");
+        }
+    }
+
+    @Test
+    void rejectsAppendsBeyondCapacity() throws IOException {
+        try (OrderSpool spool = OrderSpool.open(directory, 32)) {
+            spool.append(new byte[20]);
+
+            assertThatThrownBy(() -> spool.append(new byte[20])).isInstanceOf(SpoolFullException.class);
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return ("order-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<SpoolRecord> records) {
+        return records.stream().map(record -> new String(record.payload(), StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -17,6 +17,17 @@ docker exec kafka1 kafka-topics --bootstrap-server kafka1:29092 \
   --replication-factor 2 \
   --if-not-exists
 
+# Create order-consumer retry tiers and dead-letter topic; same partition count as
+# orders-topic so every order id keeps to one partition
+for topic in orders-topic-retry-0 orders-topic-retry-1 orders-topic-retry-2 orders-topic-dlt; do
+  echo "Creating ${topic}..."
+  docker exec kafka1 kafka-topics --bootstrap-server kafka1:29092 \
+    --create --topic ${topic} \
+    --partitions 3 \
+    --replication-factor 2 \
+    --if-not-exists
+done
+
 # Create logs-topic with 7-day TTL and log compaction
 echo "Creating logs-topic with log compaction and 7-day retention..."
 docker exec kafka1 kafka-topics --bootstrap-server kafka1:29092 \
@@ -36,6 +47,27 @@ docker exec kafka1 kafka-topics --bootstrap-server kafka1:29092 \
   --replication-factor 2 \
   --if-not-exists
 
+# Create hourly-transaction-early-topic for provisional running counts; only the
+# latest count per hour matters, so compacted
+echo "Creating hourly-transaction-early-topic..."
+docker exec kafka1 kafka-topics --bootstrap-server kafka1:29092 \
+  --create --topic hourly-transaction-early-topic \
+  --partitions 3 \
+  --replication-factor 2 \
+  --config cleanup.policy=compact \
+  --if-not-exists
+
+# Create minute count, hourly revenue and hot product topics for Kafka Streams output; keyed upserts, so compacted
+for topic in minute-transaction-topic hourly-product-revenue-topic hourly-customer-revenue-topic hourly-hot-products-topic; do
+  echo "Creating ${topic}..."
+  docker exec kafka1 kafka-topics --bootstrap-server kafka1:29092 \
+    --create --topic ${topic} \
+    --partitions 3 \
+    --replication-factor 2 \
+    --config cleanup.policy=compact \
+    --if-not-exists
+done
+
 # List created topics
 echo "Listing all topics:"
 docker exec kafka1 kafka-topics --bootstrap-server kafka1:29092 --list